@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Arrays;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+/**
+ * Tells which functions and operators override the fixed arity {@code apply} methods.<br><br>
+ * Subclasses that only implement {@code apply(double...)} are called with a reused array
+ * instead, since the default fixed arity methods would create a new one on every call.<br>
+ * This uses reflection, so it should only be called when an expression is built (and the
+ * answer is cached per class, since the same functions are used by many expressions).
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class Arity {
+    /** Maximum number of arguments with a fixed arity {@code apply} method */
+    static final int MAX = 3;
+
+    /** Overridden fixed arity methods of each class, indexed by number of arguments */
+    private static final ClassValue<boolean[]> OVERRIDES = new ClassValue<>() {
+        @Override
+        protected boolean[] computeValue(Class<?> type) {
+            final Class<?> base = Function.class.isAssignableFrom(type) ? Function.class
+                                                                        : Operator.class;
+            final boolean[] overrides = new boolean[MAX + 1];
+            for (int n = 1; n <= MAX; n++) {
+                overrides[n] = overrides(type, base, n);
+            }
+            return overrides;
+        }
+    };
+
+    private Arity() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Checks if a function can be called through its fixed arity {@code apply} method.
+     *
+     * @param func function to check
+     * @return {@code true} if the function takes between 1 and {@link #MAX} arguments and
+     * its class overrides the corresponding method
+     */
+    static boolean isSpecialized(Function func) {
+        final int n = func.getNumArguments();
+        return n >= 1 && n <= MAX && OVERRIDES.get(func.getClass())[n];
+    }
+
+    /**
+     * Checks if an operator can be called through its fixed arity {@code apply} method.
+     *
+     * @param op operator to check
+     * @return {@code true} if the operator is unary or binary and its class overrides the
+     * corresponding method
+     */
+    static boolean isSpecialized(Operator op) {
+        final int n = op.getNumOperands();
+        return (n == 1 || n == 2) && OVERRIDES.get(op.getClass())[n];
+    }
+
+    private static boolean overrides(Class<?> type, Class<?> base, int n) {
+        final Class<?>[] params = new Class<?>[n];
+        Arrays.fill(params, double.class);
+        try {
+            return type.getMethod("apply", params).getDeclaringClass() != base;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+}
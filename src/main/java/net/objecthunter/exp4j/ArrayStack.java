@@ -81,4 +81,8 @@ final class ArrayStack implements Serializable {
     int size() {
         return idx + 1;
     }
+
+    void clear() {
+        idx = -1;
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Input columns and output of a batch evaluation. Rows are always accessed by absolute
+ * index, so the same instance can be shared by several threads working on disjoint ranges.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+interface BatchData {
+    /**
+     * @return number of columns
+     */
+    int columns();
+
+    /**
+     * @param slot column index
+     * @return number of rows of the column or {@code -1} if it's missing
+     */
+    int size(int slot);
+
+    /**
+     * @return number of rows to evaluate
+     */
+    int rows();
+
+    /**
+     * Copies {@code len} values of a column starting at {@code row} into {@code dst}.
+     */
+    void read(int slot, int row, double[] dst, int len);
+
+    /**
+     * Retrieves a single value of a column.
+     */
+    double get(int slot, int row);
+
+    /**
+     * Copies {@code len} results into the output starting at {@code row}.
+     */
+    void write(int row, double[] src, int len);
+
+    /**
+     * Stores a single result.
+     */
+    void set(int row, double value);
+
+    /**
+     * Batch data backed by arrays.
+     */
+    final class Arrays implements BatchData {
+        private final double[][] columns;
+
+        private final double[] out;
+
+        Arrays(double[][] columns, double[] out) {
+            this.columns = columns;
+            this.out = out;
+        }
+
+        @Override
+        public int columns() {
+            return columns.length;
+        }
+
+        @Override
+        public int size(int slot) {
+            return columns[slot] == null ? -1 : columns[slot].length;
+        }
+
+        @Override
+        public int rows() {
+            return out.length;
+        }
+
+        @Override
+        public void read(int slot, int row, double[] dst, int len) {
+            System.arraycopy(columns[slot], row, dst, 0, len);
+        }
+
+        @Override
+        public double get(int slot, int row) {
+            return columns[slot][row];
+        }
+
+        @Override
+        public void write(int row, double[] src, int len) {
+            System.arraycopy(src, 0, out, row, len);
+        }
+
+        @Override
+        public void set(int row, double value) {
+            out[row] = value;
+        }
+    }
+
+    /**
+     * Batch data backed by (possibly direct or memory mapped) buffers. Rows are relative to
+     * the position of each buffer, and the positions are never modified.
+     */
+    final class Buffers implements BatchData {
+        private final DoubleBuffer[] columns;
+
+        private final DoubleBuffer out;
+
+        private final int[] offsets;
+
+        private final int offset;
+
+        Buffers(DoubleBuffer[] columns, DoubleBuffer out) {
+            this.columns = columns;
+            this.out = out;
+            this.offsets = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                offsets[i] = columns[i] == null ? 0 : columns[i].position();
+            }
+            this.offset = out.position();
+        }
+
+        @Override
+        public int columns() {
+            return columns.length;
+        }
+
+        @Override
+        public int size(int slot) {
+            return columns[slot] == null ? -1 : columns[slot].remaining();
+        }
+
+        @Override
+        public int rows() {
+            return out.remaining();
+        }
+
+        @Override
+        public void read(int slot, int row, double[] dst, int len) {
+            columns[slot].get(offsets[slot] + row, dst, 0, len);
+        }
+
+        @Override
+        public double get(int slot, int row) {
+            return columns[slot].get(offsets[slot] + row);
+        }
+
+        @Override
+        public void write(int row, double[] src, int len) {
+            out.put(offset + row, src, 0, len);
+        }
+
+        @Override
+        public void set(int row, double value) {
+            out.put(offset + row, value);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Arrays;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+
+/**
+ * Evaluates an expression over columns of values, one token at a time.<br><br>
+ * Instead of walking the RPN once per row, each token is applied to a whole chunk of rows, so
+ * the interpretation overhead is paid once per token per chunk. Rows are processed in chunks
+ * of {@link #CHUNK} so the intermediate vectors stay in the cache.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class BatchEvaluator {
+    /** Number of rows evaluated at once */
+    static final int CHUNK = 512;
+
+    /** Loops used for the built-in operators and functions */
+    static final BatchKernels KERNELS = loadKernels();
+
+    private final CompiledExpression program;
+
+    private final double[][] stack;
+
+    private final double[][] arguments;
+
+    BatchEvaluator(CompiledExpression program) {
+        this.program = program;
+        stack = new double[program.maxDepth()][CHUNK];
+        arguments = new double[program.maxArgs() + 1][];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = new double[i];
+        }
+    }
+
+    /**
+     * Uses the SIMD kernels if the {@code jdk.incubator.vector} module is available (and they
+     * were built, see the {@code simd} profile of the {@code pom.xml}) unless the
+     * {@code exp4j.simd} system property is {@code false}.
+     */
+    private static BatchKernels loadKernels() {
+        if (!Boolean.parseBoolean(System.getProperty("exp4j.simd", "true")) ||
+                ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ScalarKernels.INSTANCE;
+        }
+        try {
+            return (BatchKernels) Class.forName("net.objecthunter.exp4j.VectorKernels")
+                                       .getDeclaredConstructor()
+                                       .newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return ScalarKernels.INSTANCE;
+        }
+    }
+
+    /**
+     * Evaluates the rows {@code [from, to)}, the columns must already be validated.
+     *
+     * @param data values of each variable indexed by slot and where the results will be stored
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     */
+    void evaluate(BatchData data, int from, int to) {
+        for (int start = from; start < to; start += CHUNK) {
+            final int len = Math.min(CHUNK, to - start);
+            evaluateChunk(data, start, len);
+            data.write(start, stack[0], len);
+        }
+    }
+
+    private void evaluateChunk(BatchData data, int start, int len) {
+        final Token[] tokens = program.tokens();
+        int sp = -1;
+        for (int i = 0; i < tokens.length; i++) {
+            final Token t = tokens[i];
+            switch (t.getType()) {
+                case NUMBER   -> Arrays.fill(stack[++sp], 0, len, ((NumberToken) t).getValue());
+                case VARIABLE -> data.read(program.slotAt(i), start, stack[++sp], len);
+                case OPERATOR -> {
+                    final Operator op = ((OperatorToken) t).getOperator();
+                    final boolean specialized = program.isSpecializedAt(i);
+                    if (op.getNumOperands() == 2) {
+                        binary(op, specialized, stack[sp - 1], stack[sp], len);
+                        sp--;
+                    } else {
+                        unary(op, specialized, stack[sp], len);
+                    }
+                }
+                case FUNCTION -> {
+                    final Function func = ((FunctionToken) t).getFunction();
+                    final int n = func.getNumArguments();
+                    sp -= n - 1;
+                    function(func, program.isSpecializedAt(i), sp, len);
+                }
+                default -> {
+                    //Do nothing
+                }
+            }
+        }
+    }
+
+    /** Applies a binary operator leaving the result on {@code a} */
+    private void binary(Operator op, boolean specialized, double[] a, double[] b, int len) {
+        if (KERNELS.binary(op, a, b, len)) {
+            return;
+        }
+        if (specialized) {
+            for (int r = 0; r < len; r++) {
+                a[r] = op.apply(a[r], b[r]);
+            }
+        } else {
+            final double[] args = arguments[2];
+            for (int r = 0; r < len; r++) {
+                args[0] = a[r];
+                args[1] = b[r];
+                a[r] = op.apply(args);
+            }
+        }
+    }
+
+    /** Applies an unary operator in place */
+    private void unary(Operator op, boolean specialized, double[] a, int len) {
+        if (KERNELS.unary(op, a, len)) {
+            return;
+        }
+        if (specialized) {
+            for (int r = 0; r < len; r++) {
+                a[r] = op.apply(a[r]);
+            }
+        } else {
+            final double[] args = arguments[1];
+            for (int r = 0; r < len; r++) {
+                args[0] = a[r];
+                a[r] = op.apply(args);
+            }
+        }
+    }
+
+    /** Applies a function whose first argument is at {@code sp}, leaving the result there */
+    private void function(Function func, boolean specialized, int sp, int len) {
+        final int n = func.getNumArguments();
+        final double[] res = stack[sp];
+        if (KERNELS.function(func, stack, sp, len)) {
+            return;
+        }
+        if (n == 0) {
+            final double[] args = arguments[0];
+            for (int r = 0; r < len; r++) {
+                res[r] = func.apply(args);
+            }
+        } else if (specialized && n == 1) {
+            for (int r = 0; r < len; r++) {
+                res[r] = func.apply(res[r]);
+            }
+        } else if (specialized && n == 2) {
+            final double[] b = stack[sp + 1];
+            for (int r = 0; r < len; r++) {
+                res[r] = func.apply(res[r], b[r]);
+            }
+        } else if (specialized && n == 3) {
+            final double[] b = stack[sp + 1];
+            final double[] c = stack[sp + 2];
+            for (int r = 0; r < len; r++) {
+                res[r] = func.apply(res[r], b[r], c[r]);
+            }
+        } else {
+            final double[] args = arguments[n];
+            for (int r = 0; r < len; r++) {
+                for (int j = 0; j < n; j++) {
+                    args[j] = stack[sp + j][r];
+                }
+                res[r] = func.apply(args);
+            }
+        }
+    }
+}
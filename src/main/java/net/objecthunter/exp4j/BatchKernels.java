@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+/**
+ * Specialized loops for built-in operators and functions used by {@link BatchEvaluator}.
+ * Every method returns {@code false} if it doesn't know the given operator or function, in
+ * which case the evaluator just calls it once per row.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+interface BatchKernels {
+    /**
+     * Applies a binary operator to the first {@code len} rows, leaving the result on {@code a}.
+     *
+     * @param op operator to apply
+     * @param a left operands
+     * @param b right operands
+     * @param len number of rows
+     * @return {@code true} if the operator was applied
+     */
+    boolean binary(Operator op, double[] a, double[] b, int len);
+
+    /**
+     * Applies an unary operator to the first {@code len} rows in place.
+     *
+     * @param op operator to apply
+     * @param a operands
+     * @param len number of rows
+     * @return {@code true} if the operator was applied
+     */
+    boolean unary(Operator op, double[] a, int len);
+
+    /**
+     * Applies a function to the first {@code len} rows, leaving the result on
+     * {@code stack[sp]}.
+     *
+     * @param func function to apply
+     * @param stack vector stack, the arguments are on {@code stack[sp...]}
+     * @param sp position of the first argument
+     * @param len number of rows
+     * @return {@code true} if the function was applied
+     */
+    boolean function(Function func, double[][] stack, int sp, int len);
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Values of the variables of a {@link CompiledExpression} together with the scratch space
+ * needed to evaluate it.<br><br>
+ * Bindings are cheap to create and evaluating with them doesn't allocate anything, but they
+ * are <b>NOT</b> thread safe, each thread should have its own.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see CompiledExpression#bindings()
+ * @see CompiledExpression#evaluate(Bindings)
+ */
+public final class Bindings implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3180462275014628763L;
+
+    final CompiledExpression program;
+
+    final double[] values;
+
+    final boolean[] set;
+
+    transient ArrayStack stack;
+
+    transient double[] registers;
+
+    transient double[][] arguments;
+
+    Bindings(CompiledExpression program) {
+        this.program = program;
+        this.values = program.values();
+        this.set = new boolean[program.variableOrder().length];
+        allocateScratch();
+    }
+
+    private Bindings(Bindings original) {
+        this.program = original.program;
+        this.values = Arrays.copyOf(original.values, original.values.length);
+        this.set = Arrays.copyOf(original.set, original.set.length);
+        allocateScratch();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        allocateScratch();
+    }
+
+    private void allocateScratch() {
+        final int maxArgs = program.maxArgs();
+        stack = new ArrayStack(program.maxDepth());
+        registers = new double[program.maxDepth()];
+        arguments = new double[maxArgs + 1][];
+        for (int i = 0; i <= maxArgs; i++) {
+            arguments[i] = new double[i];
+        }
+    }
+
+    /**
+     * Creates a copy of these bindings (including the values of the variables) that can be
+     * used on another thread.
+     *
+     * @return copy of this {@code Bindings}
+     */
+    public Bindings copy() {
+        return new Bindings(this);
+    }
+
+    /**
+     * Sets the value of a variable, the variable to set must exist at build time and can't be the
+     * name of a function.
+     *
+     * @param name variable name as passed to {@link ExpressionBuilder}
+     * @param value value of the variable
+     * @return {@code this}
+     * @throws IllegalArgumentException if the variable name is a function name or if the variable
+     * doesn't exist at build time.
+     */
+    public Bindings set(final String name, final double value) {
+        final int slot = program.slot(name);
+        values[slot] = value;
+        set[slot] = true;
+        return this;
+    }
+
+    /**
+     * Sets the value of a variable using a handle previously obtained with
+     * {@link CompiledExpression#handle(String)} (or {@link Expression#handle(String)}).
+     *
+     * @param handle handle of the variable
+     * @param value value of the variable
+     * @return {@code this}
+     * @throws IllegalArgumentException if the handle was created by an unrelated expression
+     */
+    public Bindings set(final VariableHandle handle, final double value) {
+        if (!handle.belongsTo(program.variableOrder())) {
+            throw new IllegalArgumentException(l10n(
+                    "The handle of variable '%s' belongs to another expression", handle.getName()
+            ));
+        }
+        final int slot = handle.getIndex();
+        values[slot] = value;
+        set[slot] = true;
+        return this;
+    }
+
+    /**
+     * Sets the value of all the variables at once, in the order in which they were declared
+     * in the {@link ExpressionBuilder}.
+     *
+     * @param values values of the variables in declaration order
+     * @return {@code this}
+     * @throws IllegalArgumentException if the number of values is different from the number of
+     * declared variables
+     */
+    public Bindings set(final double[] values) {
+        if (values.length != set.length) {
+            throw new IllegalArgumentException(l10n(
+                    "Expected %d values but got %d", set.length, values.length
+            ));
+        }
+        System.arraycopy(values, 0, this.values, 0, values.length);
+        Arrays.fill(set, true);
+        return this;
+    }
+
+    /**
+     * Tells if a value has been set for the given variable.
+     *
+     * @param name variable name
+     * @return {@code true} if the variable has a value and {@code false} otherwise
+     * @throws IllegalArgumentException if the variable doesn't exist
+     */
+    public boolean isSet(final String name) {
+        return set[program.slot(name)];
+    }
+
+    /**
+     * Retrieves the value of a variable.
+     *
+     * @param name variable name
+     * @return value of the variable ({@code 0} if it hasn't been set)
+     * @throws IllegalArgumentException if the variable doesn't exist
+     */
+    public double get(final String name) {
+        return values[program.slot(name)];
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of building many expressions at once with
+ * {@link ExpressionContext#buildAll(List, boolean)}.<br><br>
+ * Results are indexed like the list of expressions. An expression that couldn't be built has
+ * no result, its exception is in {@link #getFailures()} instead.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class BulkBuild {
+    private final CompiledExpression[] results;
+
+    private final Map<Integer, RuntimeException> failures;
+
+    private final long elapsed;
+
+    BulkBuild(CompiledExpression[] results, RuntimeException[] failures, long elapsed) {
+        this.results = results;
+        this.elapsed = elapsed;
+        final Map<Integer, RuntimeException> map = new TreeMap<>();
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+                map.put(i, failures[i]);
+            }
+        }
+        this.failures = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * @return number of expressions in the batch
+     */
+    public int size() {
+        return results.length;
+    }
+
+    /**
+     * @param index index of the expression in the batch
+     * @return immutable form of the expression or {@code null} if it couldn't be built
+     */
+    public CompiledExpression get(int index) {
+        return results[index];
+    }
+
+    /**
+     * @param index index of the expression in the batch
+     * @return new expression (with its own variables) or {@code null} if it couldn't be built
+     */
+    public Expression getExpression(int index) {
+        return results[index] == null ? null : new Expression(results[index]);
+    }
+
+    /**
+     * @return unmodifiable list of the results, with {@code null} for the failures
+     */
+    public List<CompiledExpression> getResults() {
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * @return unmodifiable map from the index of each expression that couldn't be built to the
+     * exception thrown while building it, sorted by index
+     */
+    public Map<Integer, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return number of expressions that were built
+     */
+    public int getSucceeded() {
+        return results.length - failures.size();
+    }
+
+    /**
+     * @return number of expressions that couldn't be built
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * @return wall clock time spent building the batch in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsed;
+    }
+
+    /**
+     * @return expressions (built or not) processed per second
+     */
+    public double getThroughput() {
+        return elapsed == 0 ? 0 : results.length * 1e9 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkBuild{size=" + results.length + ", failed=" + failures.size() +
+               ", elapsedNanos=" + elapsed + ", throughput=" + getThroughput() + '}';
+    }
+}
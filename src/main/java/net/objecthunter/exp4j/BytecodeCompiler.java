@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.function.Functions;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import static net.objecthunter.exp4j.BytecodeWriter.*;
+import static net.objecthunter.exp4j.operator.Operator.BOOLEAN_THRESHOLD;
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Compiles the RPN of an expression into a JVM hidden class implementing
+ * {@link Evaluator}.<br><br>
+ * Built-in operators and functions are translated to bytecode or direct
+ * {@link Math} calls, variables are loaded from the slots array and user
+ * functions and operators are invoked through fields of the generated class.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class BytecodeCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final String CLASS_NAME = "net/objecthunter/exp4j/GeneratedEvaluator";
+    private static final String EVALUATOR  = "net/objecthunter/exp4j/Evaluator";
+    private static final String SUPPORT    = "net/objecthunter/exp4j/BytecodeCompiler";
+    private static final String OBJECT     = "java/lang/Object";
+    private static final String MATH       = "java/lang/Math";
+    private static final String FUNCTION   = "net/objecthunter/exp4j/function/Function";
+    private static final String OPERATOR   = "net/objecthunter/exp4j/operator/Operator";
+    private static final String FUNCTIONS  = "[L" + FUNCTION + ";";
+    private static final String OPERATORS  = "[L" + OPERATOR + ";";
+    private static final String UNARY      = "(D)D";
+    private static final String BINARY     = "(DD)D";
+
+    /** Local variable index of the slots array */
+    private static final int VARS = 1;
+    /** First local variable index available for temporary values */
+    private static final int TEMP = 2;
+
+    private BytecodeCompiler() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Compiles the given RPN.
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot index of each variable
+     * @return compiled {@link Evaluator} or {@code null} if the expression
+     * can't be compiled (i.e. it's not valid)
+     */
+    static Evaluator compile(Token[] tokens, Map<String, Integer> slots) {
+        return compile(tokens, slots, null);
+    }
+
+    /**
+     * Compiles the given RPN, computing each common subexpression once. The result of a
+     * shared subexpression is kept in a local variable (the slots of the temporaries in the
+     * array of variables aren't used).
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot index of each variable
+     * @param cse common subexpressions or {@code null}
+     * @return compiled {@link Evaluator} or {@code null} if the expression
+     * can't be compiled (i.e. it's not valid)
+     */
+    static Evaluator compile(Token[] tokens, Map<String, Integer> slots, Subexpressions cse) {
+        if (!isValid(tokens)) {
+            return null;
+        }
+        //Temporaries go first, the locals after them are used to call user functions
+        final int scratch = TEMP + 2 * (cse == null ? 0 : cse.count);
+
+        final List<Function> functions = new ArrayList<>(4);
+        final List<Operator> operators = new ArrayList<>(4);
+        final BytecodeWriter cw = new BytecodeWriter(CLASS_NAME, OBJECT, EVALUATOR);
+        cw.field(ACC_PRIVATE | ACC_FINAL, "f", FUNCTIONS);
+        cw.field(ACC_PRIVATE | ACC_FINAL, "o", OPERATORS);
+
+        final BytecodeWriter.Code init = cw.method(
+                ACC_PUBLIC, "<init>", "(" + FUNCTIONS + OPERATORS + ")V"
+        );
+        init.locals(3)
+            .aload(0).invoke(INVOKESPECIAL, OBJECT, "<init>", "()V")
+            .aload(0).aload(1).field(PUTFIELD, CLASS_NAME, "f", FUNCTIONS)
+            .aload(0).aload(2).field(PUTFIELD, CLASS_NAME, "o", OPERATORS)
+            .op(RETURN, 0);
+
+        final BytecodeWriter.Code code = cw.method(ACC_PUBLIC, "evaluate", "([D)D");
+        code.locals(scratch);
+        for (int i = 0; i < tokens.length; i++) {
+            if (cse != null && cse.reused(i) != -1) {
+                i = cse.reused(i);
+                code.dload(TEMP + 2 * cse.temp(i));
+                continue;
+            }
+            final Token t = tokens[i];
+            switch (t.getType()) {
+                case NUMBER   -> code.dconst(((NumberToken) t).getValue());
+                case VARIABLE -> code.aload(VARS)
+                                     .iconst(slots.get(((VariableToken) t).getName()))
+                                     .op(DALOAD, 0);
+                case OPERATOR -> {
+                    final Operator op = ((OperatorToken) t).getOperator();
+                    if (!builtin(code, op)) {
+                        final int idx = index(operators, op);
+                        call(code, scratch, "o", OPERATORS, idx, OPERATOR,
+                             op.getNumOperands(), Arity.isSpecialized(op));
+                    }
+                }
+                case FUNCTION -> {
+                    final Function func = ((FunctionToken) t).getFunction();
+                    if (!builtin(code, func)) {
+                        final int idx = index(functions, func);
+                        call(code, scratch, "f", FUNCTIONS, idx, FUNCTION,
+                             func.getNumArguments(), Arity.isSpecialized(func));
+                    }
+                }
+                default -> {
+                    //Do nothing
+                }
+            }
+            if (cse != null && cse.temp(i) != -1) {
+                code.op(DUP2, 2).dstore(TEMP + 2 * cse.temp(i));
+            }
+        }
+        code.op(DRETURN, -2);
+
+        final byte[] bytes = cw.toByteArray();
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = LOOKUP.defineHiddenClass(bytes, true);
+            return (Evaluator) lookup.findConstructor(
+                    lookup.lookupClass(),
+                    MethodType.methodType(void.class, Function[].class, Operator[].class)
+            ).invoke(functions.toArray(new Function[0]), operators.toArray(new Operator[0]));
+        } catch (Throwable ex) {
+            //If the class can't be defined we just stick with the interpreter
+            return null;
+        }
+    }
+
+    /**
+     * Checks that the stack never underflows and that a single value remains
+     * at the end, this way the generated code never needs to do any checking.
+     */
+    static boolean isValid(Token[] tokens) {
+        int depth = 0;
+        for (Token t : tokens) {
+            switch (t.getType()) {
+                case NUMBER, VARIABLE -> depth++;
+                case OPERATOR -> {
+                    final int n = ((OperatorToken) t).getOperator().getNumOperands();
+                    if ((n != 1 && n != 2) || depth < n) {
+                        return false;
+                    }
+                    depth -= n - 1;
+                }
+                case FUNCTION -> {
+                    final int n = ((FunctionToken) t).getFunction().getNumArguments();
+                    if (depth < n) {
+                        return false;
+                    }
+                    depth -= n - 1;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        return depth == 1;
+    }
+
+    private static <T> int index(List<T> list, T element) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == element) {
+                return i;
+            }
+        }
+        list.add(element);
+        return list.size() - 1;
+    }
+
+    /**
+     * Calls {@code apply} on a user function or operator, the arguments are
+     * already on the stack so they have to be moved into temporary locals
+     * while the receiver (and the array if the fixed arity version isn't
+     * available) is loaded.
+     */
+    private static void call(BytecodeWriter.Code code, int scratch, String field, String desc,
+                             int idx, String owner, int nargs, boolean specialized) {
+        for (int j = nargs - 1; j >= 0; j--) {
+            code.dstore(scratch + 2 * j);
+        }
+        code.locals(scratch + 2 * nargs)
+            .aload(0).field(GETFIELD, CLASS_NAME, field, desc)
+            .iconst(idx).op(AALOAD, -1);
+        if (specialized) {
+            for (int j = 0; j < nargs; j++) {
+                code.dload(scratch + 2 * j);
+            }
+            code.invoke(INVOKEVIRTUAL, owner, "apply", "(" + "D".repeat(nargs) + ")D");
+            return;
+        }
+        code.iconst(nargs).newDoubleArray();
+        for (int j = 0; j < nargs; j++) {
+            code.op(DUP, 1).iconst(j).dload(scratch + 2 * j).op(DASTORE, -4);
+        }
+        code.invoke(INVOKEVIRTUAL, owner, "apply", "([D)D");
+    }
+
+    /**
+     * Tells if an operator is one of the built-in operators (and not a user
+     * operator with the same symbol).
+     */
+    static boolean isBuiltin(Operator op) {
+        final String symbol = op.getSymbol();
+        return symbol.length() == 1 &&
+               op == Operators.getBuiltinOperator(symbol.charAt(0), op.getNumOperands());
+    }
+
+    /**
+     * Tells if a function is one of the built-in functions (and not a user
+     * function with the same name).
+     */
+    static boolean isBuiltin(Function func) {
+        return func == Functions.getBuiltinFunction(func.getName());
+    }
+
+    private static boolean builtin(BytecodeWriter.Code code, Operator op) {
+        if (!isBuiltin(op)) {
+            return false;
+        }
+        final boolean binary = op.getNumOperands() == 2;
+        switch (op.getSymbol().charAt(0)) {
+            case '+' -> {
+                if (binary) {
+                    code.op(DADD, -2);
+                }
+            }
+            case '-' -> code.op(binary ? DSUB : DNEG, binary ? -2 : 0);
+            case '*' -> code.op(DMUL, -2);
+            case '/' -> code.invoke(INVOKESTATIC, SUPPORT, "divide", BINARY);
+            case '%' -> code.invoke(INVOKESTATIC, SUPPORT, "modulo", BINARY);
+            case '^' -> code.invoke(INVOKESTATIC, MATH, "pow", BINARY);
+            case '&' -> code.invoke(INVOKESTATIC, SUPPORT, "and", BINARY);
+            case '|' -> code.invoke(INVOKESTATIC, SUPPORT, "or", BINARY);
+            case '¬' -> code.invoke(INVOKESTATIC, SUPPORT, "not", UNARY);
+            default  -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean builtin(BytecodeWriter.Code code, Function func) {
+        if (!isBuiltin(func)) {
+            return false;
+        }
+        final String name = func.getName();
+        switch (name) {
+            case "sin", "cos", "tan", "asin", "acos", "atan", "sinh", "cosh", "tanh",
+                 "abs", "log", "log10", "log1p", "ceil", "floor", "sqrt", "cbrt",
+                 "exp", "expm1" -> code.invoke(INVOKESTATIC, MATH, name, UNARY);
+            case "log2"   -> code.invoke(INVOKESTATIC, MATH, "log", UNARY)
+                                 .dconst(2d).invoke(INVOKESTATIC, MATH, "log", UNARY)
+                                 .op(DDIV, -2);
+            case "pow"    -> code.invoke(INVOKESTATIC, MATH, "pow", BINARY);
+            case "signum" -> code.invoke(INVOKESTATIC, SUPPORT, "signum", UNARY);
+            case "pi"     -> code.dconst(Math.PI);
+            case "e"      -> code.dconst(Math.E);
+            default       -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Runtime support for the generated code, these methods need branching
+       so they can't be emitted directly (and the JIT will inline them anyway) */
+
+    static double divide(double a, double b) {
+        if (b == 0d) {
+            throw new ArithmeticException(l10n("Division by zero!"));
+        }
+        return a / b;
+    }
+
+    static double modulo(double a, double b) {
+        if (b == 0d) {
+            throw new ArithmeticException(l10n("Division by zero!"));
+        }
+        return a % b;
+    }
+
+    static double and(double a, double b) {
+        return (Math.abs(a) >= BOOLEAN_THRESHOLD & Math.abs(b) >= BOOLEAN_THRESHOLD) ? 1 : 0;
+    }
+
+    static double or(double a, double b) {
+        return (Math.abs(a) >= BOOLEAN_THRESHOLD | Math.abs(b) >= BOOLEAN_THRESHOLD) ? 1 : 0;
+    }
+
+    static double not(double a) {
+        return (Math.abs(a) < BOOLEAN_THRESHOLD) ? 1 : 0;
+    }
+
+    static double signum(double a) {
+        if (a > 0) {
+            return 1;
+        } else if (a < 0) {
+            return -1;
+        } else {
+            return 0;
+        }
+    }
+}
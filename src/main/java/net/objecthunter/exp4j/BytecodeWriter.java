@@ -0,0 +1,436 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer used by {@link BytecodeCompiler}.<br><br>
+ * It only supports what the compiler needs: a single class with some fields
+ * and straight line methods. Since there are no branches the methods don't
+ * need stack map frames.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class BytecodeWriter {
+    static final int ACC_PUBLIC    = 0x0001;
+    static final int ACC_PRIVATE   = 0x0002;
+    static final int ACC_FINAL     = 0x0010;
+    static final int ACC_SUPER     = 0x0020;
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    static final int DCONST_0      = 0x0e;
+    static final int DCONST_1      = 0x0f;
+    static final int DALOAD        = 0x31;
+    static final int AALOAD        = 0x32;
+    static final int DASTORE       = 0x52;
+    static final int DUP           = 0x59;
+    static final int DUP2          = 0x5c;
+    static final int DADD          = 0x63;
+    static final int DSUB          = 0x67;
+    static final int DMUL          = 0x6b;
+    static final int DDIV          = 0x6f;
+    static final int DNEG          = 0x77;
+    static final int DRETURN       = 0xaf;
+    static final int RETURN        = 0xb1;
+    static final int GETFIELD      = 0xb4;
+    static final int PUTFIELD      = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC  = 0xb8;
+
+    private static final int MAX_CODE_LENGTH = 65535;
+    private static final int MAX_POOL_SIZE   = 65535;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH   = 0x10;
+    private static final int SIPUSH   = 0x11;
+    private static final int LDC_W    = 0x13;
+    private static final int LDC2_W   = 0x14;
+    private static final int DLOAD    = 0x18;
+    private static final int ALOAD    = 0x19;
+    private static final int DSTORE   = 0x39;
+    private static final int NEWARRAY = 0xbc;
+    private static final int WIDE     = 0xc4;
+    private static final int T_DOUBLE = 7;
+
+    private static final int CONSTANT_UTF8         = 1;
+    private static final int CONSTANT_INTEGER      = 3;
+    private static final int CONSTANT_DOUBLE       = 6;
+    private static final int CONSTANT_CLASS        = 7;
+    private static final int CONSTANT_FIELDREF     = 9;
+    private static final int CONSTANT_METHODREF    = 10;
+    private static final int CONSTANT_NAMEANDTYPE  = 12;
+
+    /** Java 17 */
+    private static final int CLASS_VERSION = 61;
+
+    private final Buffer pool = new Buffer();
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolSize = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final Buffer fields = new Buffer();
+    private int fieldCount;
+    private final List<Code> methods = new ArrayList<>(2);
+
+    /**
+     * Creates a new final class.
+     *
+     * @param name internal name of the class
+     * @param superName internal name of the super class
+     * @param interfaces internal names of the implemented interfaces
+     */
+    BytecodeWriter(String name, String superName, String... interfaces) {
+        thisClass  = classRef(name);
+        superClass = classRef(superName);
+        this.interfaces = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            this.interfaces[i] = classRef(interfaces[i]);
+        }
+    }
+
+    void field(int access, String name, String descriptor) {
+        fields.u2(access).u2(utf8(name)).u2(utf8(descriptor)).u2(0);
+        fieldCount++;
+    }
+
+    Code method(int access, String name, String descriptor) {
+        final Code code = new Code(access, utf8(name), utf8(descriptor));
+        methods.add(code);
+        return code;
+    }
+
+    /**
+     * Retrieves the class file.
+     *
+     * @return class file bytes or {@code null} if the class exceeds the limits
+     * of the class file format
+     */
+    byte[] toByteArray() {
+        if (poolSize > MAX_POOL_SIZE) {
+            return null;
+        }
+        final int codeAttr = utf8("Code");
+        final Buffer out = new Buffer();
+        out.u4(0xCAFEBABE).u2(0).u2(CLASS_VERSION);
+        out.u2(poolSize).append(pool);
+        out.u2(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+        out.u2(thisClass).u2(superClass).u2(interfaces.length);
+        for (int i : interfaces) {
+            out.u2(i);
+        }
+        out.u2(fieldCount).append(fields);
+        out.u2(methods.size());
+        for (Code m : methods) {
+            if (m.code.size > MAX_CODE_LENGTH) {
+                return null;
+            }
+            out.u2(m.access).u2(m.name).u2(m.descriptor).u2(1);
+            out.u2(codeAttr).u4(12 + m.code.size);
+            out.u2(m.maxStack).u2(m.maxLocals).u4(m.code.size).append(m.code);
+            out.u2(0).u2(0);
+        }
+        out.u2(0);
+        return Arrays.copyOf(out.data, out.size);
+    }
+
+    private int utf8(String value) {
+        final Integer idx = poolIndex.get("U" + value);
+        if (idx != null) {
+            return idx;
+        }
+        pool.u1(CONSTANT_UTF8).utf(value);
+        return register("U" + value, 1);
+    }
+
+    private int classRef(String name) {
+        final Integer idx = poolIndex.get("C" + name);
+        if (idx != null) {
+            return idx;
+        }
+        final int utf = utf8(name);
+        pool.u1(CONSTANT_CLASS).u2(utf);
+        return register("C" + name, 1);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        final String key = "M" + tag + owner + '.' + name + descriptor;
+        final Integer idx = poolIndex.get(key);
+        if (idx != null) {
+            return idx;
+        }
+        final int clazz = classRef(owner);
+        final int nat = nameAndType(name, descriptor);
+        pool.u1(tag).u2(clazz).u2(nat);
+        return register(key, 1);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        final String key = "N" + name + ':' + descriptor;
+        final Integer idx = poolIndex.get(key);
+        if (idx != null) {
+            return idx;
+        }
+        final int n = utf8(name);
+        final int d = utf8(descriptor);
+        pool.u1(CONSTANT_NAMEANDTYPE).u2(n).u2(d);
+        return register(key, 1);
+    }
+
+    private int integer(int value) {
+        final Integer idx = poolIndex.get("I" + value);
+        if (idx != null) {
+            return idx;
+        }
+        pool.u1(CONSTANT_INTEGER).u4(value);
+        return register("I" + value, 1);
+    }
+
+    private int doubleConstant(double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final Integer idx = poolIndex.get("D" + bits);
+        if (idx != null) {
+            return idx;
+        }
+        pool.u1(CONSTANT_DOUBLE).u8(bits);
+        //Doubles take two entries in the constant pool
+        return register("D" + bits, 2);
+    }
+
+    private int register(String key, int entries) {
+        final int idx = poolSize;
+        poolIndex.put(key, idx);
+        poolSize += entries;
+        return idx;
+    }
+
+    private static int size(char type) {
+        return switch (type) {
+            case 'V'      -> 0;
+            case 'D', 'J' -> 2;
+            default       -> 1;
+        };
+    }
+
+    /**
+     * Computes the stack effect of a method invocation.
+     */
+    private static int invokeDelta(String descriptor, boolean hasReceiver) {
+        int delta = hasReceiver ? -1 : 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            final char c = descriptor.charAt(i);
+            if (c == '[') {
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) == 'L') {
+                    i = descriptor.indexOf(';', i);
+                }
+                delta--;
+            } else if (c == 'L') {
+                i = descriptor.indexOf(';', i);
+                delta--;
+            } else {
+                delta -= size(c);
+            }
+            i++;
+        }
+        return delta + size(descriptor.charAt(i + 1));
+    }
+
+    /**
+     * Code of a single method, keeps track of the stack depth.
+     */
+    final class Code {
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final Buffer code = new Buffer();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private Code(int access, int name, int descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * Emits a simple instruction.
+         *
+         * @param opcode instruction
+         * @param delta effect of the instruction on the stack (in words)
+         * @return {@code this}
+         */
+        Code op(int opcode, int delta) {
+            code.u1(opcode);
+            return grow(delta);
+        }
+
+        Code iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                code.u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.u1(BIPUSH).u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.u1(SIPUSH).u2(value);
+            } else {
+                code.u1(LDC_W).u2(integer(value));
+            }
+            return grow(1);
+        }
+
+        Code dconst(double value) {
+            final long bits = Double.doubleToRawLongBits(value);
+            if (bits == 0L) {
+                code.u1(DCONST_0);
+            } else if (bits == Double.doubleToRawLongBits(1d)) {
+                code.u1(DCONST_1);
+            } else {
+                code.u1(LDC2_W).u2(doubleConstant(value));
+            }
+            return grow(2);
+        }
+
+        Code aload(int local) {
+            return local(ALOAD, local, 1);
+        }
+
+        Code dload(int local) {
+            return local(DLOAD, local, 2);
+        }
+
+        Code dstore(int local) {
+            return local(DSTORE, local, -2);
+        }
+
+        Code newDoubleArray() {
+            code.u1(NEWARRAY).u1(T_DOUBLE);
+            return grow(0);
+        }
+
+        Code field(int opcode, String owner, String fieldName, String desc) {
+            code.u1(opcode).u2(memberRef(CONSTANT_FIELDREF, owner, fieldName, desc));
+            final int size = size(desc.charAt(0));
+            return grow(opcode == GETFIELD ? size - 1 : -size - 1);
+        }
+
+        Code invoke(int opcode, String owner, String methodName, String desc) {
+            code.u1(opcode).u2(memberRef(CONSTANT_METHODREF, owner, methodName, desc));
+            return grow(invokeDelta(desc, opcode != INVOKESTATIC));
+        }
+
+        /**
+         * Sets the number of local variables (in words).
+         *
+         * @param locals number of local variables
+         * @return {@code this}
+         */
+        Code locals(int locals) {
+            maxLocals = Math.max(maxLocals, locals);
+            return this;
+        }
+
+        int depth() {
+            return stack;
+        }
+
+        private Code local(int opcode, int local, int delta) {
+            if (local > 255) {
+                code.u1(WIDE).u1(opcode).u2(local);
+            } else {
+                code.u1(opcode).u1(local);
+            }
+            return grow(delta);
+        }
+
+        private Code grow(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+    }
+
+    /**
+     * Growable byte array with big endian writers.
+     */
+    private static final class Buffer {
+        private byte[] data = new byte[128];
+        private int size;
+
+        Buffer u1(int value) {
+            ensure(1);
+            data[size++] = (byte) value;
+            return this;
+        }
+
+        Buffer u2(int value) {
+            ensure(2);
+            data[size++] = (byte) (value >>> 8);
+            data[size++] = (byte) value;
+            return this;
+        }
+
+        Buffer u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Buffer u8(long value) {
+            return u4((int) (value >>> 32)).u4((int) value);
+        }
+
+        Buffer append(Buffer other) {
+            ensure(other.size);
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        /**
+         * Writes a string using the <i>modified UTF-8</i> encoding required
+         * by the class file format.
+         */
+        Buffer utf(String value) {
+            final Buffer tmp = new Buffer();
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    tmp.u1(c);
+                } else if (c < 0x800) {
+                    tmp.u1(0xc0 | (c >> 6)).u1(0x80 | (c & 0x3f));
+                } else {
+                    tmp.u1(0xe0 | (c >> 12)).u1(0x80 | ((c >> 6) & 0x3f)).u1(0x80 | (c & 0x3f));
+                }
+            }
+            return u2(tmp.size).append(tmp);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
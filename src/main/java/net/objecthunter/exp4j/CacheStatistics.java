@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+/**
+ * Snapshot of the activity of an {@link ExpressionCache}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see ExpressionCache#getStatistics()
+ */
+public final class CacheStatistics {
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final int size;
+
+    CacheStatistics(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * @return number of requests served without building the expression (this includes the
+     * ones that waited for another thread to build it)
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of requests that had to build the expression
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of expressions removed to make room for new ones
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of cached expressions
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return fraction of the requests that were hits or {@code 0} if there were no requests
+     */
+    public double getHitRate() {
+        final long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + hits + ", misses=" + misses + ", evictions=" +
+               evictions + ", size=" + size + '}';
+    }
+}
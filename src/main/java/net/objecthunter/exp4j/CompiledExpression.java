@@ -0,0 +1,740 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.function.Functions;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import static net.objecthunter.exp4j.tokenizer.TokenType.*;
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Immutable and thread safe form of an {@link Expression}.<br><br>
+ * A {@code CompiledExpression} doesn't hold the values of the variables, those live in a
+ * {@link Bindings} object, so a single instance can be evaluated concurrently from any number
+ * of threads as long as each one of them uses its own {@link Bindings}:
+ * <pre>
+ * final CompiledExpression exp = new ExpressionBuilder("3x + y")
+ *         .variables("x", "y")
+ *         .build()
+ *         .getCompiledExpression();
+ * //On each thread
+ * final Bindings b = exp.bindings();
+ * final double res = exp.evaluate(b.set("x", 1).set("y", 2));
+ * </pre>
+ * <i><b>Note:</b></i> user {@link Function functions} and {@link Operator operators} are
+ * shared too, so they must be thread safe (all the built-in ones are).
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see Expression#getCompiledExpression()
+ * @see Bindings
+ */
+public final class CompiledExpression implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4305236128741460587L;
+
+    private static final double[] NO_CONSTANTS = {};
+
+    private final Token[] tokens;
+
+    private final String[] userFunctionNames;
+
+    private final String[] variableOrder;
+
+    private final EvaluationMode mode;
+
+    private final int compileThreshold;
+
+    /** Possibly shared with other expressions with the same program */
+    private transient Layout layout;
+
+    /** Values of the parameters of a template layout (empty otherwise) */
+    private transient double[] constants;
+
+    private transient volatile Evaluator evaluator;
+
+    /** Racy on purpose, the count of tiered expressions only needs to be approximate */
+    private transient int evaluations;
+
+    private transient AtomicBoolean promoted;
+
+    CompiledExpression(Token[] tokens, String[] userFunctionNames, String[] variableOrder,
+                       EvaluationMode mode) {
+        this(tokens, userFunctionNames, variableOrder, mode, TieredCompiler.DEFAULT_THRESHOLD);
+    }
+
+    CompiledExpression(Token[] tokens, String[] userFunctionNames, String[] variableOrder,
+                       EvaluationMode mode, int compileThreshold) {
+        this.tokens = tokens;
+        this.userFunctionNames = userFunctionNames;
+        this.mode = mode;
+        this.compileThreshold = compileThreshold;
+        if (variableOrder == null) {
+            final Set<String> sorted = new TreeSet<>();
+            for (Token t : tokens) {
+                if (t.getType() == VARIABLE) {
+                    sorted.add(((VariableToken) t).getName());
+                }
+            }
+            variableOrder = sorted.toArray(new String[0]);
+        }
+        this.variableOrder = variableOrder;
+        this.layout = new Layout(tokens, variableOrder, null);
+        init();
+    }
+
+    /**
+     * @param layout possibly shared layout of the tokens
+     * @param tokens RPN of the expression, if the layout is a template the constants of the
+     * tokens are the values of its parameters
+     */
+    CompiledExpression(Layout layout, Token[] tokens, String[] userFunctionNames,
+                       EvaluationMode mode, int compileThreshold) {
+        this.tokens = tokens;
+        this.userFunctionNames = userFunctionNames;
+        this.variableOrder = layout.variableOrder;
+        this.mode = mode;
+        this.compileThreshold = compileThreshold;
+        this.layout = layout;
+        init();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        //Hidden classes can't be serialized, so they are generated again
+        layout = new Layout(tokens, variableOrder, null);
+        init();
+    }
+
+    /**
+     * Picks the evaluator, everything else the evaluation needs was already computed by the
+     * {@link Layout}. The maximum depth of the stack and the number of arguments of each
+     * function are known beforehand, so {@link Bindings} can allocate all the scratch space once.
+     */
+    private void init() {
+        constants = layout.parameters == 0 ? NO_CONSTANTS : constants(tokens);
+        evaluator = switch (mode) {
+            case BYTECODE, TREE -> layout.evaluator(mode);
+            case INTERPRETED    -> null;
+            //Another expression with the same layout may have been promoted already
+            case TIERED         -> layout.compiled();
+        };
+        promoted = new AtomicBoolean(mode != EvaluationMode.TIERED || evaluator != null);
+    }
+
+    private static double[] constants(Token[] tokens) {
+        int n = 0;
+        for (Token t : tokens) {
+            if (t.getType() == NUMBER) {
+                n++;
+            }
+        }
+        final double[] constants = new double[n];
+        n = 0;
+        for (Token t : tokens) {
+            if (t.getType() == NUMBER) {
+                constants[n++] = ((NumberToken) t).getValue();
+            }
+        }
+        return constants;
+    }
+
+    /**
+     * Retrieves the constants of the expression, in the order in which they are evaluated
+     * (i.e. the order of the RPN, which isn't always the order of the source). Constants that
+     * were folded by the simplification appear as their result.
+     *
+     * @return copy of the constants
+     * @see #withConstants(double...)
+     */
+    public double[] getConstants() {
+        return constants(tokens);
+    }
+
+    /**
+     * Creates an expression that only differs from this one in its constants.<br><br>
+     * If this expression was built by a context that
+     * {@link ExpressionContext.Builder#liftConstants() lifts its constants} the new expression
+     * shares all the derived structures (including the compiled code) with this one, so it's
+     * as cheap as copying the tokens. Otherwise, the new expression is compiled again.
+     *
+     * @param values new constants, in the order of {@link #getConstants()}
+     * @return new expression
+     * @throws IllegalArgumentException if the number of values isn't the number of constants
+     */
+    public CompiledExpression withConstants(double... values) {
+        final Token[] replaced = tokens.clone();
+        int n = 0;
+        for (int i = 0; i < replaced.length; i++) {
+            if (replaced[i].getType() == NUMBER) {
+                if (n < values.length) {
+                    replaced[i] = new NumberToken(values[n]);
+                }
+                n++;
+            }
+        }
+        if (n != values.length) {
+            throw new IllegalArgumentException(l10n(
+                    "Expected %d constants but got %d", n, values.length
+            ));
+        }
+        if (layout.parameters == 0) {
+            return new CompiledExpression(
+                    replaced, userFunctionNames, variableOrder, mode, compileThreshold
+            );
+        }
+        return new CompiledExpression(layout, replaced, userFunctionNames, mode, compileThreshold);
+    }
+
+    /**
+     * Creates the array with the values seen by the compiled code and the interpreter: the
+     * declared variables followed by the parameters of the layout (if any) and the temporaries
+     * of its common subexpressions.
+     *
+     * @return new array, with the variables set to {@code 0}
+     */
+    double[] values() {
+        final int n = variableOrder.length;
+        final double[] values = new double[n + constants.length + layout.temps];
+        System.arraycopy(constants, 0, values, n, constants.length);
+        return values;
+    }
+
+    /**
+     * Creates a new {@link Bindings} object for this expression. Bindings are cheap, and each
+     * thread evaluating this expression needs its own.
+     *
+     * @return new {@link Bindings} with no variables set
+     */
+    public Bindings bindings() {
+        return new Bindings(this);
+    }
+
+    /**
+     * Resolves a variable once, so it can be updated later without any lookups.
+     *
+     * @param name variable name as passed to {@link ExpressionBuilder}
+     * @return handle of the variable
+     * @throws IllegalArgumentException if the variable name is a function name or if the variable
+     * doesn't exist at build time.
+     * @see Bindings#set(VariableHandle, double)
+     */
+    public VariableHandle handle(final String name) {
+        return new VariableHandle(variableOrder, slot(name));
+    }
+
+    /**
+     * Retrieves a {@link Set} containing all the variable names
+     *
+     * @return variable names
+     */
+    public Set<String> getVariableNames() {
+        return layout.names;
+    }
+
+    /**
+     * Tells if a variable exists in the expression
+     *
+     * @param name variable name
+     * @return {@code true} if the variable exists and {@code false} otherwise
+     */
+    public boolean containsVariable(String name) {
+        return layout.index.containsKey(name);
+    }
+
+    /**
+     * Evaluates the expression with the values of the given bindings. This method can be
+     * called concurrently as long as each thread uses different bindings.
+     *
+     * @param bindings values of the variables and scratch space for the evaluation
+     * @return result of the evaluation
+     * @throws IllegalArgumentException if the expression isn't valid, if not all the variables
+     * are set or if the bindings belong to another expression
+     * @see Expression#validate()
+     */
+    public double evaluate(final Bindings bindings) {
+        if (bindings.program != this) {
+            throw new IllegalArgumentException(l10n("The bindings belong to another expression"));
+        }
+        final double[] values = bindings.values;
+        final boolean[] set = bindings.set;
+
+        final Evaluator compiled = evaluator;
+        if (compiled != null) {
+            checkVariablesSet(set);
+            return compiled.evaluate(values);
+        }
+
+        final OpcodeProgram opcodes = layout.opcodes;
+        if (opcodes != null) {
+            checkVariablesSet(set);
+            //Only tiered expressions that haven't been promoted yet write the shared counter
+            if (!promoted.get() && ++evaluations >= compileThreshold &&
+                    promoted.compareAndSet(false, true)) {
+                TieredCompiler.submit(this);
+            }
+            return opcodes.run(values, bindings.registers, bindings.arguments);
+        }
+
+        //Invalid expressions are walked token by token to report the error
+
+        final ArrayStack output = bindings.stack;
+        final double[][] arguments = bindings.arguments;
+        final int[] slots = layout.slots;
+        final boolean[] specialized = layout.specialized;
+        output.clear();
+        for (int i = 0; i < tokens.length; i++) {
+            final Token t = tokens[i];
+            if (null != t.getType()) {
+                switch (t.getType()) {
+                    case NUMBER   -> output.push(((NumberToken) t).getValue());
+                    case VARIABLE -> {
+                        final int slot = slots[i];
+                        if (!set[slot]) {
+                            throw new IllegalArgumentException(l10n(
+                                    "No value has been set for variable '%s'", variableOrder[slot]
+                            ));
+                        }
+                        output.push(values[slot]);
+                    }
+                    case OPERATOR -> {
+                        final Operator op = ((OperatorToken) t).getOperator();
+                        if (output.size() < op.getNumOperands()) {
+                            throw new IllegalArgumentException(l10n(
+                                    "Invalid number of operands available for '%s' operator",
+                                    op.getSymbol()
+                            ));
+                        }
+                        if (specialized[i]) {
+                            if (op.getNumOperands() == 2) {
+                                final double b = output.pop();
+                                output.push(op.apply(output.pop(), b));
+                            } else {
+                                output.push(op.apply(output.pop()));
+                            }
+                        } else if (op.getNumOperands() == 2) {
+                            /* pop the operands and push the result of the operation */
+                            final double[] args = arguments[2];
+                            args[1] = output.pop();
+                            args[0] = output.pop();
+                            output.push(op.apply(args));
+                        } else if (op.getNumOperands() == 1) {
+                            /* pop the operand and push the result of the operation */
+                            final double[] args = arguments[1];
+                            args[0] = output.pop();
+                            output.push(op.apply(args));
+                        }
+                    }
+                    case FUNCTION -> {
+                        final Function func = ((FunctionToken) t).getFunction();
+                        final int numArguments = func.getNumArguments();
+                        if (output.size() < numArguments) {
+                            throw new IllegalArgumentException(l10n(
+                                    "Invalid number of arguments available for '%s' function",
+                                    func.getName()
+                            ));
+                        }
+                        if (specialized[i]) {
+                            /* fixed arity functions don't need an array */
+                            switch (numArguments) {
+                                case 1 -> output.push(func.apply(output.pop()));
+                                case 2 -> {
+                                    final double b = output.pop();
+                                    output.push(func.apply(output.pop(), b));
+                                }
+                                default -> {
+                                    final double c = output.pop();
+                                    final double b = output.pop();
+                                    output.push(func.apply(output.pop(), b, c));
+                                }
+                            }
+                        } else {
+                            /* collect the arguments from the stack */
+                            final double[] args = arguments[numArguments];
+                            for (int j = numArguments - 1; j >= 0; j--) {
+                                args[j] = output.pop();
+                            }
+                            output.push(func.apply(args));
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        if (output.size() > 1) {
+            throw new IllegalArgumentException(l10n(
+                "Invalid number of items on the output queue. "
+              + "Might be caused by an invalid number of arguments for a function."
+            ));
+        }
+
+        return output.pop();
+    }
+
+    private void checkVariablesSet(final boolean[] set) {
+        for (int slot : layout.used) {
+            if (!set[slot]) {
+                throw new IllegalArgumentException(l10n(
+                        "No value has been set for variable '%s'", variableOrder[slot]
+                ));
+            }
+        }
+    }
+
+    /**
+     * Evaluates the expression over columns of values, storing the result of row {@code i} in
+     * {@code out[i]}. Interpreted expressions are evaluated one token at a time over chunks of
+     * rows (instead of walking the whole expression for each row), and compiled expressions
+     * call the compiled code for each row.<br><br>
+     * This method can be called concurrently, but functions are called column by column, so
+     * {@link Function#isDeterministic() non deterministic} functions will see a different call
+     * order than when evaluating row by row.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     * @see Expression#setVariables(double[])
+     */
+    public void evaluate(final double[][] columns, final double[] out) {
+        final BatchData data = new BatchData.Arrays(columns, out);
+        checkColumns(data);
+        evaluate(data, 0, data.rows());
+    }
+
+    /**
+     * Evaluates the expression over columns stored in buffers like
+     * {@link #evaluate(double[][], double[])}. Values are read straight from the buffers (which
+     * can be direct or {@link java.nio.MappedByteBuffer memory mapped}) without copying the
+     * columns to the heap.<br><br>
+     * Row {@code i} of each column is the value at {@code position() + i}, and its result is
+     * stored at {@code out.position() + i}. The positions and limits of the buffers are
+     * <b>not</b> modified.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its remaining elements are the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less remaining elements than
+     * {@code out}
+     * @throws java.nio.ReadOnlyBufferException if {@code out} is read only
+     */
+    public void evaluate(final DoubleBuffer[] columns, final DoubleBuffer out) {
+        final BatchData data = new BatchData.Buffers(columns, out);
+        checkColumns(data);
+        evaluate(data, 0, data.rows());
+    }
+
+    /**
+     * Evaluates the expression over columns of raw bytes like
+     * {@link #evaluate(DoubleBuffer[], DoubleBuffer)}. Each buffer is read as a sequence of
+     * doubles starting at its position and using its {@link ByteBuffer#order() byte order}.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its remaining bytes divided by
+     * {@link Double#BYTES} are the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     * @throws java.nio.ReadOnlyBufferException if {@code out} is read only
+     */
+    public void evaluate(final ByteBuffer[] columns, final ByteBuffer out) {
+        evaluate(asDoubles(columns), out.asDoubleBuffer());
+    }
+
+    /**
+     * Evaluates the expression over columns of values like
+     * {@link #evaluate(double[][], double[])} but splitting the rows between the threads of the
+     * {@link ForkJoinPool#commonPool() common pool}. The results are written directly into
+     * {@code out}.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     */
+    public void evaluateParallel(final double[][] columns, final double[] out) {
+        evaluateParallel(columns, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates the expression over columns of values like
+     * {@link #evaluate(double[][], double[])} but splitting the rows between the threads of the
+     * given pool. The results are written directly into {@code out}.<br><br>
+     * <i><b>Note:</b></i> user functions and operators will be called concurrently, so they
+     * must be thread safe.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its length is the number of rows
+     * @param pool pool used to evaluate the rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     */
+    public void evaluateParallel(final double[][] columns, final double[] out,
+                                 final ForkJoinPool pool) {
+        final BatchData data = new BatchData.Arrays(columns, out);
+        checkColumns(data);
+        pool.invoke(new ParallelBatch(this, data, 0, data.rows()));
+    }
+
+    /**
+     * Evaluates the expression over columns stored in buffers like
+     * {@link #evaluate(DoubleBuffer[], DoubleBuffer)} but splitting the rows between the
+     * threads of the given pool.<br><br>
+     * <i><b>Note:</b></i> user functions and operators will be called concurrently, so they
+     * must be thread safe.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its remaining elements are the number of rows
+     * @param pool pool used to evaluate the rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less remaining elements than
+     * {@code out}
+     * @throws java.nio.ReadOnlyBufferException if {@code out} is read only
+     */
+    public void evaluateParallel(final DoubleBuffer[] columns, final DoubleBuffer out,
+                                 final ForkJoinPool pool) {
+        final BatchData data = new BatchData.Buffers(columns, out);
+        checkColumns(data);
+        pool.invoke(new ParallelBatch(this, data, 0, data.rows()));
+    }
+
+    private static DoubleBuffer[] asDoubles(final ByteBuffer[] columns) {
+        final DoubleBuffer[] doubles = new DoubleBuffer[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            doubles[i] = columns[i] == null ? null : columns[i].asDoubleBuffer();
+        }
+        return doubles;
+    }
+
+    /**
+     * Evaluates the rows {@code [from, to)}, the columns must already be checked.
+     */
+    void evaluate(final BatchData data, final int from, final int to) {
+        final Evaluator evaluator = this.evaluator;
+        if (evaluator != null) {
+            final double[] row = values();
+            final int[] used = layout.used;
+            for (int i = from; i < to; i++) {
+                for (int slot : used) {
+                    row[slot] = data.get(slot, i);
+                }
+                data.set(i, evaluator.evaluate(row));
+            }
+            return;
+        }
+        new BatchEvaluator(this).evaluate(data, from, to);
+    }
+
+    private void checkColumns(final BatchData data) {
+        if (data.columns() != variableOrder.length) {
+            throw new IllegalArgumentException(l10n(
+                    "Expected %d columns but got %d", variableOrder.length, data.columns()
+            ));
+        }
+        final int rows = data.rows();
+        for (int slot : layout.used) {
+            final int size = data.size(slot);
+            if (size < 0) {
+                throw new IllegalArgumentException(l10n(
+                        "Missing column for variable '%s'", variableOrder[slot]
+                ));
+            }
+            if (size < rows) {
+                throw new IllegalArgumentException(l10n(
+                        "Column '%s' has %d rows but %d are needed",
+                        variableOrder[slot], size, rows
+                ));
+            }
+        }
+        if (!layout.valid) {
+            throw new IllegalArgumentException(l10n("Invalid number of operands available"));
+        }
+    }
+
+    /**
+     * Evaluates the expression over columns of values, storing the result of row {@code i} in
+     * {@code out[i]}.
+     *
+     * @param columns values of each variable by name
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if a column is missing or
+     * if a column has less rows than {@code out}
+     * @see #evaluate(double[][], double[])
+     */
+    public void evaluate(final Map<String, double[]> columns, final double[] out) {
+        final double[][] ordered = new double[variableOrder.length][];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = columns.get(variableOrder[i]);
+        }
+        evaluate(ordered, out);
+    }
+
+    /**
+     * Tells if the expression is being evaluated with compiled code. {@link EvaluationMode#TIERED
+     * Tiered} expressions start being interpreted and become compiled some time after being
+     * evaluated {@link ExpressionBuilder#compileThreshold(int) enough times}.
+     *
+     * @return {@code true} if the expression was compiled and {@code false}
+     * if it's being interpreted
+     * @see EvaluationMode
+     * @see TieredStatistics
+     */
+    public boolean isCompiled() {
+        return evaluator != null;
+    }
+
+    /**
+     * Retrieves the number of times that a {@link EvaluationMode#TIERED tiered} expression has
+     * been interpreted. The count stops once the expression is compiled, and concurrent
+     * evaluations may be missed (it's meant as a hint, not as an exact figure).
+     *
+     * @return approximate number of interpreted evaluations
+     */
+    public int getEvaluationCount() {
+        return evaluations;
+    }
+
+    /**
+     * Swaps in the code compiled by the {@link TieredCompiler}, evaluations already running
+     * finish with the interpreter.
+     */
+    void promote(final Evaluator compiled) {
+        evaluator = compiled;
+    }
+
+    /**
+     * @return slot of every declared variable by name
+     */
+    Map<String, Integer> slotsByName() {
+        return layout.slotsByName();
+    }
+
+    /**
+     * Tells if the result of the expression only depends on the values of its variables, i.e.
+     * if none of its user functions is {@link Function#isDeterministic() non deterministic}.
+     *
+     * @return {@code true} if the result can be cached
+     */
+    boolean isDeterministic() {
+        if (userFunctionNames.length == 0) {
+            return true;
+        }
+
+        boolean status = false;
+        for (Token t : tokens) {
+            status |= (t.getType() == FUNCTION &&
+                    !((FunctionToken)t).getFunction().isDeterministic());
+        }
+        return !status;
+    }
+
+    /**
+     * Retrieves the slot of a variable, checking that it exists and that it isn't the name of a
+     * function.
+     */
+    int slot(String name) {
+        final Integer slot = layout.index.get(name);
+        if (slot == null) {
+            if (hasFunction(name)) {
+                throw new IllegalArgumentException(l10n(
+                        "The variable name '%s' is invalid. Since "
+                      + "there exists a function with the same name", name
+                ));
+            }
+            throw new IllegalArgumentException(l10n("Variable '%s' doesn't exist.", name));
+        }
+        return slot;
+    }
+
+    private boolean hasFunction(String name) {
+        boolean contains = false;
+        for (String s : userFunctionNames) {
+            contains |= Objects.equals(s, name);
+        }
+        return contains || Functions.getBuiltinFunction(name) != null;
+    }
+
+    Token[] tokens() {
+        return tokens;
+    }
+
+    String[] userFunctionNames() {
+        return userFunctionNames;
+    }
+
+    EvaluationMode mode() {
+        return mode;
+    }
+
+    int compileThreshold() {
+        return compileThreshold;
+    }
+
+    String[] variableOrder() {
+        return variableOrder;
+    }
+
+    /**
+     * Slot of the variable at the given token position or {@code -1} if it isn't a variable.
+     */
+    int slotAt(int token) {
+        return layout.slots[token];
+    }
+
+    boolean isSpecializedAt(int token) {
+        return layout.specialized[token];
+    }
+
+    int maxDepth() {
+        return layout.maxDepth;
+    }
+
+    int maxArgs() {
+        return layout.maxArgs;
+    }
+
+    Layout layout() {
+        return layout;
+    }
+}
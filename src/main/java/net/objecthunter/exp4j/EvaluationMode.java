@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+/**
+ * Strategies available to evaluate an {@link Expression}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see ExpressionBuilder#evaluationMode(EvaluationMode)
+ */
+public enum EvaluationMode {
+    /**
+     * The RPN tokens are lowered into a compact opcode program when the
+     * expression is built, and the program is interpreted on every
+     * evaluation (default). Expressions that can't be lowered (i.e. they
+     * aren't valid) walk the RPN tokens instead, so errors are still
+     * reported on {@link Expression#evaluate()}.
+     */
+    INTERPRETED,
+
+    /**
+     * The RPN tokens are compiled into a JVM hidden class when the expression
+     * is built. Built-in operators and functions become direct {@link Math}
+     * calls.<br><br>
+     * <i><b>Note:</b></i> if the expression can't be compiled (i.e. it
+     * isn't valid) it will silently fall back to {@link #INTERPRETED}, so
+     * errors are still reported on {@link Expression#evaluate()}.
+     */
+    BYTECODE,
+
+    /**
+     * The RPN tokens are compiled into a tree of small nodes when the
+     * expression is built. It doesn't define any class at runtime, so it can
+     * be used where {@link #BYTECODE} isn't allowed, and it's still much
+     * faster than {@link #INTERPRETED} once the JIT inlines the tree.<br><br>
+     * <i><b>Note:</b></i> if the expression isn't valid it will silently fall
+     * back to {@link #INTERPRETED}, and the tree is evaluated recursively, so
+     * extremely deep expressions may need a bigger thread stack.
+     */
+    TREE,
+
+    /**
+     * The expression starts being {@link #INTERPRETED}, and once it has been
+     * evaluated {@link ExpressionBuilder#compileThreshold(int) enough times}
+     * it's compiled on a background thread (into {@link #BYTECODE} or, if
+     * classes can't be defined, into a {@link #TREE}) and the compiled code
+     * replaces the interpreter atomically.<br><br>
+     * This avoids paying the compilation of expressions that are only
+     * evaluated a few times.
+     *
+     * @see TieredStatistics
+     */
+    TIERED
+}
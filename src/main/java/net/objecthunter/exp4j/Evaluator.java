@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+/**
+ * Compiled form of an expression.<br><br>
+ * Implemented by the code that {@link EvaluationMode#BYTECODE} and {@link EvaluationMode#TREE}
+ * expressions generate at runtime, and by the classes that {@link JavaSourceGenerator}
+ * generates ahead of time. Implementations are stateless, so they can be called concurrently.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see JavaSourceGenerator
+ */
+public interface Evaluator {
+    /**
+     * Evaluates the expression.
+     *
+     * @param vars values of the variables indexed by slot
+     * @return result of the evaluation
+     */
+    double evaluate(double[] vars);
+}
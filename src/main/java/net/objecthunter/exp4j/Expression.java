@@ -17,24 +17,22 @@ package net.objecthunter.exp4j;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 
 import net.objecthunter.exp4j.function.Function;
-import net.objecthunter.exp4j.function.Functions;
 import net.objecthunter.exp4j.operator.Operator;
 import net.objecthunter.exp4j.tokenizer.FunctionToken;
-import net.objecthunter.exp4j.tokenizer.NumberToken;
 import net.objecthunter.exp4j.tokenizer.OperatorToken;
 import net.objecthunter.exp4j.tokenizer.Token;
 import net.objecthunter.exp4j.tokenizer.VariableToken;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 
 import static net.objecthunter.exp4j.tokenizer.TokenType.*;
@@ -49,17 +47,17 @@ import static net.objecthunter.exp4j.utils.Text.l10n;
 public final class Expression implements Serializable {
 
     @Serial
-    private static final long serialVersionUID = -2510794384846712749L;
+    private static final long serialVersionUID = 4683170395823561714L;
 
-    private final Token[] tokens;
+    private final CompiledExpression compiled;
 
-    private final String[] userFunctionNames;
-
-    private final Map<String, VariableToken> variables = new TreeMap<>();
+    private final Bindings bindings;
 
     private final boolean cacheResult;
 
-    private Double result;
+    private double result;
+
+    private boolean hasResult;
 
     /**
      * Creates a new expression that is a copy of the existing one.
@@ -67,32 +65,61 @@ public final class Expression implements Serializable {
      * @return copy of this {@code Expression}
      */
     public Expression copy() {
-        Expression exp = new Expression(
-            Arrays.copyOf(tokens, tokens.length),
-            Arrays.copyOf(userFunctionNames, userFunctionNames.length)
-        );
+        return new Expression(this);
+    }
 
-        exp.variables.clear();
-        //Since I don't honor the immutable token philosophy I need to copy
-        //variable tokens... Still... I regret nothing!
-        for (int i = 0; i < exp.tokens.length; i++) {
-            if (exp.tokens[i].getType() == VARIABLE) {
-                final VariableToken v = ((VariableToken)exp.tokens[i]);
-                if (!exp.variables.containsKey(v.getName())) {
-                    exp.variables.put(v.getName(), v.copy());
-                }
-                exp.tokens[i] = exp.variables.get(v.getName());
-            }
-        }
+    private Expression(Expression original) {
+        //The compiled expression is immutable so it can be shared
+        compiled = original.compiled;
+        bindings = original.bindings.copy();
+        cacheResult = original.cacheResult;
+    }
 
-        return exp;
+    Expression(final CompiledExpression compiled) {
+        this.compiled = compiled;
+        bindings = compiled.bindings();
+        cacheResult = compiled.isDeterministic();
     }
 
     Expression(final Token[] tokens, String[] userFunctionNames) {
-        this.tokens = tokens;
-        this.userFunctionNames = userFunctionNames;
-        populateVariablesMap();
-        cacheResult = checkNonDeterministic(tokens, userFunctionNames.length);
+        this(tokens, userFunctionNames, null, EvaluationMode.INTERPRETED);
+    }
+
+    Expression(final Token[] tokens, String[] userFunctionNames, String[] variableOrder,
+               EvaluationMode mode) {
+        this(tokens, userFunctionNames, variableOrder, mode, TieredCompiler.DEFAULT_THRESHOLD);
+    }
+
+    Expression(final Token[] tokens, String[] userFunctionNames, String[] variableOrder,
+               EvaluationMode mode, int compileThreshold) {
+        compiled = new CompiledExpression(
+                tokens, userFunctionNames, variableOrder, mode, compileThreshold
+        );
+        bindings = compiled.bindings();
+        cacheResult = compiled.isDeterministic();
+    }
+
+    /**
+     * Retrieves the immutable form of this expression, which can be shared and evaluated
+     * concurrently by any number of threads (each one with its own {@link Bindings}).<br><br>
+     * The values of the variables of this expression are not part of the returned object.
+     *
+     * @return thread safe {@link CompiledExpression}
+     * @see CompiledExpression#bindings()
+     */
+    public CompiledExpression getCompiledExpression() {
+        return compiled;
+    }
+
+    /**
+     * Tells if the expression is being evaluated with compiled code.
+     *
+     * @return {@code true} if the expression was compiled and {@code false}
+     * if it's being interpreted
+     * @see EvaluationMode
+     */
+    boolean isCompiled() {
+        return compiled.isCompiled();
     }
 
     /**
@@ -105,27 +132,6 @@ public final class Expression implements Serializable {
         return cacheResult;
     }
 
-    private boolean checkNonDeterministic(Token[] tokens, int userFuncs) {
-        if (userFuncs == 0) {
-            return true;
-        }
-
-        boolean status = false;
-        for (Token t : tokens) {
-            status |= (t.getType() == FUNCTION &&
-                    !((FunctionToken)t).getFunction().isDeterministic());
-        }
-        return !status;
-    }
-
-    private void populateVariablesMap() {
-        for (final Token t: tokens) {
-            if (t.getType() == VARIABLE) {
-                variables.put(((VariableToken)t).getName(), (VariableToken)t);
-            }
-        }
-    }
-
     /**
      * Sets the value of a variable, the variable to set must exist at build time and can't be the
      * name of a function.
@@ -141,30 +147,56 @@ public final class Expression implements Serializable {
      * @see Expression#getVariableNames()
      */
     public Expression setVariable(final String name, final double value) {
-        checkVariableName(name);
-        variables.get(name).setValue(value);
-        result = null;
+        bindings.set(name, value);
+        hasResult = false;
         return this;
     }
 
-    private boolean hasUserFunction(String name) {
-        boolean contains = false;
-        for (String s : userFunctionNames) {
-            contains |= Objects.equals(s, name);
-        }
-        return contains;
+    /**
+     * Sets the value of a variable using a handle previously obtained with
+     * {@link Expression#handle(String)}. Since the handle was validated when it was created
+     * this method doesn't need to look up the variable.
+     *
+     * @param handle handle of the variable
+     * @param value value of the variable
+     * @return {@code this}
+     * @throws IllegalArgumentException if the handle was created by an unrelated expression
+     * @see Expression#handle(String)
+     */
+    public Expression setVariable(final VariableHandle handle, final double value) {
+        bindings.set(handle, value);
+        hasResult = false;
+        return this;
     }
 
-    private void checkVariableName(String name) {
-        if (hasUserFunction(name) || Functions.getBuiltinFunction(name) != null) {
-            throw new IllegalArgumentException(l10n(
-                    "The variable name '%s' is invalid. Since "
-                  + "there exists a function with the same name", name
-            ));
-        }
-        if (!variables.containsKey(name)) {
-            throw new IllegalArgumentException(l10n("Variable '%s' doesn't exist.", name));
-        }
+    /**
+     * Sets the value of all the variables at once, in the order in which they were declared
+     * in the {@link ExpressionBuilder} (variables that were declared but aren't used in the
+     * expression are ignored).
+     *
+     * @param values values of the variables in declaration order
+     * @return {@code this}
+     * @throws IllegalArgumentException if the number of values is different from the number of
+     * declared variables
+     * @see VariableHandle#getIndex()
+     */
+    public Expression setVariables(final double[] values) {
+        bindings.set(values);
+        hasResult = false;
+        return this;
+    }
+
+    /**
+     * Resolves a variable once, so it can be updated later without any lookups.
+     *
+     * @param name variable name as passed to {@link ExpressionBuilder}
+     * @return handle of the variable
+     * @throws IllegalArgumentException if the variable name is a function name or if the variable
+     * doesn't exist at build time.
+     * @see Expression#setVariable(VariableHandle, double)
+     */
+    public VariableHandle handle(final String name) {
+        return compiled.handle(name);
     }
 
     /**
@@ -194,7 +226,7 @@ public final class Expression implements Serializable {
      * @return variable names
      */
     public Set<String> getVariableNames() {
-        return variables.keySet();
+        return compiled.getVariableNames();
     }
 
     /**
@@ -204,7 +236,7 @@ public final class Expression implements Serializable {
      * @return {@code true} if the variable exists and {@code false} otherwise
      */
     public boolean containsVariable(String name) {
-        return variables.containsKey(name);
+        return compiled.containsVariable(name);
     }
 
     /**
@@ -229,7 +261,7 @@ public final class Expression implements Serializable {
            The count has to be larger than 1 at all times and exactly 1 after all tokens
            have been processed */
         int count = 0;
-        for (Token tok : tokens) {
+        for (Token tok : compiled.tokens()) {
             switch (tok.getType()) {
                 case NUMBER, VARIABLE -> count++;
                 case FUNCTION         -> {
@@ -288,13 +320,14 @@ public final class Expression implements Serializable {
 
     /**
      * Simple wrapper for {@link ExecutorService#submit(java.util.concurrent.Callable)}.<br><br>
-     * Expressions are <b>NOT</b> thread safe (and most likely will never be).
+     * Expressions are <b>NOT</b> thread safe, use {@link #getCompiledExpression()} to share an
+     * expression between threads.
      * @param executor {@link ExecutorService} to use
      * @return {@link Future} task that will eventually have the result of evaluate()
      * @see Expression#evaluate()
      */
     public Future<Double> evaluateAsync(ExecutorService executor) {
-        return executor.submit(this::evaluate);
+        return executor.submit(() -> evaluate());
     }
 
     /**
@@ -309,81 +342,99 @@ public final class Expression implements Serializable {
      * @see Expression#validate()
      */
     public double evaluate() {
-        if (cacheResult && result != null) {
+        if (cacheResult && hasResult) {
             return result;
         }
+        result = compiled.evaluate(bindings);
+        hasResult = true;
+        return result;
+    }
 
-        final ArrayStack output = new ArrayStack();
-        for (Token t : tokens) {
-            if (null != t.getType()) {
-                switch (t.getType()) {
-                    case NUMBER   -> output.push(((NumberToken) t).getValue());
-                    case VARIABLE -> {
-                        final VariableToken vt = (VariableToken) t;
-                        if (!vt.isValueSet()) {
-                            throw new IllegalArgumentException(l10n(
-                                    "No value has been set for variable '%s'", vt.getName()
-                            ));
-                        }
-                        output.push(vt.getValue());
-                    }
-                    case OPERATOR -> {
-                        final Operator op = ((OperatorToken) t).getOperator();
-                        if (output.size() < op.getNumOperands()) {
-                            throw new IllegalArgumentException(l10n(
-                                    "Invalid number of operands available for '%s' operator",
-                                    op.getSymbol()
-                            ));
-                        }
-                        if (op.getNumOperands() == 2) {
-                            /* pop the operands and push the result of the operation */
-                            final double rightArg = output.pop();
-                            final double leftArg = output.pop();
-                            output.push(op.apply(leftArg, rightArg));
-                        } else if (op.getNumOperands() == 1) {
-                            /* pop the operand and push the result of the operation */
-                            final double arg = output.pop();
-                            output.push(op.apply(arg));
-                        }
-                    }
-                    case FUNCTION -> {
-                        final Function func = ((FunctionToken) t).getFunction();
-                        final int numArguments = func.getNumArguments();
-                        if (output.size() < numArguments) {
-                            throw new IllegalArgumentException(l10n(
-                                    "Invalid number of arguments available for '%s' function",
-                                    func.getName()
-                            ));
-                        }
-                        /* collect the arguments from the stack */
-                        final double[] args = new double[numArguments];
-                        for (int j = numArguments - 1; j >= 0; j--) {
-                            args[j] = output.pop();
-                        }
-                        output.push(func.apply(args));
-                    }
-                    default -> {
-                    }
-                }
-            }
-        }
+    /**
+     * Evaluates the expression over columns of values, storing the result of row {@code i} in
+     * {@code out[i]}. The values set on this expression are neither used nor modified.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     * @see CompiledExpression#evaluate(double[][], double[])
+     */
+    public void evaluate(final double[][] columns, final double[] out) {
+        compiled.evaluate(columns, out);
+    }
 
-        if (output.size() > 1) {
-            throw new IllegalArgumentException(l10n(
-                "Invalid number of items on the output queue. "
-              + "Might be caused by an invalid number of arguments for a function."
-            ));
-        }
+    /**
+     * Evaluates the expression over columns of values using all the threads of the
+     * {@link ForkJoinPool#commonPool() common pool}. The values set on this expression are
+     * neither used nor modified.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     * @see CompiledExpression#evaluateParallel(double[][], double[], ForkJoinPool)
+     */
+    public void evaluateParallel(final double[][] columns, final double[] out) {
+        compiled.evaluateParallel(columns, out);
+    }
 
-        return result = output.pop();
+    /**
+     * Evaluates the expression over columns of values, storing the result of row {@code i} in
+     * {@code out[i]}. The values set on this expression are neither used nor modified.
+     *
+     * @param columns values of each variable by name
+     * @param out where the results will be stored, its length is the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if a column is missing or
+     * if a column has less rows than {@code out}
+     * @see CompiledExpression#evaluate(Map, double[])
+     */
+    public void evaluate(final Map<String, double[]> columns, final double[] out) {
+        compiled.evaluate(columns, out);
+    }
+
+    /**
+     * Evaluates the expression over columns stored in buffers (which can be direct or memory
+     * mapped) without copying them to the heap. The values set on this expression are neither
+     * used nor modified.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored, its remaining elements are the number of rows
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less remaining elements than
+     * {@code out}
+     * @see CompiledExpression#evaluate(DoubleBuffer[], DoubleBuffer)
+     */
+    public void evaluate(final DoubleBuffer[] columns, final DoubleBuffer out) {
+        compiled.evaluate(columns, out);
+    }
+
+    /**
+     * Evaluates the expression over columns of raw bytes (which can be direct or memory
+     * mapped) read with the byte order of each buffer. The values set on this expression are
+     * neither used nor modified.
+     *
+     * @param columns values of each variable, in the order in which the variables were declared
+     * in the {@link ExpressionBuilder} (columns of unused variables can be {@code null})
+     * @param out where the results will be stored
+     * @throws IllegalArgumentException if the expression isn't valid, if the number of columns
+     * isn't the number of declared variables or if a column has less rows than {@code out}
+     * @see CompiledExpression#evaluate(ByteBuffer[], ByteBuffer)
+     */
+    public void evaluate(final ByteBuffer[] columns, final ByteBuffer out) {
+        compiled.evaluate(columns, out);
     }
 
     @Override
     public String toString() {
+        final Token[] tokens = compiled.tokens();
         StringBuilder sb = new StringBuilder(tokens.length * 15);
 
-        for (Token token : tokens) {
-            sb.append(token).append(' ');
+        for (int i = 0; i < tokens.length; i++) {
+            appendToken(sb, i).append(' ');
         }
 
         return sb.substring(0, sb.length() - 1);
@@ -396,24 +447,37 @@ public final class Expression implements Serializable {
      * @return RPN of the expression
      */
     public String toTokenString() {
+        final Token[] tokens = compiled.tokens();
         StringBuilder sb = new StringBuilder(tokens.length * 35);
 
-        for (Token token : tokens) {
-            sb.append(token.getType()).append('[').append(token).append("] ");
+        for (int i = 0; i < tokens.length; i++) {
+            sb.append(tokens[i].getType()).append('[');
+            appendToken(sb, i).append("] ");
         }
 
         return sb.substring(0, sb.length() - 1);
     }
 
+    /* Variables are printed with their current value (if any) like VariableToken used to */
+    private StringBuilder appendToken(StringBuilder sb, int i) {
+        final Token token = compiled.tokens()[i];
+        final int slot = compiled.slotAt(i);
+        if (token.getType() != VARIABLE || !bindings.set[slot]) {
+            return sb.append(token);
+        }
+        return sb.append(((VariableToken) token).getName())
+                 .append('(').append(bindings.values[slot]).append(')');
+    }
+
     private void checkVariablesSet(boolean checkVariablesSet, List<String> errors) {
         if (!checkVariablesSet) {
             return;
         }
 
         /* check that all vars have a value set */
-        for (VariableToken vt : variables.values()) {
-            if (!vt.isValueSet()) {
-                errors.add(l10n("The variable '%s' has not been set", vt.getName()));
+        for (String name : compiled.getVariableNames()) {
+            if (!bindings.isSet(name)) {
+                errors.add(l10n("The variable '%s' has not been set", name));
             }
         }
     }
@@ -16,7 +16,7 @@
 
 package net.objecthunter.exp4j;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,14 +39,21 @@ public class ExpressionBuilder {
 
     private final String expression;
 
-    private final Map<String, Function> userFunctions;
+    private Map<String, Function> userFunctions;
 
-    private final Map<String, Operator> userOperators;
+    private Map<String, Operator> userOperators;
 
-    private final Set<String> variableNames;
+    private Set<String> variableNames;
+
+    /** Context whose symbols are being used, until a symbol is added */
+    private ExpressionContext context;
 
     private boolean useBuiltInFunctions = true;
 
+    private EvaluationMode evaluationMode = EvaluationMode.INTERPRETED;
+
+    private int compileThreshold = TieredCompiler.DEFAULT_THRESHOLD;
+
     /**
      * Create a new ExpressionBuilder instance and initialize it with a given expression
      * string.
@@ -60,7 +67,42 @@ public class ExpressionBuilder {
         this.expression = expression;
         this.userOperators = new TreeMap<>();
         this.userFunctions = new TreeMap<>();
-        this.variableNames = new HashSet<>(4);
+        this.variableNames = new LinkedHashSet<>(4);
+    }
+
+    /**
+     * Create a new ExpressionBuilder instance that starts with the functions, operators,
+     * variables and settings of a context. The context is left untouched if more symbols are
+     * added to this builder.
+     * @param expression the expression to be parsed
+     * @param context preconfigured symbols and settings
+     * @see ExpressionContext#builder(String)
+     */
+    public ExpressionBuilder(String expression, ExpressionContext context) {
+        if (expression == null || expression.trim().length() == 0) {
+            throw new IllegalArgumentException(l10n("Expression can not be empty"));
+        }
+
+        this.expression = expression;
+        this.context = context;
+        this.userFunctions = context.getFunctions();
+        this.userOperators = context.getOperators();
+        this.variableNames = context.getVariableNames();
+        this.useBuiltInFunctions = context.isUsingBuiltInFunctions();
+        this.evaluationMode = context.getEvaluationMode();
+        this.compileThreshold = context.getCompileThreshold();
+    }
+
+    /**
+     * Stops sharing the symbols of the context (if any) before modifying them.
+     */
+    private void detach() {
+        if (context != null) {
+            userFunctions = new TreeMap<>(userFunctions);
+            userOperators = new TreeMap<>(userOperators);
+            variableNames = new LinkedHashSet<>(variableNames);
+            context = null;
+        }
     }
 
     /**
@@ -72,6 +114,36 @@ public class ExpressionBuilder {
         return this;
     }
 
+    /**
+     * Sets the strategy that will be used to evaluate the built expressions, by default the
+     * expressions are {@link EvaluationMode#INTERPRETED interpreted}.
+     * @param mode evaluation strategy
+     * @return the ExpressionBuilder instance
+     * @see EvaluationMode
+     */
+    public ExpressionBuilder evaluationMode(EvaluationMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException(l10n("Evaluation mode can not be null"));
+        }
+        this.evaluationMode = mode;
+        return this;
+    }
+
+    /**
+     * Sets how many times a {@link EvaluationMode#TIERED tiered} expression is interpreted
+     * before being compiled in the background, by default {@code 1000}.
+     * @param threshold number of evaluations before compiling the expression
+     * @return the ExpressionBuilder instance
+     * @see EvaluationMode#TIERED
+     */
+    public ExpressionBuilder compileThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException(l10n("Compile threshold must be positive"));
+        }
+        this.compileThreshold = threshold;
+        return this;
+    }
+
     /**
      * Add a {@link Function} implementation available for use in the expression.
      * @param function the custom {@link Function} implementation that should be available for
@@ -79,6 +151,7 @@ public class ExpressionBuilder {
      * @return the ExpressionBuilder instance
      */
     public ExpressionBuilder function(Function function) {
+        detach();
         this.userFunctions.put(function.getName(), function);
         return this;
     }
@@ -90,6 +163,7 @@ public class ExpressionBuilder {
      * @return the ExpressionBuilder instance
      */
     public ExpressionBuilder functions(Function... functions) {
+        detach();
         for (Function f : functions) {
             this.userFunctions.put(f.getName(), f);
         }
@@ -103,6 +177,7 @@ public class ExpressionBuilder {
      * @return the ExpressionBuilder instance
      */
     public ExpressionBuilder functions(List<Function> functions) {
+        detach();
         for (Function f : functions) {
             this.userFunctions.put(f.getName(), f);
         }
@@ -112,6 +187,9 @@ public class ExpressionBuilder {
     /**
      * Add multiple {@code variables} that <b>must</b> be used in the expression.<br><br>
      * <i><b>Note:</b></i> the "must" part of that statement will change on future versions.
+     * <br><br>
+     * The order in which variables are declared is the one expected by
+     * {@link Expression#setVariables(double[])}.
      *
      * @param variableNames variables to use
      * @return the ExpressionBuilder instance
@@ -128,6 +206,9 @@ public class ExpressionBuilder {
     /**
      * Add multiple {@code variables} that <b>must</b> be used in the expression.<br><br>
      * <i><b>Note:</b></i> the "must" part of that statement will change on future versions.
+     * <br><br>
+     * The order in which variables are declared is the one expected by
+     * {@link Expression#setVariables(double[])}.
      *
      * @param variableNames variables to use
      * @return the ExpressionBuilder instance
@@ -152,6 +233,7 @@ public class ExpressionBuilder {
      */
     public ExpressionBuilder variable(String variableName) {
         checkVariableName(variableName);
+        detach();
         this.variableNames.add(variableName);
         return this;
     }
@@ -162,12 +244,13 @@ public class ExpressionBuilder {
      * @return the ExpressionBuilder instance
      */
     public ExpressionBuilder operator(Operator operator) {
-        this.checkOperatorSymbol(operator);
+        checkOperatorSymbol(operator);
+        detach();
         this.userOperators.put(operator.getSymbol(), operator);
         return this;
     }
 
-    private void checkOperatorSymbol(Operator op) {
+    static void checkOperatorSymbol(Operator op) {
         String name = op.getSymbol();
         for (char ch : name.toCharArray()) {
             if (!Operator.isAllowedOperatorChar(ch)) {
@@ -221,15 +304,19 @@ public class ExpressionBuilder {
      * expression
      */
     public Expression build(boolean simplify) {
-        /* Check if there are duplicate vars/functions */
-        for (String var : variableNames) {
-            if (Functions.getBuiltinFunction(var) != null || userFunctions.containsKey(var)) {
-                throw new IllegalArgumentException(l10n(
-                    "A variable can not have the same name as a function [%s]", var
-                ));
-            }
+        if (context != null) {
+            //Everything was already checked and indexed by the context
+            return new Expression(context.compiled(
+                    ShuntingYard.convertToRPN(simplify, expression, context.symbols(), useBuiltInFunctions),
+                    context.functionNames(),
+                    context.variableOrder(),
+                    evaluationMode,
+                    compileThreshold
+            ));
         }
 
+        checkVariables(variableNames, userFunctions);
+
         Token[] tokens = ShuntingYard.convertToRPN(
                 simplify,
                 expression,
@@ -239,7 +326,43 @@ public class ExpressionBuilder {
                 useBuiltInFunctions
         );
 
-        return new Expression(tokens, userFunctions.keySet().toArray(new String[0]));
+        return new Expression(
+                tokens,
+                userFunctions.keySet().toArray(new String[0]),
+                variableNames.toArray(new String[0]),
+                evaluationMode,
+                compileThreshold
+        );
+    }
+
+    /** Check if there are duplicate vars/functions */
+    static void checkVariables(Set<String> variableNames, Map<String, Function> userFunctions) {
+        for (String var : variableNames) {
+            if (Functions.getBuiltinFunction(var) != null || userFunctions.containsKey(var)) {
+                throw new IllegalArgumentException(l10n(
+                    "A variable can not have the same name as a function [%s]", var
+                ));
+            }
+        }
+    }
+
+    /**
+     * @param simplify {@code true} if the constants will be simplified
+     * @return key identifying the expression that {@link #build(boolean)} would return
+     * @see ExpressionCache
+     */
+    ExpressionCache.Key cacheKey(boolean simplify) {
+        return new ExpressionCache.Key(
+                ExpressionCache.normalize(expression),
+                context != null ? context.variableList() : List.copyOf(variableNames),
+                context != null ? context.functionList() : List.copyOf(userFunctions.values()),
+                context != null ? context.operatorList() : List.copyOf(userOperators.values()),
+                useBuiltInFunctions,
+                simplify,
+                evaluationMode,
+                compileThreshold,
+                context
+        );
     }
 
     @Override
@@ -247,7 +370,7 @@ public class ExpressionBuilder {
         return expression;
     }
 
-    private static void checkVariableName(String variableName) throws IllegalArgumentException {
+    static void checkVariableName(String variableName) throws IllegalArgumentException {
         if (VAR_NAME_PATTERN.matcher(variableName).matches()) {
             throw new IllegalArgumentException(l10n("Variable names can't contain non ASCII letters"));
         }
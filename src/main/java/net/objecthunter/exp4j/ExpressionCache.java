@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+/**
+ * Bounded cache of built expressions, safe to use from any number of threads.<br><br>
+ * Expressions are cached by their text (ignoring differences in whitespace) along with
+ * everything else configured in the {@link ExpressionBuilder}: the variables (and their order),
+ * the functions and operators (compared by identity), the built-in functions flag, the
+ * {@link EvaluationMode}, the compile threshold and the {@link ExpressionContext} (if any). Since the cached {@link CompiledExpression}
+ * is immutable, every hit returns a new {@link Expression} sharing it, just like
+ * {@link Expression#copy()}.<br><br>
+ * When several threads miss the same key at once the expression is built only once and the
+ * rest wait for it. Once the cache is full the least recently used expression is evicted.
+ *
+ * <pre>
+ * final ExpressionCache cache = new ExpressionCache(1000);
+ * final Expression e = cache.get(new ExpressionBuilder("3x + 2").variable("x"));
+ * </pre>
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see CacheStatistics
+ */
+public final class ExpressionCache {
+    /** Compilation happens outside the lock */
+    private final LruCache<Key, FutureTask<CompiledExpression>> entries;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize maximum number of expressions to keep
+     * @throws IllegalArgumentException if {@code maximumSize} isn't positive
+     */
+    public ExpressionCache(int maximumSize) {
+        entries = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Retrieves the expression configured by the given builder, building it only if it isn't
+     * already cached.
+     *
+     * @param builder builder of the expression
+     * @return a new {@link Expression} (with its own variables) sharing the cached form
+     * @see ExpressionBuilder#build()
+     */
+    public Expression get(ExpressionBuilder builder) {
+        return get(builder, false);
+    }
+
+    /**
+     * Retrieves the expression configured by the given builder, building it only if it isn't
+     * already cached.
+     *
+     * @param builder builder of the expression
+     * @param simplify {@code true} to attempt to simplify constants
+     * @return a new {@link Expression} (with its own variables) sharing the cached form
+     * @see ExpressionBuilder#build(boolean)
+     */
+    public Expression get(ExpressionBuilder builder, boolean simplify) {
+        return new Expression(getCompiled(builder, simplify));
+    }
+
+    /**
+     * Retrieves the immutable form of the expression configured by the given builder, building
+     * it only if it isn't already cached.
+     *
+     * @param builder builder of the expression
+     * @param simplify {@code true} to attempt to simplify constants
+     * @return shared {@link CompiledExpression}
+     * @see ExpressionBuilder#build(boolean)
+     */
+    public CompiledExpression getCompiled(ExpressionBuilder builder, boolean simplify) {
+        final Key key = builder.cacheKey(simplify);
+        FutureTask<CompiledExpression> task = entries.get(key);
+        if (task == null) {
+            final FutureTask<CompiledExpression> created = new FutureTask<>(
+                    () -> builder.build(simplify).getCompiledExpression()
+            );
+            task = entries.putIfAbsent(key, created);
+            if (task == null) {
+                task = created;
+                entries.miss();
+                task.run();
+            } else {
+                entries.hit();
+            }
+        } else {
+            entries.hit();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            //Invalid expressions aren't cached, the next call will throw again
+            entries.remove(key, task);
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @return number of cached expressions (including the ones being built)
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return maximum number of cached expressions
+     */
+    public int getMaximumSize() {
+        return entries.getMaximumSize();
+    }
+
+    /**
+     * Removes every expression from the cache, the statistics are kept.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieves the current statistics.
+     *
+     * @return snapshot of the statistics
+     */
+    public CacheStatistics getStatistics() {
+        return entries.getStatistics();
+    }
+
+    /**
+     * Trims the text and collapses every run of whitespace into a single space, since it
+     * separates tokens the same way no matter its length.
+     *
+     * @param expression text of the expression
+     * @return normalized text
+     */
+    static String normalize(String expression) {
+        final StringBuilder sb = new StringBuilder(expression.length());
+        boolean space = false;
+        for (int i = 0; i < expression.length(); i++) {
+            final char ch = expression.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                space = true;
+            } else {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                space = false;
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Everything that determines the result of {@link ExpressionBuilder#build(boolean)}. The
+     * context (compared by identity, {@code null} if there's none) is part of the key since its
+     * expressions share the variable order and the structure of the program.
+     */
+    record Key(String expression, List<String> variables, List<Function> functions,
+               List<Operator> operators, boolean builtins, boolean simplify,
+               EvaluationMode mode, int compileThreshold, ExpressionContext context) {
+    }
+}
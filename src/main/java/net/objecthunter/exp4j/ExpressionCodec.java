@@ -0,0 +1,496 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.function.Functions;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Compact binary format for compiled expressions.<br><br>
+ * Unlike Java serialization no class descriptors are written and nothing is read through
+ * reflection: the RPN program is stored as a tag per token, the built-in functions and
+ * operators are referenced by a numeric id and the user functions and operators by name, which
+ * is resolved against an {@link ExpressionContext} when the expression is read. All the values
+ * are big endian, whatever the byte order of the buffer.
+ *
+ * <pre>
+ * header      'e' '4' 'j' version(1)  total length in bytes (int, header included)
+ * settings    evaluation mode(1)  compile threshold(varint)
+ * variables   count(varint)  name*
+ * functions   count(varint)  name*       (user function names)
+ * operators   count(varint)  symbol*     (user operators used by the program)
+ * program     count(varint)  token*
+ * token       NUMBER value(8) | VARIABLE slot(varint) | OPERATOR id(1) | FUNCTION id(1)
+ *             | USER_OPERATOR index(varint) | USER_FUNCTION index(varint)
+ * name        length(varint)  UTF-8 bytes
+ * </pre>
+ *
+ * The ids of the built-ins are their positions in {@link Functions#getFunctions()} and
+ * {@link Operators#getOperators()}, which only grow at the end. The total length allows skipping
+ * an expression (or reading it from a stream) without decoding it.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class ExpressionCodec {
+    /** Current version of the format */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'e', '4', 'j'};
+
+    /** Magic, version and total length */
+    static final int HEADER = 8;
+
+    private static final int NUMBER = 0;
+    private static final int VARIABLE = 1;
+    private static final int OPERATOR = 2;
+    private static final int FUNCTION = 3;
+    private static final int USER_OPERATOR = 4;
+    private static final int USER_FUNCTION = 5;
+
+    /** Stable codes of the evaluation modes (the ordinals might change) */
+    private static final EvaluationMode[] MODES = {
+        EvaluationMode.INTERPRETED, EvaluationMode.BYTECODE,
+        EvaluationMode.TREE, EvaluationMode.TIERED
+    };
+
+    private static final Operator[] OPERATORS = Operators.getOperators();
+
+    private static final Function[] FUNCTIONS = Functions.getFunctions();
+
+    private static final Map<Object, Integer> BUILTIN_IDS = new IdentityHashMap<>();
+
+    /** Tokens are immutable, so the built-in ones are shared by every decoded expression */
+    private static final OperatorToken[] OPERATOR_TOKENS = new OperatorToken[OPERATORS.length];
+
+    private static final FunctionToken[] FUNCTION_TOKENS = new FunctionToken[FUNCTIONS.length];
+
+    static {
+        for (int i = 0; i < OPERATORS.length; i++) {
+            BUILTIN_IDS.put(OPERATORS[i], i);
+            OPERATOR_TOKENS[i] = new OperatorToken(OPERATORS[i]);
+        }
+        for (int i = 0; i < FUNCTIONS.length; i++) {
+            BUILTIN_IDS.put(FUNCTIONS[i], i);
+            FUNCTION_TOKENS[i] = new FunctionToken(FUNCTIONS[i]);
+        }
+    }
+
+    private ExpressionCodec() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Encodes an expression.
+     *
+     * @param expression expression to encode
+     * @return encoded expression
+     */
+    public static byte[] toBytes(CompiledExpression expression) {
+        final Writer w = new Writer();
+        w.bytes(MAGIC, MAGIC.length);
+        w.u1(VERSION);
+        w.u4(0);
+        w.u1(Arrays.asList(MODES).indexOf(expression.mode()));
+        w.varint(expression.compileThreshold());
+
+        final String[] variables = expression.variableOrder();
+        w.varint(variables.length);
+        for (String v : variables) {
+            w.string(v);
+        }
+
+        final Token[] tokens = expression.tokens();
+        final List<String> functions = new ArrayList<>(
+                Arrays.asList(expression.userFunctionNames())
+        );
+        final List<String> operators = new ArrayList<>();
+        for (Token t : tokens) {
+            if (t instanceof FunctionToken f && !BUILTIN_IDS.containsKey(f.getFunction()) &&
+                    !functions.contains(f.getFunction().getName())) {
+                functions.add(f.getFunction().getName());
+            } else if (t instanceof OperatorToken o && !BUILTIN_IDS.containsKey(o.getOperator()) &&
+                    !operators.contains(o.getOperator().getSymbol())) {
+                operators.add(o.getOperator().getSymbol());
+            }
+        }
+        w.varint(functions.size());
+        for (String f : functions) {
+            w.string(f);
+        }
+        w.varint(operators.size());
+        for (String o : operators) {
+            w.string(o);
+        }
+
+        w.varint(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            final Token t = tokens[i];
+            if (t instanceof NumberToken n) {
+                w.u1(NUMBER);
+                w.u8(Double.doubleToRawLongBits(n.getValue()));
+            } else if (t instanceof VariableToken) {
+                w.u1(VARIABLE);
+                w.varint(expression.slotAt(i));
+            } else if (t instanceof OperatorToken o) {
+                final Integer id = BUILTIN_IDS.get(o.getOperator());
+                if (id != null) {
+                    w.u1(OPERATOR);
+                    w.u1(id);
+                } else {
+                    w.u1(USER_OPERATOR);
+                    w.varint(operators.indexOf(o.getOperator().getSymbol()));
+                }
+            } else if (t instanceof FunctionToken f) {
+                final Integer id = BUILTIN_IDS.get(f.getFunction());
+                if (id != null) {
+                    w.u1(FUNCTION);
+                    w.u1(id);
+                } else {
+                    w.u1(USER_FUNCTION);
+                    w.varint(functions.indexOf(f.getFunction().getName()));
+                }
+            } else {
+                throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+            }
+        }
+        return w.finish();
+    }
+
+    /**
+     * Encodes an expression into a buffer, starting at its position (which is advanced).
+     *
+     * @param expression expression to encode
+     * @param out where the expression will be written
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have enough space left
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read only
+     */
+    public static void write(CompiledExpression expression, ByteBuffer out) {
+        out.put(toBytes(expression));
+    }
+
+    /**
+     * Encodes an expression into a stream.
+     *
+     * @param expression expression to encode
+     * @param out where the expression will be written
+     * @throws IOException if the stream can't be written
+     */
+    public static void write(CompiledExpression expression, OutputStream out) throws IOException {
+        out.write(toBytes(expression));
+    }
+
+    /**
+     * Decodes an expression that only uses built-in functions and operators, see
+     * {@link #read(ByteBuffer, ExpressionContext)}.
+     *
+     * @param in encoded expression
+     * @return decoded expression
+     */
+    public static CompiledExpression read(ByteBuffer in) {
+        return read(in, null);
+    }
+
+    /**
+     * Decodes an expression starting at the position of the buffer, which is advanced to the
+     * end of the expression.
+     *
+     * @param in encoded expression
+     * @param context context used to resolve the user functions and operators (can be
+     * {@code null} if there are none)
+     * @return decoded expression
+     * @throws IllegalArgumentException if the data isn't a valid expression, if its version
+     * isn't supported or if a user function or operator isn't defined in the context
+     */
+    public static CompiledExpression read(ByteBuffer in, ExpressionContext context) {
+        final ByteBuffer b = in.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final int start = b.position();
+        final int length;
+        try {
+            length = header(b);
+            if (length < HEADER || length > in.limit() - start) {
+                throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+            }
+            b.limit(start + length);
+            final CompiledExpression exp = decode(b, context);
+            if (b.hasRemaining()) {
+                throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+            }
+            in.position(start + length);
+            return exp;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException(l10n("Invalid serialized expression"), ex);
+        }
+    }
+
+    /**
+     * Decodes an expression from a stream, reading exactly its bytes. The buffer only grows as
+     * the bytes arrive, so a corrupted length can't allocate more memory than the stream has.
+     *
+     * @param in encoded expression
+     * @param context context used to resolve the user functions and operators (can be
+     * {@code null} if there are none)
+     * @return decoded expression
+     * @throws IOException if the stream can't be read
+     * @throws EOFException if the stream ends before the expression
+     * @throws IllegalArgumentException if the data isn't a valid expression, if its version
+     * isn't supported or if a user function or operator isn't defined in the context
+     */
+    public static CompiledExpression read(InputStream in, ExpressionContext context)
+            throws IOException {
+        final byte[] header = in.readNBytes(HEADER);
+        if (header.length < HEADER) {
+            throw new EOFException();
+        }
+        final int length = header(ByteBuffer.wrap(header));
+        if (length < HEADER) {
+            throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+        }
+        final byte[] body = in.readNBytes(length - HEADER);
+        if (body.length < length - HEADER) {
+            throw new EOFException();
+        }
+        final byte[] data = Arrays.copyOf(header, length);
+        System.arraycopy(body, 0, data, HEADER, body.length);
+        return read(ByteBuffer.wrap(data), context);
+    }
+
+    /**
+     * Checks the magic and the version.
+     *
+     * @return total length of the expression
+     */
+    static int header(ByteBuffer b) {
+        for (byte m : MAGIC) {
+            if (b.get() != m) {
+                throw new IllegalArgumentException(l10n("Not a serialized expression"));
+            }
+        }
+        final int version = b.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException(l10n(
+                    "Unsupported serialization version %d", version
+            ));
+        }
+        return b.getInt();
+    }
+
+    private static CompiledExpression decode(ByteBuffer b, ExpressionContext context) {
+        final int mode = b.get() & 0xFF;
+        if (mode >= MODES.length) {
+            throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+        }
+        final int threshold = varint(b);
+
+        final String[] variables = new String[count(b)];
+        final VariableToken[] variableTokens = new VariableToken[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = string(b);
+            variableTokens[i] = new VariableToken(variables[i]);
+        }
+
+        final String[] functionNames = new String[count(b)];
+        final FunctionToken[] functions = new FunctionToken[functionNames.length];
+        for (int i = 0; i < functionNames.length; i++) {
+            functionNames[i] = string(b);
+        }
+        final String[] operatorSymbols = new String[count(b)];
+        final OperatorToken[] operators = new OperatorToken[operatorSymbols.length];
+        for (int i = 0; i < operatorSymbols.length; i++) {
+            operatorSymbols[i] = string(b);
+        }
+
+        final Token[] tokens = new Token[count(b)];
+        for (int i = 0; i < tokens.length; i++) {
+            final int tag = b.get();
+            tokens[i] = switch (tag) {
+                case NUMBER   -> new NumberToken(Double.longBitsToDouble(b.getLong()));
+                case VARIABLE -> variableTokens[varint(b)];
+                case OPERATOR -> OPERATOR_TOKENS[b.get() & 0xFF];
+                case FUNCTION -> FUNCTION_TOKENS[b.get() & 0xFF];
+                case USER_OPERATOR -> {
+                    final int index = varint(b);
+                    if (operators[index] == null) {
+                        operators[index] = new OperatorToken(
+                                operator(context, operatorSymbols[index])
+                        );
+                    }
+                    yield operators[index];
+                }
+                case USER_FUNCTION -> {
+                    final int index = varint(b);
+                    if (functions[index] == null) {
+                        functions[index] = new FunctionToken(
+                                function(context, functionNames[index])
+                        );
+                    }
+                    yield functions[index];
+                }
+                default -> throw new IllegalArgumentException(
+                        l10n("Invalid serialized expression")
+                );
+            };
+        }
+        if (context != null) {
+            return context.compiled(
+                    tokens, functionNames, variables, MODES[mode], threshold
+            );
+        }
+        return new CompiledExpression(
+                tokens, functionNames, variables, MODES[mode], threshold
+        );
+    }
+
+    private static Function function(ExpressionContext context, String name) {
+        final Function f = context == null ? null : context.getFunctions().get(name);
+        if (f == null) {
+            throw new IllegalArgumentException(l10n(
+                    "Function '%s' isn't defined in the context", name
+            ));
+        }
+        return f;
+    }
+
+    private static Operator operator(ExpressionContext context, String symbol) {
+        final Operator o = context == null ? null : context.getOperators().get(symbol);
+        if (o == null) {
+            throw new IllegalArgumentException(l10n(
+                    "Operator '%s' isn't defined in the context", symbol
+            ));
+        }
+        return o;
+    }
+
+    private static int varint(ByteBuffer b) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int v = b.get();
+            value |= (v & 0x7F) << shift;
+            if (v >= 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+    }
+
+    /** Reads the number of elements of a table, each one takes at least a byte */
+    private static int count(ByteBuffer b) {
+        final int count = varint(b);
+        if (count > b.remaining()) {
+            throw new IllegalArgumentException(l10n("Invalid serialized expression"));
+        }
+        return count;
+    }
+
+    private static String string(ByteBuffer b) {
+        final int len = varint(b);
+        if (b.hasArray()) {
+            final String s = new String(
+                    b.array(), b.arrayOffset() + b.position(), len, StandardCharsets.UTF_8
+            );
+            b.position(b.position() + len);
+            return s;
+        }
+        final byte[] bytes = new byte[len];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Growable big endian byte array */
+    private static final class Writer {
+        private byte[] buf = new byte[128];
+
+        private int len;
+
+        private void ensure(int n) {
+            if (len + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+            }
+        }
+
+        void u1(int v) {
+            ensure(1);
+            buf[len++] = (byte) v;
+        }
+
+        void u4(int v) {
+            ensure(4);
+            for (int s = 24; s >= 0; s -= 8) {
+                buf[len++] = (byte) (v >>> s);
+            }
+        }
+
+        void u8(long v) {
+            ensure(8);
+            for (int s = 56; s >= 0; s -= 8) {
+                buf[len++] = (byte) (v >>> s);
+            }
+        }
+
+        void varint(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        void bytes(byte[] b, int n) {
+            ensure(n);
+            System.arraycopy(b, 0, buf, len, n);
+            len += n;
+        }
+
+        void string(String s) {
+            final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            varint(b.length);
+            bytes(b, b.length);
+        }
+
+        byte[] finish() {
+            final int total = len;
+            len = MAGIC.length + 1;
+            u4(total);
+            return Arrays.copyOf(buf, total);
+        }
+    }
+}
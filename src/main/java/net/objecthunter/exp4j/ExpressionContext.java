@@ -0,0 +1,506 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.SymbolTable;
+import net.objecthunter.exp4j.tokenizer.Token;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Immutable set of functions, operators, variables and settings shared by many expressions.
+ * <br><br>
+ * Configuring an {@link ExpressionBuilder} for each expression repeats the same work over and
+ * over: registering the functions and operators, validating the names and indexing the symbols
+ * for the tokenizer. A context does all that once and can then be used (concurrently) to build
+ * any number of expressions:
+ *
+ * <pre>
+ * final ExpressionContext ctx = ExpressionContext.builder()
+ *         .functions(FunctionsMisc.getFunctions())
+ *         .operators(OperatorsComparison.getOperators())
+ *         .variables("x", "y")
+ *         .build();
+ * final Expression e = ctx.build("if(x &gt; y, x, y)");
+ * </pre>
+ *
+ * Every expression built from the same context has the same variable order, so a
+ * {@link VariableHandle} obtained from one of them can be used with all of them.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see ExpressionBuilder#ExpressionBuilder(String, ExpressionContext)
+ */
+public final class ExpressionContext {
+    private final Map<String, Function> functions;
+
+    private final Map<String, Operator> operators;
+
+    private final Set<String> variables;
+
+    private final boolean useBuiltInFunctions;
+
+    private final EvaluationMode evaluationMode;
+
+    private final int compileThreshold;
+
+    private final SymbolTable symbols;
+
+    private final String[] functionNames;
+
+    private final String[] variableOrder;
+
+    private final List<Function> functionList;
+
+    private final List<Operator> operatorList;
+
+    private final List<String> variableList;
+
+    /** {@code null} unless the structure of the expressions is shared */
+    private final Interner interner;
+
+    private final boolean liftConstants;
+
+    private ExpressionContext(Builder builder) {
+        ExpressionBuilder.checkVariables(builder.variables, builder.functions);
+        functions = Collections.unmodifiableMap(new TreeMap<>(builder.functions));
+        operators = Collections.unmodifiableMap(new TreeMap<>(builder.operators));
+        variables = Collections.unmodifiableSet(new LinkedHashSet<>(builder.variables));
+        useBuiltInFunctions = builder.useBuiltInFunctions;
+        evaluationMode = builder.evaluationMode;
+        compileThreshold = builder.compileThreshold;
+
+        symbols = new SymbolTable(functions, operators, variables);
+        functionNames = functions.keySet().toArray(new String[0]);
+        variableOrder = variables.toArray(new String[0]);
+        functionList = List.copyOf(functions.values());
+        operatorList = List.copyOf(operators.values());
+        variableList = List.copyOf(variables);
+        liftConstants = builder.liftConstants;
+        interner = builder.shareStructure || liftConstants ? new Interner(variableOrder) : null;
+    }
+
+    /**
+     * Creates a builder for a new context.
+     *
+     * @return empty builder (with the built-in functions enabled)
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates an {@link ExpressionBuilder} that starts with the symbols and settings of this
+     * context.
+     *
+     * @param expression the expression to be parsed
+     * @return new builder
+     */
+    public ExpressionBuilder builder(String expression) {
+        return new ExpressionBuilder(expression, this);
+    }
+
+    /**
+     * Builds an expression with the symbols and settings of this context.
+     *
+     * @param expression the expression to be parsed
+     * @return new expression
+     * @see ExpressionBuilder#build()
+     */
+    public Expression build(String expression) {
+        return builder(expression).build();
+    }
+
+    /**
+     * Builds many expressions in parallel (on the common pool), see
+     * {@link #buildAll(List, boolean, ForkJoinPool)}.
+     *
+     * @param expressions expressions to build
+     * @param simplify {@code true} to attempt to simplify constants
+     * @return results and failures of every expression
+     */
+    public BulkBuild buildAll(List<String> expressions, boolean simplify) {
+        return buildAll(expressions, simplify, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds many expressions in parallel, splitting them between the threads of the given
+     * pool. An expression that can't be built doesn't stop the rest, its exception is
+     * collected in the result instead.<br><br>
+     * The expressions are built exactly like {@link ExpressionBuilder#build(boolean)} would.
+     *
+     * @param expressions expressions to build
+     * @param simplify {@code true} to attempt to simplify constants
+     * @param pool pool used to build the expressions
+     * @return results and failures of every expression
+     */
+    public BulkBuild buildAll(List<String> expressions, boolean simplify, ForkJoinPool pool) {
+        final String[] sources = expressions.toArray(new String[0]);
+        final CompiledExpression[] results = new CompiledExpression[sources.length];
+        final RuntimeException[] failures = new RuntimeException[sources.length];
+        final long start = System.nanoTime();
+        pool.invoke(new ParallelBuild(this, sources, simplify, results, failures, 0, sources.length));
+        return new BulkBuild(results, failures, System.nanoTime() - start);
+    }
+
+    /**
+     * Builds the immutable form of an expression, skipping the {@link ExpressionBuilder}.
+     */
+    CompiledExpression compile(String expression, boolean simplify) {
+        if (expression == null || expression.trim().length() == 0) {
+            throw new IllegalArgumentException(l10n("Expression can not be empty"));
+        }
+        return compiled(
+                ShuntingYard.convertToRPN(simplify, expression, symbols, useBuiltInFunctions),
+                functionNames,
+                variableOrder,
+                evaluationMode,
+                compileThreshold
+        );
+    }
+
+    /**
+     * Creates the immutable form of an expression, sharing its structure with the previous
+     * ones if the context was built with {@link Builder#shareStructure()} (or its template if
+     * it was built with {@link Builder#liftConstants()}).
+     */
+    CompiledExpression compiled(Token[] tokens, String[] userFunctionNames, String[] variableOrder,
+                                EvaluationMode mode, int threshold) {
+        if (interner == null) {
+            return new CompiledExpression(tokens, userFunctionNames, variableOrder, mode, threshold);
+        }
+        final Layout layout = liftConstants ? interner.template(tokens, variableOrder)
+                                            : interner.layout(tokens, variableOrder);
+        return new CompiledExpression(
+                layout,
+                liftConstants ? interner.tokens(tokens) : layout.tokens,
+                interner.strings(userFunctionNames),
+                mode,
+                threshold
+        );
+    }
+
+    /**
+     * @return unmodifiable view of the functions by name
+     */
+    public Map<String, Function> getFunctions() {
+        return functions;
+    }
+
+    /**
+     * @return unmodifiable view of the operators by symbol
+     */
+    public Map<String, Operator> getOperators() {
+        return operators;
+    }
+
+    /**
+     * @return unmodifiable view of the variable names (in declaration order)
+     */
+    public Set<String> getVariableNames() {
+        return variables;
+    }
+
+    /**
+     * @return {@code true} if the built-in functions are available
+     */
+    public boolean isUsingBuiltInFunctions() {
+        return useBuiltInFunctions;
+    }
+
+    /**
+     * @return {@code true} if the expressions share their immutable parts
+     * @see Builder#shareStructure()
+     */
+    public boolean isSharingStructure() {
+        return interner != null;
+    }
+
+    /**
+     * @return {@code true} if the constants of the expressions are lifted out of their code
+     * @see Builder#liftConstants()
+     */
+    public boolean isLiftingConstants() {
+        return liftConstants;
+    }
+
+    /**
+     * @return strategy used to evaluate the expressions
+     */
+    public EvaluationMode getEvaluationMode() {
+        return evaluationMode;
+    }
+
+    /**
+     * @return evaluations before compiling a {@link EvaluationMode#TIERED tiered} expression
+     */
+    public int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    SymbolTable symbols() {
+        return symbols;
+    }
+
+    String[] functionNames() {
+        return functionNames;
+    }
+
+    String[] variableOrder() {
+        return variableOrder;
+    }
+
+    List<Function> functionList() {
+        return functionList;
+    }
+
+    List<Operator> operatorList() {
+        return operatorList;
+    }
+
+    List<String> variableList() {
+        return variableList;
+    }
+
+    /**
+     * Collects the symbols and settings of a new {@link ExpressionContext}, its methods behave
+     * just like the ones of {@link ExpressionBuilder}.
+     */
+    public static final class Builder {
+        private final Map<String, Function> functions = new TreeMap<>();
+
+        private final Map<String, Operator> operators = new TreeMap<>();
+
+        private final Set<String> variables = new LinkedHashSet<>();
+
+        private boolean useBuiltInFunctions = true;
+
+        private EvaluationMode evaluationMode = EvaluationMode.INTERPRETED;
+
+        private int compileThreshold = TieredCompiler.DEFAULT_THRESHOLD;
+
+        private boolean shareStructure;
+
+        private boolean liftConstants;
+
+        private Builder() {
+        }
+
+        /**
+         * Makes the expressions of the context share every immutable part that they have in
+         * common (hash-consing): equal constants and symbols become a single token, equal
+         * expressions share their whole program (including the compiled code) and
+         * expressions that only differ in their constants share the program of the
+         * interpreter. The resulting expressions behave exactly like the ones that don't share
+         * anything, but a catalog of similar expressions takes a fraction of the memory.<br><br>
+         * <i><b>Note:</b></i> the context keeps a copy of every distinct program built with it
+         * for as long as it lives, so it isn't meant for expressions that are built once and
+         * discarded.
+         *
+         * @return this builder
+         */
+        public Builder shareStructure() {
+            shareStructure = true;
+            return this;
+        }
+
+        /**
+         * Makes the expressions that only differ in their constants share a template: the
+         * constants are lifted out of the program into a vector of each expression, so
+         * {@code 2x + 3y^2} and {@code 0.5x + 7y^4} share their lowered program and their
+         * compiled code, which is generated only once. Constants can then be replaced without
+         * compiling anything with {@link CompiledExpression#withConstants(double...)}.<br><br>
+         * Templates are kept like the programs of {@link #shareStructure()}, which this method
+         * implies. The compiled code reads the constants from memory instead of embedding them,
+         * so it only pays off when many expressions have the same shape.
+         *
+         * @return this builder
+         */
+        public Builder liftConstants() {
+            liftConstants = true;
+            return this;
+        }
+
+        /**
+         * Removes all the built-in functions
+         * @return this builder
+         * @see ExpressionBuilder#disableBuiltInFunctions()
+         */
+        public Builder disableBuiltInFunctions() {
+            useBuiltInFunctions = false;
+            return this;
+        }
+
+        /**
+         * Sets the strategy that will be used to evaluate the expressions
+         * @param mode evaluation strategy
+         * @return this builder
+         * @see ExpressionBuilder#evaluationMode(EvaluationMode)
+         */
+        public Builder evaluationMode(EvaluationMode mode) {
+            if (mode == null) {
+                throw new IllegalArgumentException(l10n("Evaluation mode can not be null"));
+            }
+            evaluationMode = mode;
+            return this;
+        }
+
+        /**
+         * Sets how many times a tiered expression is interpreted before being compiled
+         * @param threshold number of evaluations before compiling the expression
+         * @return this builder
+         * @see ExpressionBuilder#compileThreshold(int)
+         */
+        public Builder compileThreshold(int threshold) {
+            if (threshold < 1) {
+                throw new IllegalArgumentException(l10n("Compile threshold must be positive"));
+            }
+            compileThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Adds a function
+         * @param function the custom {@link Function} implementation
+         * @return this builder
+         */
+        public Builder function(Function function) {
+            functions.put(function.getName(), function);
+            return this;
+        }
+
+        /**
+         * Adds multiple functions
+         * @param functions the custom {@link Function} implementations
+         * @return this builder
+         */
+        public Builder functions(Function... functions) {
+            for (Function f : functions) {
+                function(f);
+            }
+            return this;
+        }
+
+        /**
+         * Adds multiple functions
+         * @param functions the custom {@link Function} implementations
+         * @return this builder
+         */
+        public Builder functions(List<Function> functions) {
+            for (Function f : functions) {
+                function(f);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a variable
+         * @param variableName variable to use
+         * @return this builder
+         * @throws IllegalArgumentException if the variable name contains spaces or
+         * operator characters
+         */
+        public Builder variable(String variableName) {
+            ExpressionBuilder.checkVariableName(variableName);
+            variables.add(variableName);
+            return this;
+        }
+
+        /**
+         * Adds multiple variables, in the order expected by
+         * {@link Expression#setVariables(double[])}
+         * @param variableNames variables to use
+         * @return this builder
+         * @throws IllegalArgumentException if a variable name contains spaces or
+         * operator characters
+         */
+        public Builder variables(String... variableNames) {
+            for (String v : variableNames) {
+                variable(v);
+            }
+            return this;
+        }
+
+        /**
+         * Adds multiple variables, in the order expected by
+         * {@link Expression#setVariables(double[])}
+         * @param variableNames variables to use
+         * @return this builder
+         * @throws IllegalArgumentException if a variable name contains spaces or
+         * operator characters
+         */
+        public Builder variables(Set<String> variableNames) {
+            for (String v : variableNames) {
+                variable(v);
+            }
+            return this;
+        }
+
+        /**
+         * Adds an operator
+         * @param operator the custom {@link Operator} to add
+         * @return this builder
+         */
+        public Builder operator(Operator operator) {
+            ExpressionBuilder.checkOperatorSymbol(operator);
+            operators.put(operator.getSymbol(), operator);
+            return this;
+        }
+
+        /**
+         * Adds multiple operators
+         * @param operators the custom {@link Operator} implementations to add
+         * @return this builder
+         */
+        public Builder operators(Operator... operators) {
+            for (Operator o : operators) {
+                operator(o);
+            }
+            return this;
+        }
+
+        /**
+         * Adds multiple operators
+         * @param operators the custom {@link Operator} implementations to add
+         * @return this builder
+         */
+        public Builder operators(List<Operator> operators) {
+            for (Operator o : operators) {
+                operator(o);
+            }
+            return this;
+        }
+
+        /**
+         * Validates and indexes the symbols
+         * @return new context, this builder can keep being used to create others
+         * @throws IllegalArgumentException if a variable has the same name as a function
+         */
+        public ExpressionContext build() {
+            return new ExpressionContext(this);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Read only repository of compiled expressions stored in a memory-mapped file.<br><br>
+ * The expressions are kept in the {@link ExpressionCodec binary format} and only decoded the
+ * first time they are requested; the most recently used ones are kept in a bounded cache. The
+ * index is a sorted table inside the same file, so opening a store only reads its header no
+ * matter how many expressions it has, and the catalog costs no heap until it's used.
+ *
+ * <pre>
+ * try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+ *     w.add("tenant-1", ctx.build("x * 1.21").getCompiledExpression());
+ * }
+ * try (ExpressionStore store = ExpressionStore.open(path, ctx, 10_000)) {
+ *     final Expression e = store.getExpression("tenant-1");
+ * }
+ * </pre>
+ *
+ * The file layout (big endian) is a header ({@code 'e' '4' 'j' 's'}, version, number of
+ * expressions and offset of the index), the records (number of chars of the key, the chars and
+ * the encoded expression) and the index: one {@code long} per expression holding the hash of
+ * the key in the upper half and the offset of its record in the lower half, sorted. Since the
+ * offsets are 32 bit, a store can't be larger than 2GB.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class ExpressionStore implements Closeable {
+    /** Current version of the layout */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 'e' << 24 | '4' << 16 | 'j' << 8 | 's';
+
+    /** Magic, version, count and offset of the index */
+    private static final int HEADER = 20;
+
+    private final FileChannel channel;
+
+    private final ExpressionContext context;
+
+    private final int count;
+
+    private final int index;
+
+    private volatile ByteBuffer data;
+
+    private final LruCache<String, CompiledExpression> cache;
+
+    private ExpressionStore(FileChannel channel, ExpressionContext context, int maximumSize)
+            throws IOException {
+        cache = new LruCache<>(maximumSize);
+        this.channel = channel;
+        this.context = context;
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(l10n("The store is too large"));
+        }
+        data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                      .order(ByteOrder.BIG_ENDIAN);
+        if (data.limit() < HEADER || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(l10n("Not an expression store"));
+        }
+        final int version = data.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException(l10n("Unsupported store version %d", version));
+        }
+        count = data.getInt(8);
+        index = (int) data.getLong(12);
+        if (count < 0 || index < HEADER || (long) index + 8L * count != data.limit()) {
+            throw new IllegalArgumentException(l10n("Not an expression store"));
+        }
+    }
+
+    /**
+     * Opens an existing store.
+     *
+     * @param path file of the store
+     * @param context context used to resolve the user functions and operators of the
+     * expressions (can be {@code null} if there are none)
+     * @param cacheSize maximum number of decoded expressions kept in memory
+     * @return the store, which must be closed
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file isn't a valid store or if {@code cacheSize}
+     * isn't positive
+     */
+    public static ExpressionStore open(Path path, ExpressionContext context, int cacheSize)
+            throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ExpressionStore(channel, context, cacheSize);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates a new store (replacing the file if it exists).
+     *
+     * @param path file of the store
+     * @return writer that must be closed to complete the store
+     * @throws IOException if the file can't be written
+     */
+    public static Writer create(Path path) throws IOException {
+        return new Writer(FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        ));
+    }
+
+    /**
+     * Retrieves an expression, decoding it if it isn't cached.
+     *
+     * @param key key of the expression
+     * @return immutable expression or {@code null} if there's no expression with that key
+     * @throws IllegalArgumentException if a user function or operator of the expression isn't
+     * defined in the context or if the store is damaged
+     * @throws IllegalStateException if the store was closed
+     */
+    public CompiledExpression get(String key) {
+        final CompiledExpression cached = cache.get(key);
+        if (cached != null) {
+            cache.hit();
+            return cached;
+        }
+        final ByteBuffer buffer = buffer();
+        final int record = find(buffer, key);
+        if (record < 0) {
+            return null;
+        }
+        cache.miss();
+        //Decoding is cheap, so concurrent misses of the same key just race to cache it
+        final CompiledExpression exp = ExpressionCodec.read(
+                buffer.duplicate().position(record + 4 + 2 * key.length()), context
+        );
+        final CompiledExpression previous = cache.putIfAbsent(key, exp);
+        return previous != null ? previous : exp;
+    }
+
+    /**
+     * Retrieves an expression, see {@link #get(String)}.
+     *
+     * @param key key of the expression
+     * @return new expression (with its own variables) or {@code null} if there's no expression
+     * with that key
+     */
+    public Expression getExpression(String key) {
+        final CompiledExpression exp = get(key);
+        return exp == null ? null : new Expression(exp);
+    }
+
+    /**
+     * @param key key of the expression
+     * @return {@code true} if the store has an expression with that key
+     * @throws IllegalArgumentException if the store is damaged
+     * @throws IllegalStateException if the store was closed
+     */
+    public boolean contains(String key) {
+        return find(buffer(), key) >= 0;
+    }
+
+    /**
+     * @return number of expressions in the store
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Retrieves the current statistics of the cache of decoded expressions.
+     *
+     * @return snapshot of the statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        data = null;
+        cache.clear();
+        channel.close();
+    }
+
+    private ByteBuffer buffer() {
+        final ByteBuffer buffer = data;
+        if (buffer == null) {
+            throw new IllegalStateException(l10n("The store is closed"));
+        }
+        return buffer;
+    }
+
+    /**
+     * @return offset of the record of the key or {@code -1} if it isn't in the store
+     */
+    private int find(ByteBuffer buffer, String key) {
+        final int hash = hash(key);
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int h = (int) (buffer.getLong(index + 8 * mid) >> 32);
+            if (h < hash) {
+                lo = mid + 1;
+            } else if (h > hash) {
+                hi = mid - 1;
+            } else {
+                //Check every key with the same hash, they are next to each other
+                int first = mid;
+                while (first > 0 && (int) (buffer.getLong(index + 8 * (first - 1)) >> 32) == hash) {
+                    first--;
+                }
+                for (int i = first; i < count; i++) {
+                    final long entry = buffer.getLong(index + 8 * i);
+                    if ((int) (entry >> 32) != hash) {
+                        break;
+                    }
+                    if (matches(buffer, (int) entry, key)) {
+                        return (int) entry;
+                    }
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the record isn't inside the store
+     */
+    private boolean matches(ByteBuffer buffer, int record, String key) {
+        if (record < HEADER || record > index - 4) {
+            throw new IllegalArgumentException(l10n("The store is damaged"));
+        }
+        if (buffer.getInt(record) != key.length()) {
+            return false;
+        }
+        if (2L * key.length() > index - record - 4) {
+            throw new IllegalArgumentException(l10n("The store is damaged"));
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (buffer.getChar(record + 4 + 2 * i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** FNV-1a over the chars of the key, it must never change since it's part of the layout */
+    static int hash(String key) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x01000193;
+        }
+        return h;
+    }
+
+    /**
+     * Writes the expressions of a new {@link ExpressionStore}, the store is completed when the
+     * writer is closed. Not thread safe.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        private final Set<String> keys = new HashSet<>();
+
+        private long[] entries = new long[1024];
+
+        private int count;
+
+        private long position = HEADER;
+
+        private Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER);
+        }
+
+        /**
+         * Adds an expression.
+         *
+         * @param key key of the expression
+         * @param expression expression to store
+         * @return this writer
+         * @throws IOException if the file can't be written
+         * @throws IllegalArgumentException if there's already an expression with that key or
+         * if the store would be larger than 2GB
+         */
+        public Writer add(String key, CompiledExpression expression) throws IOException {
+            if (!keys.add(key)) {
+                throw new IllegalArgumentException(l10n("Duplicate key '%s'", key));
+            }
+            final byte[] bytes = ExpressionCodec.toBytes(expression);
+            final long size = 4L + 2L * key.length() + bytes.length;
+            if (position + size + 8L * (count + 1) > Integer.MAX_VALUE) {
+                keys.remove(key);
+                throw new IllegalArgumentException(l10n("The store is too large"));
+            }
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            entries[count++] = (long) hash(key) << 32 | position;
+
+            put(ByteBuffer.allocate(4).putInt(0, key.length()));
+            for (int i = 0; i < key.length(); i += 4096) {
+                final String chunk = key.substring(i, Math.min(key.length(), i + 4096));
+                final ByteBuffer chars = ByteBuffer.allocate(2 * chunk.length());
+                chars.asCharBuffer().put(chunk);
+                put(chars);
+            }
+            put(ByteBuffer.wrap(bytes));
+            position += size;
+            return this;
+        }
+
+        private void put(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                final int n = Math.min(buffer.remaining(), src.remaining());
+                buffer.put(buffer.position(), src, src.position(), n);
+                buffer.position(buffer.position() + n);
+                src.position(src.position() + n);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the index and the header, completing the store.
+         *
+         * @throws IOException if the file can't be written
+         */
+        @Override
+        public void close() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                //Sorted by hash, the lower half is the offset so ties keep the insertion order
+                Arrays.sort(entries, 0, count);
+                final ByteBuffer entry = ByteBuffer.allocate(8);
+                for (int i = 0; i < count; i++) {
+                    put(entry.putLong(0, entries[i]).clear());
+                }
+                flush();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(count)
+                        .putLong(position)
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import static net.objecthunter.exp4j.tokenizer.TokenType.NUMBER;
+
+/**
+ * Hash-consing tables of an {@link ExpressionContext} built with
+ * {@link ExpressionContext.Builder#shareStructure()}.<br><br>
+ * Every part of an expression that is immutable is replaced by an equal one that was seen
+ * before: constants, variables, functions and operators become a single token each, equal
+ * programs share their tokens and {@link Layout}, and programs that only differ in their
+ * constants share their lowered code (or their whole layout if the constants are lifted, see
+ * {@link #template(Token[], String[])}). Structure is shared by identity, so once the leaves are
+ * interned two token arrays are equal if their elements are the same objects.<br><br>
+ * The tables only grow, they live as long as the context. Thread safe.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class Interner {
+    private final Map<Long, NumberToken> numbers = new ConcurrentHashMap<>();
+
+    private final Map<String, VariableToken> variables = new ConcurrentHashMap<>();
+
+    private final Map<Identity, Token> symbols = new ConcurrentHashMap<>();
+
+    private final Map<Shape, Layout> layouts = new ConcurrentHashMap<>();
+
+    private final Map<Program, OpcodeProgram> programs = new ConcurrentHashMap<>();
+
+    private final Map<Ints, int[]> ints = new ConcurrentHashMap<>();
+
+    private final Map<Doubles, double[]> doubles = new ConcurrentHashMap<>();
+
+    private final Map<Booleans, boolean[]> booleans = new ConcurrentHashMap<>();
+
+    private final Map<Refs, Object[]> refs = new ConcurrentHashMap<>();
+
+    private final Map<Strings, String[]> strings = new ConcurrentHashMap<>();
+
+    /**
+     * @param variableOrder variables of the context, expressions with the same variables will
+     * share this array (so their {@link VariableHandle handles} are interchangeable)
+     */
+    Interner(String[] variableOrder) {
+        strings(variableOrder);
+    }
+
+    /**
+     * Retrieves the layout of a program, creating (and keeping) it if it's the first time the
+     * program is seen.
+     *
+     * @param tokens RPN of the expression, it's left untouched
+     * @param variableOrder declared variables
+     * @return shared layout
+     */
+    Layout layout(Token[] tokens, String[] variableOrder) {
+        return layout(tokens(tokens), variableOrder, 0);
+    }
+
+    /**
+     * Retrieves the layout shared by every program with the same structure, i.e. the same
+     * program once its constants are replaced by {@link Layout#parameter(int) parameters}.
+     *
+     * @param tokens RPN of the expression, it's left untouched
+     * @param variableOrder declared variables
+     * @return shared template layout
+     */
+    Layout template(Token[] tokens, String[] variableOrder) {
+        final Token[] lifted = new Token[tokens.length];
+        int parameters = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            lifted[i] = tokens[i].getType() == NUMBER
+                    ? token(new VariableToken(Layout.parameter(parameters++)))
+                    : token(tokens[i]);
+        }
+        return layout(lifted, variableOrder, parameters);
+    }
+
+    /**
+     * @param tokens RPN of an expression, it's left untouched
+     * @return copy of the tokens, each one replaced by the first equal token seen
+     */
+    Token[] tokens(Token[] tokens) {
+        final Token[] interned = new Token[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            interned[i] = token(tokens[i]);
+        }
+        return interned;
+    }
+
+    /** The tokens must already be interned */
+    private Layout layout(Token[] interned, String[] variableOrder, int parameters) {
+        final Shape shape = new Shape(interned, strings(variableOrder));
+        final Layout layout = layouts.get(shape);
+        if (layout != null) {
+            return layout;
+        }
+        //Two threads may build the same layout, only the first one is kept
+        final Layout created = new Layout(shape.tokens, shape.variableOrder, parameters, this);
+        final Layout previous = layouts.putIfAbsent(shape, created);
+        return previous == null ? created : previous;
+    }
+
+    /**
+     * @return number of distinct programs (or templates)
+     */
+    int size() {
+        return layouts.size();
+    }
+
+    private Token token(Token t) {
+        return switch (t.getType()) {
+            case NUMBER   -> {
+                final NumberToken n = (NumberToken) t;
+                final Token previous = numbers.putIfAbsent(
+                        Double.doubleToRawLongBits(n.getValue()), n
+                );
+                yield previous == null ? n : previous;
+            }
+            case VARIABLE -> {
+                final VariableToken v = (VariableToken) t;
+                final Token previous = variables.putIfAbsent(v.getName(), v);
+                yield previous == null ? v : previous;
+            }
+            case FUNCTION -> symbol(((FunctionToken) t).getFunction(), t);
+            case OPERATOR -> symbol(((OperatorToken) t).getOperator(), t);
+            default       -> t;
+        };
+    }
+
+    private Token symbol(Object symbol, Token t) {
+        final Token previous = symbols.putIfAbsent(new Identity(symbol), t);
+        return previous == null ? t : previous;
+    }
+
+    OpcodeProgram program(OpcodeProgram program) {
+        final Program key = new Program(
+                ints(program.code),
+                intern(doubles, new Doubles(program.constants)),
+                intern(refs, new Refs(program.refs))
+        );
+        final OpcodeProgram previous = programs.get(key);
+        if (previous != null) {
+            return previous;
+        }
+        final OpcodeProgram created = new OpcodeProgram(key.code, key.constants, key.refs);
+        final OpcodeProgram raced = programs.putIfAbsent(key, created);
+        return raced == null ? created : raced;
+    }
+
+    int[] ints(int[] array) {
+        return intern(ints, new Ints(array));
+    }
+
+    String[] strings(String[] array) {
+        return intern(strings, new Strings(array));
+    }
+
+    boolean[] booleans(boolean[] array) {
+        return intern(booleans, new Booleans(array));
+    }
+
+    private static <K extends Wrapper<A>, A> A intern(Map<K, A> table, K key) {
+        final A previous = table.putIfAbsent(key, key.array());
+        return previous == null ? key.array() : previous;
+    }
+
+    private interface Wrapper<A> {
+        A array();
+    }
+
+    private record Ints(int[] array) implements Wrapper<int[]> {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Ints i && Arrays.equals(array, i.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(array);
+        }
+    }
+
+    /** Compares the bits, so {@code -0.0} and {@code 0.0} are different constants */
+    private record Doubles(double[] array) implements Wrapper<double[]> {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Doubles d && Arrays.equals(array, d.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(array);
+        }
+    }
+
+    private record Booleans(boolean[] array) implements Wrapper<boolean[]> {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Booleans b && Arrays.equals(array, b.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(array);
+        }
+    }
+
+    private record Strings(String[] array) implements Wrapper<String[]> {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Strings s && Arrays.equals(array, s.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(array);
+        }
+    }
+
+    /** Functions and operators are compared by identity, whatever their {@code equals} says */
+    private record Refs(Object[] array) implements Wrapper<Object[]> {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Refs r && same(array, r.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return identityHash(array);
+        }
+    }
+
+    private record Identity(Object ref) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity i && ref == i.ref;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(ref);
+        }
+    }
+
+    /** Tokens must already be interned, and the variable order too */
+    private record Shape(Token[] tokens, String[] variableOrder) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Shape s && variableOrder == s.variableOrder &&
+                   same(tokens, s.tokens);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * identityHash(tokens) + System.identityHashCode(variableOrder);
+        }
+    }
+
+    /** Arrays must already be interned */
+    private record Program(int[] code, double[] constants, Object[] refs) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Program p && code == p.code && constants == p.constants &&
+                   refs == p.refs;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(code) * 961 +
+                   System.identityHashCode(constants) * 31 +
+                   System.identityHashCode(refs);
+        }
+    }
+
+    private static boolean same(Object[] a, Object[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int identityHash(Object[] array) {
+        int h = 1;
+        for (Object o : array) {
+            h = 31 * h + System.identityHashCode(o);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.SourceVersion;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+
+import static net.objecthunter.exp4j.BytecodeCompiler.isBuiltin;
+import static net.objecthunter.exp4j.BytecodeCompiler.isValid;
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Translates expressions into Java source code, so formulas that are known at build time don't
+ * need to be parsed (or compiled) at runtime.<br><br>
+ * The generated class implements {@link Evaluator}, with the variables indexed like in
+ * {@link Expression#setVariables(double[])}. Built-in operators and functions become plain
+ * arithmetic and {@link Math} calls, so the JIT can inline the whole formula. User functions
+ * and operators are looked up by name in the {@link ExpressionContext} passed to the
+ * constructor of the generated class (classes that don't use any have a no arguments
+ * constructor instead):
+ *
+ * <pre>
+ * final String source = JavaSourceGenerator.generate("com.acme.Price", "price * 1.21 + tax", ctx);
+ * //After compiling it
+ * final Evaluator price = new com.acme.Price();
+ * final double res = price.evaluate(new double[]{100, 5});
+ * </pre>
+ *
+ * The results are exactly the same as the ones of {@link EvaluationMode#BYTECODE} expressions.
+ * The generator is meant to run while building (see
+ * {@link net.objecthunter.exp4j.codegen.FormulaProcessor}), but nothing prevents using it from
+ * any other tool.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class JavaSourceGenerator {
+    private static final String FUNCTION = "net.objecthunter.exp4j.function.Function";
+
+    private static final String OPERATOR = "net.objecthunter.exp4j.operator.Operator";
+
+    private static final String CONTEXT = "net.objecthunter.exp4j.ExpressionContext";
+
+    private static final String TEXT = "net.objecthunter.exp4j.utils.Text";
+
+    private static final String FUNCTIONS = "net.objecthunter.exp4j.function.Functions.";
+
+    private static final String OPERATORS = "net.objecthunter.exp4j.operator.Operators.";
+
+    /** Qualified, the generated class could be called {@code Math} */
+    private static final String MATH = "java.lang.Math.";
+
+    private JavaSourceGenerator() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Generates the source of a class that evaluates an expression. The expression is
+     * simplified, just like {@link ExpressionBuilder#build(boolean) build(true)} would.
+     *
+     * @param className fully qualified name of the generated class
+     * @param expression expression to translate
+     * @param context symbols of the expression
+     * @return source code of the class
+     * @throws IllegalArgumentException if the class name or the expression aren't valid
+     */
+    public static String generate(String className, String expression, ExpressionContext context) {
+        return generate(className, context.compile(expression, true), expression);
+    }
+
+    /**
+     * Generates the source of a class that evaluates an expression.
+     *
+     * @param className fully qualified name of the generated class
+     * @param expression expression to translate
+     * @return source code of the class
+     * @throws IllegalArgumentException if the class name or the expression aren't valid
+     */
+    public static String generate(String className, CompiledExpression expression) {
+        return generate(className, expression, null);
+    }
+
+    private static String generate(String className, CompiledExpression expression,
+                                   String source) {
+        if (className == null || !SourceVersion.isName(className)) {
+            throw new IllegalArgumentException(l10n("Invalid class name '%s'", className));
+        }
+        final Token[] tokens = expression.tokens();
+        if (!isValid(tokens)) {
+            throw new IllegalArgumentException(l10n("Invalid number of operands available"));
+        }
+        final Translation t = new Translation();
+        final String body = t.translate(expression);
+
+        final int dot = className.lastIndexOf('.');
+        final String simpleName = className.substring(dot + 1);
+        final StringBuilder sb = new StringBuilder(1024);
+        if (dot > 0) {
+            sb.append("package ").append(className, 0, dot).append(";\n\n");
+        }
+        sb.append("/**\n * Generated by exp4j");
+        if (source != null) {
+            sb.append(" from:\n * <pre>").append(javadoc(source)).append("</pre>\n * Do not edit.");
+        } else {
+            sb.append(", do not edit.");
+        }
+        sb.append("\n */\n");
+        sb.append("public final class ").append(simpleName)
+          .append(" implements net.objecthunter.exp4j.Evaluator {\n");
+        if (source != null) {
+            sb.append("    /** Expression this class was generated from */\n");
+            sb.append("    public static final String EXPRESSION = ")
+              .append(literal(source))
+              .append(";\n\n");
+        }
+        sb.append("    /** Variables of the expression, in the order expected by ")
+          .append("{@link #evaluate} */\n");
+        sb.append("    public static final java.util.List<String> VARIABLES = java.util.List.of(");
+        final String[] variables = expression.variableOrder();
+        for (int i = 0; i < variables.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(literal(variables[i]));
+        }
+        sb.append(");\n");
+
+        for (int i = 0; i < t.functions.size(); i++) {
+            sb.append("\n    private final ").append(FUNCTION).append(" f").append(i).append(";\n");
+        }
+        for (int i = 0; i < t.operators.size(); i++) {
+            sb.append("\n    private final ").append(OPERATOR).append(" o").append(i).append(";\n");
+        }
+        if (!t.functions.isEmpty() || !t.operators.isEmpty()) {
+            sb.append("\n    /**\n");
+            sb.append("     * @param context context with the user functions and operators\n");
+            sb.append("     * @throws IllegalArgumentException if one of them isn't defined\n");
+            sb.append("     */\n");
+            sb.append("    public ").append(simpleName)
+              .append("(").append(CONTEXT).append(" context) {\n");
+            for (int i = 0; i < t.functions.size(); i++) {
+                final Function f = t.functions.get(i);
+                sb.append("        f").append(i).append(" = function(context, ")
+                  .append(literal(f.getName())).append(", ")
+                  .append(f.getNumArguments()).append(");\n");
+            }
+            for (int i = 0; i < t.operators.size(); i++) {
+                final Operator o = t.operators.get(i);
+                sb.append("        o").append(i).append(" = operator(context, ")
+                  .append(literal(o.getSymbol())).append(", ")
+                  .append(o.getNumOperands()).append(");\n");
+            }
+            sb.append("    }\n");
+        }
+
+        sb.append("\n    @Override\n    public double evaluate(double[] v) {\n");
+        sb.append("        return ").append(body).append(";\n    }\n");
+        support(sb, t);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /** Helpers of the generated class, only the ones it uses */
+    private static void support(StringBuilder sb, Translation t) {
+        if (!t.functions.isEmpty()) {
+            sb.append("""
+
+                        private static %1$s function(%2$s context, String name, int n) {
+                            final %1$s f = context.getFunctions().get(name);
+                            if (f == null || f.getNumArguments() != n) {
+                                throw new IllegalArgumentException(%3$s.l10n(
+                                        "Function '%%s' isn't defined in the context", name
+                                ));
+                            }
+                            return f;
+                        }
+                    """.formatted(FUNCTION, CONTEXT, TEXT));
+        }
+        if (!t.operators.isEmpty()) {
+            sb.append("""
+
+                        private static %1$s operator(%2$s context, String symbol, int n) {
+                            final %1$s o = context.getOperators().get(symbol);
+                            if (o == null || o.getNumOperands() != n) {
+                                throw new IllegalArgumentException(%3$s.l10n(
+                                        "Operator '%%s' isn't defined in the context", symbol
+                                ));
+                            }
+                            return o;
+                        }
+                    """.formatted(OPERATOR, CONTEXT, TEXT));
+        }
+        if (t.divide) {
+            sb.append("""
+
+                        private static double divide(double a, double b) {
+                            if (b == 0d) {
+                                throw new ArithmeticException(%s.l10n("Division by zero!"));
+                            }
+                            return a / b;
+                        }
+                    """.formatted(TEXT));
+        }
+        if (t.modulo) {
+            sb.append("""
+
+                        private static double modulo(double a, double b) {
+                            if (b == 0d) {
+                                throw new ArithmeticException(%s.l10n("Division by zero!"));
+                            }
+                            return a %% b;
+                        }
+                    """.formatted(TEXT));
+        }
+        if (t.bool) {
+            sb.append("""
+
+                        private static boolean bool(double a) {
+                            return java.lang.Math.abs(a) >= %s.BOOLEAN_THRESHOLD;
+                        }
+                    """.formatted(OPERATOR));
+        }
+        if (t.signum) {
+            sb.append("""
+
+                        private static double signum(double a) {
+                            return a > 0 ? 1 : a < 0 ? -1 : 0;
+                        }
+                    """);
+        }
+    }
+
+    /** Java literal of a string */
+    private static String literal(String s) {
+        final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default   -> {
+                    if (c < 0x20 || c > 0x7E) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** The expression as javadoc text, the compiler reads unicode escapes even in comments */
+    private static String javadoc(String s) {
+        final StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            final boolean closing = c == '/' && i > 0 && s.charAt(i - 1) == '*';
+            if (c == '&' || c == '<' || c == '>' || c == '\\' || c == '@' || closing ||
+                    c == '{' || c == '}' || c < 0x20 || c > 0x7E) {
+                sb.append("&#").append((int) c).append(';');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Java literal of a double, parenthesized if it's negative */
+    private static String literal(double value) {
+        if (Double.isNaN(value)) {
+            return "java.lang.Double.NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "java.lang.Double.POSITIVE_INFINITY"
+                             : "java.lang.Double.NEGATIVE_INFINITY";
+        }
+        final String s = Double.toString(value);
+        return s.charAt(0) == '-' ? "(" + s + ")" : s;
+    }
+
+    /** Turns the RPN into a single Java expression, every operation is parenthesized */
+    private static final class Translation {
+        final List<Function> functions = new ArrayList<>(4);
+        final List<Operator> operators = new ArrayList<>(4);
+        boolean divide;
+        boolean modulo;
+        boolean bool;
+        boolean signum;
+
+        String translate(CompiledExpression expression) {
+            final Token[] tokens = expression.tokens();
+            final String[] stack = new String[tokens.length];
+            int sp = -1;
+            for (int i = 0; i < tokens.length; i++) {
+                final Token t = tokens[i];
+                switch (t.getType()) {
+                    case NUMBER   -> stack[++sp] = literal(((NumberToken) t).getValue());
+                    case VARIABLE -> stack[++sp] = "v[" + expression.slotAt(i) + "]";
+                    case OPERATOR -> {
+                        final Operator op = ((OperatorToken) t).getOperator();
+                        if (op.getNumOperands() == 2) {
+                            sp--;
+                            stack[sp] = binary(op, stack[sp], stack[sp + 1]);
+                        } else {
+                            stack[sp] = unary(op, stack[sp]);
+                        }
+                    }
+                    case FUNCTION -> {
+                        final Function func = ((FunctionToken) t).getFunction();
+                        final int n = func.getNumArguments();
+                        final String[] args = new String[n];
+                        System.arraycopy(stack, sp - n + 1, args, 0, n);
+                        sp -= n - 1;
+                        stack[sp] = function(func, args);
+                    }
+                    default -> {
+                        //Do nothing
+                    }
+                }
+            }
+            return stack[0];
+        }
+
+        private String binary(Operator op, String a, String b) {
+            if (!isBuiltin(op)) {
+                final String shared = builtin(op);
+                return (shared == null ? "o" + index(operators, op) : shared) +
+                       ".apply(" + a + ", " + b + ")";
+            }
+            return switch (op.getSymbol().charAt(0)) {
+                case '+' -> "(" + a + " + " + b + ")";
+                case '-' -> "(" + a + " - " + b + ")";
+                case '*' -> "(" + a + " * " + b + ")";
+                case '/' -> {
+                    divide = true;
+                    yield "divide(" + a + ", " + b + ")";
+                }
+                case '%' -> {
+                    modulo = true;
+                    yield "modulo(" + a + ", " + b + ")";
+                }
+                case '^' -> MATH + "pow(" + a + ", " + b + ")";
+                case '&' -> {
+                    bool = true;
+                    //Both sides are always evaluated, like in the interpreter
+                    yield "((bool(" + a + ") & bool(" + b + ")) ? 1d : 0d)";
+                }
+                case '|' -> {
+                    bool = true;
+                    yield "((bool(" + a + ") | bool(" + b + ")) ? 1d : 0d)";
+                }
+                default  -> builtin(op) + ".apply(" + a + ", " + b + ")";
+            };
+        }
+
+        private String unary(Operator op, String a) {
+            if (!isBuiltin(op)) {
+                final String shared = builtin(op);
+                return (shared == null ? "o" + index(operators, op) : shared) +
+                       ".apply(" + a + ")";
+            }
+            return switch (op.getSymbol().charAt(0)) {
+                case '+' -> a;
+                case '-' -> "(-" + a + ")";
+                case '¬' -> {
+                    bool = true;
+                    yield "(bool(" + a + ") ? 0d : 1d)";
+                }
+                default  -> builtin(op) + ".apply(" + a + ")";
+            };
+        }
+
+        /**
+         * Expression that retrieves a built-in operator, the factorial is only returned when
+         * asking for a binary {@code '!'}. Returns {@code null} for user operators.
+         */
+        private static String builtin(Operator op) {
+            final String symbol = op.getSymbol();
+            if (symbol.length() != 1) {
+                return null;
+            }
+            for (int n = 1; n <= 2; n++) {
+                if (Operators.getBuiltinOperator(symbol.charAt(0), n) == op) {
+                    return OPERATORS + "getBuiltinOperator('\\u" +
+                           String.format("%04x", (int) symbol.charAt(0)) + "', " + n + ")";
+                }
+            }
+            return null;
+        }
+
+        private String function(Function func, String[] args) {
+            if (isBuiltin(func)) {
+                final String name = func.getName();
+                switch (name) {
+                    case "sin", "cos", "tan", "asin", "acos", "atan", "sinh", "cosh", "tanh",
+                         "abs", "log", "log10", "log1p", "ceil", "floor", "sqrt", "cbrt",
+                         "exp", "expm1", "pow" -> {
+                        return MATH + name + "(" + String.join(", ", args) + ")";
+                    }
+                    case "log2"   -> {
+                        return "(" + MATH + "log(" + args[0] + ") / " + MATH + "log(2d))";
+                    }
+                    case "signum" -> {
+                        signum = true;
+                        return "signum(" + args[0] + ")";
+                    }
+                    case "pi"     -> {
+                        return MATH + "PI";
+                    }
+                    case "e"      -> {
+                        return MATH + "E";
+                    }
+                    default       -> {
+                        //Not in the context, so it's called through the shared instance
+                        return call(
+                                FUNCTIONS + "getBuiltinFunction(" + literal(name) + ")", args
+                        );
+                    }
+                }
+            }
+            return call("f" + index(functions, func), args);
+        }
+
+        private static String call(String f, String[] args) {
+            if (args.length >= 1 && args.length <= Arity.MAX) {
+                return f + ".apply(" + String.join(", ", args) + ")";
+            }
+            return f + ".apply(new double[]{" + String.join(", ", args) + "})";
+        }
+
+        private static <T> int index(List<T> list, T element) {
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) == element) {
+                    return i;
+                }
+            }
+            list.add(element);
+            return list.size() - 1;
+        }
+    }
+}
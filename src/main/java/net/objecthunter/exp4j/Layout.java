@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+/**
+ * Everything that is derived from the tokens of a {@link CompiledExpression} and its variable
+ * order: the slot of each variable, the size of the scratch space, the common subexpressions,
+ * the lowered program and the compiled code. None of it depends on how the expression is
+ * evaluated, so every expression with the same program can share a single layout (see
+ * {@link Interner}).<br><br>
+ * The constants of a template layout are parameters: each one is read from the slot that
+ * follows the declared variables (see {@link #parameter(int)}) instead of being part of the
+ * code, so expressions that only differ in their constants can share it too.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class Layout {
+    final Token[] tokens;
+
+    final String[] variableOrder;
+
+    /** Number of lifted constants, {@code 0} unless this is a template */
+    final int parameters;
+
+    /** Slot of every variable used by the expression */
+    final Map<String, Integer> index;
+
+    final Set<String> names;
+
+    /** Slot of each token ({@code -1} if it isn't a variable) */
+    final int[] slots;
+
+    /** Slots of the variables used by the expression, sorted by name */
+    final int[] used;
+
+    final boolean[] specialized;
+
+    final int maxDepth;
+
+    final int maxArgs;
+
+    final boolean valid;
+
+    /** Common subexpressions or {@code null} if there aren't any */
+    final Subexpressions subexpressions;
+
+    /** Number of temporary slots, after the variables and the parameters */
+    final int temps;
+
+    /** Program of the interpreter or {@code null} if the expression isn't valid */
+    final OpcodeProgram opcodes;
+
+    private Evaluator bytecode;
+
+    private Evaluator tree;
+
+    Layout(Token[] tokens, String[] variableOrder, Interner interner) {
+        this(tokens, variableOrder, 0, interner);
+    }
+
+    /**
+     * @param tokens RPN of the expression, with the lifted constants replaced by
+     * {@link #parameter(int) parameters}
+     * @param variableOrder declared variables
+     * @param parameters number of lifted constants
+     * @param interner tables used to share the derived arrays or {@code null}
+     */
+    Layout(Token[] tokens, String[] variableOrder, int parameters, Interner interner) {
+        this.tokens = tokens;
+        this.variableOrder = variableOrder;
+        this.parameters = parameters;
+        final Map<String, Integer> order = slotsByName();
+
+        final Map<String, Integer> index = new HashMap<>(variableOrder.length * 2);
+        final int[] slots = new int[tokens.length];
+        final boolean[] specialized = new boolean[tokens.length];
+        int depth = 0;
+        int maxDepth = 1;
+        int maxArgs = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            final Token t = tokens[i];
+            slots[i] = -1;
+            switch (t.getType()) {
+                case NUMBER   -> depth++;
+                case VARIABLE -> {
+                    final String name = ((VariableToken) t).getName();
+                    slots[i] = order.get(name);
+                    if (slots[i] < variableOrder.length) {
+                        index.put(name, slots[i]);
+                    }
+                    depth++;
+                }
+                case OPERATOR -> {
+                    final Operator op = ((OperatorToken) t).getOperator();
+                    final int n = op.getNumOperands();
+                    if (n == 1 || n == 2) {
+                        depth -= n - 1;
+                        maxArgs = Math.max(maxArgs, n);
+                    }
+                    specialized[i] = Arity.isSpecialized(op);
+                }
+                case FUNCTION -> {
+                    final Function func = ((FunctionToken) t).getFunction();
+                    final int n = func.getNumArguments();
+                    depth -= n - 1;
+                    maxArgs = Math.max(maxArgs, n);
+                    specialized[i] = Arity.isSpecialized(func);
+                }
+                default -> {
+                    //Do nothing
+                }
+            }
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        this.maxDepth = maxDepth;
+        this.maxArgs = maxArgs;
+        this.index = index;
+
+        names = Collections.unmodifiableSet(new TreeSet<>(index.keySet()));
+        final int[] used = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            used[i++] = index.get(name);
+        }
+
+        valid = BytecodeCompiler.isValid(tokens);
+        subexpressions = valid ? Subexpressions.find(
+                tokens, slots, variableOrder.length + parameters
+        ) : null;
+        temps = subexpressions == null ? 0 : subexpressions.count;
+        final OpcodeProgram opcodes = OpcodeProgram.lower(
+                tokens, slots, specialized, subexpressions
+        );
+        if (interner == null) {
+            this.slots = slots;
+            this.specialized = specialized;
+            this.used = used;
+            this.opcodes = opcodes;
+        } else {
+            this.slots = interner.ints(slots);
+            this.specialized = interner.booleans(specialized);
+            this.used = interner.ints(used);
+            this.opcodes = opcodes == null ? null : interner.program(opcodes);
+        }
+    }
+
+    /**
+     * Retrieves the compiled code of the expression, which is generated the first time it's
+     * needed and then shared by every expression with this layout.
+     *
+     * @param mode {@link EvaluationMode#BYTECODE} or {@link EvaluationMode#TREE}
+     * @return stateless evaluator or {@code null} if the expression can't be compiled
+     */
+    synchronized Evaluator evaluator(EvaluationMode mode) {
+        if (mode == EvaluationMode.BYTECODE) {
+            if (bytecode == null) {
+                bytecode = BytecodeCompiler.compile(tokens, slotsByName(), subexpressions);
+            }
+            return bytecode;
+        }
+        if (tree == null) {
+            tree = TreeCompiler.compile(tokens, slotsByName(), subexpressions);
+        }
+        return tree;
+    }
+
+    /**
+     * Retrieves the evaluator that was already compiled for this layout, without compiling it.
+     *
+     * @return stateless evaluator or {@code null} if there isn't one yet
+     */
+    synchronized Evaluator compiled() {
+        return bytecode != null ? bytecode : tree;
+    }
+
+    /**
+     * @return slot of every declared variable (and parameter) by name
+     */
+    Map<String, Integer> slotsByName() {
+        final int n = variableOrder.length;
+        final Map<String, Integer> order = new HashMap<>((n + parameters) * 2);
+        for (int i = 0; i < n; i++) {
+            order.put(variableOrder[i], i);
+        }
+        for (int i = 0; i < parameters; i++) {
+            order.put(parameter(i), n + i);
+        }
+        return order;
+    }
+
+    /**
+     * Name of the variable that replaces a lifted constant, it can't clash with the name of a
+     * user variable.
+     *
+     * @param index position of the constant in the RPN
+     * @return name of the parameter
+     */
+    static String parameter(int index) {
+        return "#" + index;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Bounded, thread safe map that evicts the least recently used entry once it's full, along with
+ * the counters of its {@link CacheStatistics}. Hits and misses are counted by the caller, since
+ * only it knows what a miss is (a key that doesn't exist at all might not be one).
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class LruCache<K, V> {
+    private final int maximumSize;
+
+    /** Access ordered, guarded by itself */
+    private final Map<K, V> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of entries to keep
+     * @throws IllegalArgumentException if {@code maximumSize} isn't positive
+     */
+    LruCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(l10n("Cache size must be positive"));
+        }
+        this.maximumSize = maximumSize;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    V get(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * @return the value that was already mapped to the key, or {@code null} if the given value
+     * was added
+     */
+    V putIfAbsent(K key, V value) {
+        synchronized (entries) {
+            return entries.putIfAbsent(key, value);
+        }
+    }
+
+    void remove(K key, V value) {
+        synchronized (entries) {
+            entries.remove(key, value);
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+
+import static net.objecthunter.exp4j.BytecodeCompiler.*;
+
+/**
+ * Dense form of the RPN used by the interpreter.<br><br>
+ * The tokens are lowered into an {@code int[]} stream of opcodes (each one
+ * followed by its operands), a pool with the constants and a table with the
+ * user functions and operators. Built-in operators and functions get their
+ * own opcodes, and the most common sequences are fused into superinstructions
+ * (i.e. {@code x * 2} is a single {@link #VAR_MUL_CONST}) so there are less
+ * dispatches and stack operations.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class OpcodeProgram {
+    /* Stack operations */
+    static final int CONST         =  0; // k
+    static final int VAR           =  1; // slot
+
+    /* Built-in operators */
+    static final int ADD           =  2;
+    static final int SUB           =  3;
+    static final int MUL           =  4;
+    static final int DIV           =  5;
+    static final int MOD           =  6;
+    static final int POW           =  7;
+    static final int NEG           =  8;
+    static final int AND           =  9;
+    static final int OR            = 10;
+    static final int NOT           = 11;
+
+    /* Built-in functions */
+    static final int SIN           = 12;
+    static final int COS           = 13;
+    static final int TAN           = 14;
+    static final int SQRT          = 15;
+    static final int EXP           = 16;
+    static final int LOG           = 17;
+    static final int ABS           = 18;
+
+    /* User functions and operators */
+    static final int OP1           = 19; // ref
+    static final int OP2           = 20; // ref
+    static final int OPN           = 21; // ref, n
+    static final int FN1           = 22; // ref
+    static final int FN2           = 23; // ref
+    static final int FN3           = 24; // ref
+    static final int FNN           = 25; // ref, n
+
+    /* Superinstructions */
+    static final int VAR_ADD_VAR   = 26; // slot, slot
+    static final int VAR_MUL_VAR   = 27; // slot, slot
+    static final int VAR_ADD_CONST = 28; // slot, k
+    static final int VAR_MUL_CONST = 29; // slot, k
+    static final int ADD_VAR       = 30; // slot
+    static final int SUB_VAR       = 31; // slot
+    static final int MUL_VAR       = 32; // slot
+    static final int ADD_CONST     = 33; // k
+    static final int MUL_CONST     = 34; // k
+    static final int DIV_CONST     = 35; // k (never zero)
+    static final int CONST_POW     = 36; // k
+
+    /* Common subexpressions */
+    static final int STORE         = 37; // slot
+
+    final int[] code;
+
+    final double[] constants;
+
+    final Object[] refs;
+
+    OpcodeProgram(int[] code, double[] constants, Object[] refs) {
+        this.code = code;
+        this.constants = constants;
+        this.refs = refs;
+    }
+
+    /**
+     * Lowers the given RPN.
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot of each token ({@code -1} if it isn't a variable)
+     * @param specialized if the fixed arity {@code apply} of each token can be used
+     * @return lowered program or {@code null} if the expression isn't valid
+     */
+    static OpcodeProgram lower(Token[] tokens, int[] slots, boolean[] specialized) {
+        return lower(tokens, slots, specialized, null);
+    }
+
+    /**
+     * Lowers the given RPN, computing each common subexpression once. The result of a shared
+     * subexpression is stored in its temporary slot of the variables (which must be big
+     * enough) and loaded from there like any other variable.
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot of each token ({@code -1} if it isn't a variable)
+     * @param specialized if the fixed arity {@code apply} of each token can be used
+     * @param cse common subexpressions or {@code null}
+     * @return lowered program or {@code null} if the expression isn't valid
+     */
+    static OpcodeProgram lower(Token[] tokens, int[] slots, boolean[] specialized,
+                               Subexpressions cse) {
+        if (!isValid(tokens)) {
+            return null;
+        }
+        final Lowering l = new Lowering(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            if (cse != null && cse.reused(i) != -1) {
+                i = cse.reused(i);
+                l.emit(VAR, cse.base + cse.temp(i));
+                continue;
+            }
+            final Token t = tokens[i];
+            switch (t.getType()) {
+                case NUMBER   -> l.emit(CONST, l.constant(((NumberToken) t).getValue()));
+                case VARIABLE -> l.emit(VAR, slots[i]);
+                case OPERATOR -> l.operator(((OperatorToken) t).getOperator(), specialized[i]);
+                case FUNCTION -> l.function(((FunctionToken) t).getFunction(), specialized[i]);
+                default -> {
+                    //Do nothing
+                }
+            }
+            if (cse != null && cse.temp(i) != -1) {
+                l.emit(STORE, cse.base + cse.temp(i));
+            }
+        }
+        return new OpcodeProgram(
+                Arrays.copyOf(l.code, l.pc),
+                l.constants.stream().mapToDouble(Double::doubleValue).toArray(),
+                l.refs.toArray()
+        );
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @param vars values of the variables indexed by slot (followed by the temporaries)
+     * @param stack scratch space, at least as big as the maximum depth of the stack
+     * @param arguments scratch arrays for varargs calls indexed by length
+     * @return result of the evaluation
+     */
+    double run(double[] vars, double[] stack, double[][] arguments) {
+        final int[] code = this.code;
+        final double[] k = this.constants;
+        int sp = -1;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case CONST         -> stack[++sp] = k[code[pc++]];
+                case VAR           -> stack[++sp] = vars[code[pc++]];
+                case ADD           -> { sp--; stack[sp] += stack[sp + 1]; }
+                case SUB           -> { sp--; stack[sp] -= stack[sp + 1]; }
+                case MUL           -> { sp--; stack[sp] *= stack[sp + 1]; }
+                case DIV           -> { sp--; stack[sp] = divide(stack[sp], stack[sp + 1]); }
+                case MOD           -> { sp--; stack[sp] = modulo(stack[sp], stack[sp + 1]); }
+                case POW           -> { sp--; stack[sp] = Math.pow(stack[sp], stack[sp + 1]); }
+                case NEG           -> stack[sp] = -stack[sp];
+                case AND           -> { sp--; stack[sp] = and(stack[sp], stack[sp + 1]); }
+                case OR            -> { sp--; stack[sp] = or(stack[sp], stack[sp + 1]); }
+                case NOT           -> stack[sp] = not(stack[sp]);
+                case SIN           -> stack[sp] = Math.sin(stack[sp]);
+                case COS           -> stack[sp] = Math.cos(stack[sp]);
+                case TAN           -> stack[sp] = Math.tan(stack[sp]);
+                case SQRT          -> stack[sp] = Math.sqrt(stack[sp]);
+                case EXP           -> stack[sp] = Math.exp(stack[sp]);
+                case LOG           -> stack[sp] = Math.log(stack[sp]);
+                case ABS           -> stack[sp] = Math.abs(stack[sp]);
+                case OP1           -> stack[sp] = ((Operator) refs[code[pc++]]).apply(stack[sp]);
+                case OP2           -> {
+                    sp--;
+                    stack[sp] = ((Operator) refs[code[pc++]]).apply(stack[sp], stack[sp + 1]);
+                }
+                case OPN           -> {
+                    final Operator op = (Operator) refs[code[pc++]];
+                    final double[] args = arguments[code[pc++]];
+                    sp = varargs(stack, sp, args);
+                    stack[sp] = op.apply(args);
+                }
+                case FN1           -> stack[sp] = ((Function) refs[code[pc++]]).apply(stack[sp]);
+                case FN2           -> {
+                    sp--;
+                    stack[sp] = ((Function) refs[code[pc++]]).apply(stack[sp], stack[sp + 1]);
+                }
+                case FN3           -> {
+                    sp -= 2;
+                    stack[sp] = ((Function) refs[code[pc++]])
+                            .apply(stack[sp], stack[sp + 1], stack[sp + 2]);
+                }
+                case FNN           -> {
+                    final Function func = (Function) refs[code[pc++]];
+                    final double[] args = arguments[code[pc++]];
+                    sp = varargs(stack, sp, args);
+                    stack[sp] = func.apply(args);
+                }
+                case VAR_ADD_VAR   -> { stack[++sp] = vars[code[pc]] + vars[code[pc + 1]]; pc += 2; }
+                case VAR_MUL_VAR   -> { stack[++sp] = vars[code[pc]] * vars[code[pc + 1]]; pc += 2; }
+                case VAR_ADD_CONST -> { stack[++sp] = vars[code[pc]] + k[code[pc + 1]]; pc += 2; }
+                case VAR_MUL_CONST -> { stack[++sp] = vars[code[pc]] * k[code[pc + 1]]; pc += 2; }
+                case ADD_VAR       -> stack[sp] += vars[code[pc++]];
+                case SUB_VAR       -> stack[sp] -= vars[code[pc++]];
+                case MUL_VAR       -> stack[sp] *= vars[code[pc++]];
+                case ADD_CONST     -> stack[sp] += k[code[pc++]];
+                case MUL_CONST     -> stack[sp] *= k[code[pc++]];
+                case DIV_CONST     -> stack[sp] /= k[code[pc++]];
+                case CONST_POW     -> stack[sp] = Math.pow(stack[sp], k[code[pc++]]);
+                case STORE         -> vars[code[pc++]] = stack[sp];
+                default            -> throw new IllegalStateException();
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Moves the top {@code args.length} values of the stack into {@code args}
+     * and returns the position where the result must be stored.
+     */
+    private static int varargs(double[] stack, int sp, double[] args) {
+        final int n = args.length;
+        final int first = sp - n + 1;
+        System.arraycopy(stack, first, args, 0, n);
+        return first;
+    }
+
+    /** Keeps track of the emitted instructions so they can be fused */
+    private static final class Lowering {
+        int[] code;
+        int pc;
+        /** Start of each instruction that is still in the stream */
+        final int[] starts;
+        int count;
+        final List<Double> constants = new ArrayList<>();
+        final Map<Long, Integer> constantIndex = new HashMap<>();
+        final List<Object> refs = new ArrayList<>();
+
+        Lowering(int tokens) {
+            code = new int[tokens * 2 + 1];
+            starts = new int[tokens];
+        }
+
+        int constant(double value) {
+            return constantIndex.computeIfAbsent(Double.doubleToRawLongBits(value), bits -> {
+                constants.add(value);
+                return constants.size() - 1;
+            });
+        }
+
+        int ref(Object ref) {
+            for (int i = 0; i < refs.size(); i++) {
+                if (refs.get(i) == ref) {
+                    return i;
+                }
+            }
+            refs.add(ref);
+            return refs.size() - 1;
+        }
+
+        void emit(int... instruction) {
+            if (pc + instruction.length > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, pc + instruction.length));
+            }
+            starts[count++] = pc;
+            System.arraycopy(instruction, 0, code, pc, instruction.length);
+            pc += instruction.length;
+        }
+
+        /** Opcode of the n-th instruction counting from the end (1 is the last) */
+        int last(int n) {
+            return count < n ? -1 : code[starts[count - n]];
+        }
+
+        /** Operand of the n-th instruction counting from the end */
+        int operand(int n) {
+            return code[starts[count - n] + 1];
+        }
+
+        /** Removes the last {@code n} instructions */
+        void drop(int n) {
+            count -= n;
+            pc = starts[count];
+        }
+
+        void operator(Operator op, boolean specialized) {
+            if (!isBuiltin(op)) {
+                final int ref = ref(op);
+                if (!specialized) {
+                    emit(OPN, ref, op.getNumOperands());
+                } else if (op.getNumOperands() == 2) {
+                    emit(OP2, ref);
+                } else {
+                    emit(OP1, ref);
+                }
+                return;
+            }
+            final boolean binary = op.getNumOperands() == 2;
+            switch (op.getSymbol().charAt(0)) {
+                case '+' -> {
+                    if (binary) {
+                        fuse(ADD, ADD_VAR, ADD_CONST, VAR_ADD_VAR, VAR_ADD_CONST);
+                    }
+                }
+                case '-' -> {
+                    if (!binary) {
+                        emit(NEG);
+                    } else if (last(1) == CONST) {
+                        //a - k == a + (-k) for every double
+                        final double value = constants.get(operand(1));
+                        drop(1);
+                        emit(CONST, constant(-value));
+                        fuse(ADD, ADD_VAR, ADD_CONST, VAR_ADD_VAR, VAR_ADD_CONST);
+                    } else if (last(1) == VAR) {
+                        final int slot = operand(1);
+                        drop(1);
+                        emit(SUB_VAR, slot);
+                    } else {
+                        emit(SUB);
+                    }
+                }
+                case '*' -> fuse(MUL, MUL_VAR, MUL_CONST, VAR_MUL_VAR, VAR_MUL_CONST);
+                case '/' -> {
+                    if (last(1) == CONST && constants.get(operand(1)) != 0d) {
+                        final int k = operand(1);
+                        drop(1);
+                        emit(DIV_CONST, k);
+                    } else {
+                        emit(DIV);
+                    }
+                }
+                case '%' -> emit(MOD);
+                case '^' -> {
+                    if (last(1) == CONST) {
+                        final int k = operand(1);
+                        drop(1);
+                        emit(CONST_POW, k);
+                    } else {
+                        emit(POW);
+                    }
+                }
+                case '&' -> emit(AND);
+                case '|' -> emit(OR);
+                case '¬' -> emit(NOT);
+                default  -> emit(binary ? OP2 : OP1, ref(op));
+            }
+        }
+
+        /**
+         * Emits a commutative binary operation, fusing it with the operands if
+         * they are variables or constants.
+         */
+        private void fuse(int plain, int withVar, int withConst, int varVar, int varConst) {
+            final int b = last(1);
+            final int a = last(2);
+            if (b == VAR && a == VAR) {
+                final int sa = operand(2);
+                final int sb = operand(1);
+                drop(2);
+                emit(varVar, sa, sb);
+            } else if (b == CONST && a == VAR) {
+                final int slot = operand(2);
+                final int k = operand(1);
+                drop(2);
+                emit(varConst, slot, k);
+            } else if (b == VAR && a == CONST) {
+                final int k = operand(2);
+                final int slot = operand(1);
+                drop(2);
+                emit(varConst, slot, k);
+            } else if (b == VAR) {
+                final int slot = operand(1);
+                drop(1);
+                emit(withVar, slot);
+            } else if (b == CONST) {
+                final int k = operand(1);
+                drop(1);
+                emit(withConst, k);
+            } else {
+                emit(plain);
+            }
+        }
+
+        void function(Function func, boolean specialized) {
+            final int n = func.getNumArguments();
+            if (isBuiltin(func)) {
+                final int opcode = switch (func.getName()) {
+                    case "sin"  -> SIN;
+                    case "cos"  -> COS;
+                    case "tan"  -> TAN;
+                    case "sqrt" -> SQRT;
+                    case "exp"  -> EXP;
+                    case "log"  -> LOG;
+                    case "abs"  -> ABS;
+                    case "pow"  -> POW;
+                    default     -> -1;
+                };
+                if (opcode != -1) {
+                    emit(opcode);
+                    return;
+                }
+                if (n == 0 && func.isDeterministic()) {
+                    //pi() and e() are constants
+                    emit(CONST, constant(func.apply()));
+                    return;
+                }
+            }
+            final int ref = ref(func);
+            if (specialized && n == 1) {
+                emit(FN1, ref);
+            } else if (specialized && n == 2) {
+                emit(FN2, ref);
+            } else if (specialized && n == 3) {
+                emit(FN3, ref);
+            } else {
+                emit(FNN, ref, n);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a batch evaluation in halves until the ranges are small enough, each leaf is
+ * evaluated with its own scratch buffers straight into the output array.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class ParallelBatch extends RecursiveAction {
+    @Serial
+    private static final long serialVersionUID = -6502946734201968243L;
+
+    /** Ranges with less rows than this are evaluated on the current thread */
+    static final int THRESHOLD = 16 * BatchEvaluator.CHUNK;
+
+    private final transient CompiledExpression program;
+
+    private final transient BatchData data;
+
+    private final int from;
+
+    private final int to;
+
+    ParallelBatch(CompiledExpression program, BatchData data, int from, int to) {
+        this.program = program;
+        this.data = data;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            program.evaluate(data, from, to);
+            return;
+        }
+        //Keep the split aligned to chunks so no chunk is evaluated partially
+        final int mid = from + ((to - from) / 2 / BatchEvaluator.CHUNK) * BatchEvaluator.CHUNK;
+        invokeAll(
+            new ParallelBatch(program, data, from, mid),
+            new ParallelBatch(program, data, mid, to)
+        );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a list of expressions in halves until the ranges are small enough, each leaf builds
+ * its expressions on the current thread. Parsing holds no shared state, so the only thing the
+ * leaves share is the (immutable) context.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class ParallelBuild extends RecursiveAction {
+    @Serial
+    private static final long serialVersionUID = 2417708447395468213L;
+
+    /** Ranges with less expressions than this are built on the current thread */
+    static final int THRESHOLD = 32;
+
+    private final transient ExpressionContext context;
+
+    private final transient String[] sources;
+
+    private final transient boolean simplify;
+
+    private final transient CompiledExpression[] results;
+
+    private final transient RuntimeException[] failures;
+
+    private final int from;
+
+    private final int to;
+
+    ParallelBuild(ExpressionContext context, String[] sources, boolean simplify,
+                  CompiledExpression[] results, RuntimeException[] failures, int from, int to) {
+        this.context = context;
+        this.sources = sources;
+        this.simplify = simplify;
+        this.results = results;
+        this.failures = failures;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                try {
+                    results[i] = context.compile(sources[i], simplify);
+                } catch (RuntimeException ex) {
+                    failures[i] = ex;
+                }
+            }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        invokeAll(
+            new ParallelBuild(context, sources, simplify, results, failures, from, mid),
+            new ParallelBuild(context, sources, simplify, results, failures, mid, to)
+        );
+    }
+}
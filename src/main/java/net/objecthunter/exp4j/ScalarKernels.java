@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Plain Java loops for the basic arithmetic operators, these are simple enough for the JIT to
+ * auto-vectorize them.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+class ScalarKernels implements BatchKernels {
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    static final Operator ADD   = Operators.getBuiltinOperator('+', 2);
+    static final Operator SUB   = Operators.getBuiltinOperator('-', 2);
+    static final Operator MUL   = Operators.getBuiltinOperator('*', 2);
+    static final Operator DIV   = Operators.getBuiltinOperator('/', 2);
+    static final Operator PLUS  = Operators.getBuiltinOperator('+', 1);
+    static final Operator MINUS = Operators.getBuiltinOperator('-', 1);
+
+    @Override
+    public boolean binary(Operator op, double[] a, double[] b, int len) {
+        if (op == ADD) {
+            for (int r = 0; r < len; r++) {
+                a[r] += b[r];
+            }
+        } else if (op == SUB) {
+            for (int r = 0; r < len; r++) {
+                a[r] -= b[r];
+            }
+        } else if (op == MUL) {
+            for (int r = 0; r < len; r++) {
+                a[r] *= b[r];
+            }
+        } else if (op == DIV) {
+            checkDivisor(b, len);
+            for (int r = 0; r < len; r++) {
+                a[r] /= b[r];
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean unary(Operator op, double[] a, int len) {
+        if (op == MINUS) {
+            for (int r = 0; r < len; r++) {
+                a[r] = -a[r];
+            }
+            return true;
+        }
+        return op == PLUS;
+    }
+
+    @Override
+    public boolean function(Function func, double[][] stack, int sp, int len) {
+        return false;
+    }
+
+    static void checkDivisor(double[] b, int len) {
+        for (int r = 0; r < len; r++) {
+            if (b[r] == 0d) {
+                throw new ArithmeticException(l10n("Division by zero!"));
+            }
+        }
+    }
+}
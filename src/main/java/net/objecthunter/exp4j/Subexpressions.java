@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+/**
+ * Common subexpressions of an RPN: subexpressions that appear more than once are computed
+ * the first time, kept in a temporary and loaded from it every other time.<br><br>
+ * Two subexpressions are the same if they apply the same operators and functions (by
+ * identity) to the same variables and constants. Subexpressions that call a
+ * {@link Function#isDeterministic() non deterministic} function are never shared, operators
+ * are always deterministic (just like in the {@code Simplifier}). Larger subexpressions are
+ * picked first, so in {@code sqrt(x^2+y^2) * sqrt(x^2+y^2)} only the square root is
+ * shared.<br><br>
+ * Every argument of every call is always evaluated (there's no short-circuit), so the first
+ * occurrence is always computed before the others are needed. Backends lower the RPN token
+ * by token and use {@link #reused(int)} to skip the occurrences that must be loaded and
+ * {@link #temp(int)} to know which results must be stored.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class Subexpressions {
+    /** Last token of the occurrence that starts at each token and is loaded, or {@code -1} */
+    final int[] reused;
+
+    /** Temporary of the occurrence that ends at each token, or {@code -1} */
+    final int[] temps;
+
+    /** Number of temporaries */
+    final int count;
+
+    /** Slot of the first temporary in the array of values (after variables and parameters) */
+    final int base;
+
+    private Subexpressions(int[] reused, int[] temps, int count, int base) {
+        this.reused = reused;
+        this.temps = temps;
+        this.count = count;
+        this.base = base;
+    }
+
+    /**
+     * Looks for the common subexpressions of an expression.
+     *
+     * @param tokens valid RPN of the expression
+     * @param slots slot of each token ({@code -1} if it isn't a variable)
+     * @param base slot of the first temporary
+     * @return common subexpressions or {@code null} if there aren't any
+     */
+    static Subexpressions find(Token[] tokens, int[] slots, int base) {
+        final int n = tokens.length;
+        final int[] ids = new int[n];
+        final int[] starts = new int[n];
+        final Map<Key, Integer> keys = new HashMap<>();
+        final List<List<Integer>> occurrences = new ArrayList<>();
+        final int[] stack = new int[n];
+        int sp = -1;
+        for (int i = 0; i < n; i++) {
+            final Token t = tokens[i];
+            int args = 0;
+            Key key = null;
+            switch (t.getType()) {
+                case NUMBER   -> key = new Key(
+                        NumberToken.class,
+                        Double.doubleToRawLongBits(((NumberToken) t).getValue()),
+                        null
+                );
+                case VARIABLE -> key = new Key(VariableToken.class, slots[i], null);
+                case OPERATOR -> {
+                    final Operator op = ((OperatorToken) t).getOperator();
+                    args = op.getNumOperands();
+                    key = new Key(op, 0, children(ids, stack, sp, args));
+                }
+                case FUNCTION -> {
+                    final Function func = ((FunctionToken) t).getFunction();
+                    args = func.getNumArguments();
+                    //Non deterministic calls (and everything that contains them) are unique
+                    if (func.isDeterministic()) {
+                        key = new Key(func, 0, children(ids, stack, sp, args));
+                    }
+                }
+                default -> {
+                    //Not valid
+                    return null;
+                }
+            }
+            sp -= args;
+            starts[i] = args == 0 ? i : starts[stack[sp + 1]];
+            stack[++sp] = i;
+
+            final Integer known = key == null ? null : keys.get(key);
+            if (known == null) {
+                ids[i] = occurrences.size();
+                occurrences.add(new ArrayList<>(1));
+                if (key != null) {
+                    keys.put(key, ids[i]);
+                }
+            } else {
+                ids[i] = known;
+            }
+            occurrences.get(ids[i]).add(i);
+        }
+
+        //Larger subexpressions first, the ones inside a reused occurrence are never evaluated
+        final List<List<Integer>> repeated = new ArrayList<>();
+        for (List<Integer> ends : occurrences) {
+            final int end = ends.get(0);
+            if (ends.size() > 1 && starts[end] < end) {
+                repeated.add(ends);
+            }
+        }
+        repeated.sort((a, b) -> Integer.compare(
+                b.get(0) - starts[b.get(0)], a.get(0) - starts[a.get(0)]
+        ));
+
+        final int[] reused = new int[n];
+        final int[] temps = new int[n];
+        Arrays.fill(reused, -1);
+        Arrays.fill(temps, -1);
+        final boolean[] dead = new boolean[n];
+        int count = 0;
+        for (List<Integer> ends : repeated) {
+            final List<Integer> live = new ArrayList<>(ends.size());
+            for (int end : ends) {
+                if (!dead[end]) {
+                    live.add(end);
+                }
+            }
+            if (live.size() < 2) {
+                continue;
+            }
+            temps[live.get(0)] = count;
+            for (int j = 1; j < live.size(); j++) {
+                final int end = live.get(j);
+                reused[starts[end]] = end;
+                temps[end] = count;
+                Arrays.fill(dead, starts[end], end + 1, true);
+            }
+            count++;
+        }
+        return count == 0 ? null : new Subexpressions(reused, temps, count, base);
+    }
+
+    /** Ids of the operands on top of the stack */
+    private static int[] children(int[] ids, int[] stack, int sp, int args) {
+        final int[] children = new int[args];
+        for (int j = 0; j < args; j++) {
+            children[j] = ids[stack[sp - args + 1 + j]];
+        }
+        return children;
+    }
+
+    /**
+     * @param token position in the RPN
+     * @return last token of the occurrence that starts at the given token and has to be
+     * loaded from its temporary, or {@code -1} if the token has to be lowered as usual
+     */
+    int reused(int token) {
+        return reused[token];
+    }
+
+    /**
+     * @param token position in the RPN
+     * @return temporary of the subexpression that ends at the given token, or {@code -1} if
+     * the result isn't shared
+     */
+    int temp(int token) {
+        return temps[token];
+    }
+
+    /** Operators and functions are compared by identity */
+    private record Key(Object symbol, long value, int[] children) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && symbol == k.symbol && value == k.value &&
+                   Arrays.equals(children, k.children);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(symbol) + Long.hashCode(value)) * 31 +
+                   Arrays.hashCode(children);
+        }
+    }
+}
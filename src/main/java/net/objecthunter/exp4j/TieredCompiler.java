@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles {@link EvaluationMode#TIERED tiered} expressions on a background
+ * thread once they become hot.<br><br>
+ * Expressions are compiled to bytecode, or to a tree of nodes if classes
+ * can't be defined at runtime.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class TieredCompiler {
+    /** Default number of evaluations before an expression is compiled */
+    static final int DEFAULT_THRESHOLD = 1000;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "exp4j-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final AtomicLong PROMOTED  = new AtomicLong();
+    static final AtomicLong BYTECODE  = new AtomicLong();
+    static final AtomicLong TREE      = new AtomicLong();
+    static final AtomicLong FAILED    = new AtomicLong();
+    static final AtomicLong TIME      = new AtomicLong();
+
+    private TieredCompiler() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Schedules the compilation of an expression, the result is handed back
+     * with {@link CompiledExpression#promote(Evaluator)}.
+     */
+    static void submit(CompiledExpression program) {
+        PROMOTED.incrementAndGet();
+        EXECUTOR.execute(() -> {
+            final long start = System.nanoTime();
+            final Evaluator evaluator = compile(program.layout());
+            TIME.addAndGet(System.nanoTime() - start);
+            if (evaluator != null) {
+                program.promote(evaluator);
+            }
+        });
+    }
+
+    /** The code is kept by the layout, so expressions that share it are compiled once */
+    private static Evaluator compile(Layout layout) {
+        try {
+            Evaluator evaluator = layout.evaluator(EvaluationMode.BYTECODE);
+            if (evaluator != null) {
+                BYTECODE.incrementAndGet();
+                return evaluator;
+            }
+            evaluator = layout.evaluator(EvaluationMode.TREE);
+            if (evaluator != null) {
+                TREE.incrementAndGet();
+                return evaluator;
+            }
+        } catch (RuntimeException | LinkageError ex) {
+            //The expression just stays interpreted
+        }
+        FAILED.incrementAndGet();
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+/**
+ * Snapshot of the promotions of {@link EvaluationMode#TIERED tiered} expressions made since
+ * the JVM started.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see CompiledExpression#getEvaluationCount()
+ * @see CompiledExpression#isCompiled()
+ */
+public final class TieredStatistics {
+    private final long promoted;
+
+    private final long bytecode;
+
+    private final long tree;
+
+    private final long failed;
+
+    private final long compileTime;
+
+    private TieredStatistics() {
+        //Read the results first, so they never exceed the promotions
+        bytecode = TieredCompiler.BYTECODE.get();
+        tree = TieredCompiler.TREE.get();
+        failed = TieredCompiler.FAILED.get();
+        compileTime = TieredCompiler.TIME.get();
+        promoted = TieredCompiler.PROMOTED.get();
+    }
+
+    /**
+     * Retrieves the current statistics.
+     *
+     * @return snapshot of the statistics
+     */
+    public static TieredStatistics get() {
+        return new TieredStatistics();
+    }
+
+    /**
+     * @return number of expressions that reached their threshold and were sent to compile
+     */
+    public long getPromoted() {
+        return promoted;
+    }
+
+    /**
+     * @return number of expressions compiled to bytecode
+     */
+    public long getCompiledToBytecode() {
+        return bytecode;
+    }
+
+    /**
+     * @return number of expressions compiled to a tree because bytecode wasn't available
+     */
+    public long getCompiledToTree() {
+        return tree;
+    }
+
+    /**
+     * @return number of expressions that couldn't be compiled and stayed interpreted
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return number of expressions waiting to be compiled
+     */
+    public long getPending() {
+        return promoted - bytecode - tree - failed;
+    }
+
+    /**
+     * @return total time spent compiling in nanoseconds
+     */
+    public long getCompileTimeNanos() {
+        return compileTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredStatistics{promoted=" + promoted + ", bytecode=" + bytecode +
+               ", tree=" + tree + ", failed=" + failed + ", pending=" + getPending() +
+               ", compileTimeNanos=" + compileTime + '}';
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.Map;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import static net.objecthunter.exp4j.BytecodeCompiler.*;
+
+/**
+ * Compiles the RPN of an expression into a tree of small nodes implementing
+ * {@link Evaluator}.<br><br>
+ * Each node is a final class with a single {@code evaluate} method, so the JIT
+ * can inline through the tree without any class being generated at runtime.
+ * Additions, subtractions, multiplications and divisions with a variable or
+ * constant operand get their own nodes to avoid an extra call.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see EvaluationMode#TREE
+ */
+final class TreeCompiler {
+    private static final double[] NO_ARGS = new double[0];
+
+    private TreeCompiler() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Compiles the given RPN.
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot index of each variable
+     * @return root of the tree or {@code null} if the expression can't be
+     * compiled (i.e. it's not valid)
+     */
+    static Evaluator compile(Token[] tokens, Map<String, Integer> slots) {
+        return compile(tokens, slots, null);
+    }
+
+    /**
+     * Compiles the given RPN, computing each common subexpression once. The result of a
+     * shared subexpression is stored in its temporary slot of the variables (which must be
+     * big enough) and every other occurrence reads it from there.
+     *
+     * @param tokens RPN of the expression
+     * @param slots slot index of each variable
+     * @param cse common subexpressions or {@code null}
+     * @return root of the tree or {@code null} if the expression can't be
+     * compiled (i.e. it's not valid)
+     */
+    static Evaluator compile(Token[] tokens, Map<String, Integer> slots, Subexpressions cse) {
+        if (!isValid(tokens)) {
+            return null;
+        }
+
+        final Node[] stack = new Node[tokens.length];
+        int sp = -1;
+        for (int i = 0; i < tokens.length; i++) {
+            if (cse != null && cse.reused(i) != -1) {
+                i = cse.reused(i);
+                stack[++sp] = new Var(cse.base + cse.temp(i));
+                continue;
+            }
+            final Token t = tokens[i];
+            switch (t.getType()) {
+                case NUMBER   -> stack[++sp] = new Const(((NumberToken) t).getValue());
+                case VARIABLE -> stack[++sp] = new Var(slots.get(((VariableToken) t).getName()));
+                case OPERATOR -> {
+                    final Operator op = ((OperatorToken) t).getOperator();
+                    if (op.getNumOperands() == 2) {
+                        sp--;
+                        stack[sp] = binary(op, stack[sp], stack[sp + 1]);
+                    } else {
+                        stack[sp] = unary(op, stack[sp]);
+                    }
+                }
+                case FUNCTION -> {
+                    final Function func = ((FunctionToken) t).getFunction();
+                    final int n = func.getNumArguments();
+                    final Node[] args = new Node[n];
+                    System.arraycopy(stack, sp - n + 1, args, 0, n);
+                    sp -= n - 1;
+                    stack[sp] = function(func, args);
+                }
+                default -> {
+                    //Do nothing
+                }
+            }
+            if (cse != null && cse.temp(i) != -1) {
+                stack[sp] = new Store(cse.base + cse.temp(i), stack[sp]);
+            }
+        }
+        return stack[0];
+    }
+
+    private static Node binary(Operator op, Node a, Node b) {
+        if (!isBuiltin(op)) {
+            return Arity.isSpecialized(op) ? new OpBinary(op, a, b) : new OpVarargs(op, a, b);
+        }
+        return switch (op.getSymbol().charAt(0)) {
+            case '+' -> {
+                if (b instanceof Const c) {
+                    yield new AddConst(a, c.value);
+                }
+                if (a instanceof Var v && b instanceof Var w) {
+                    yield new AddVars(v.slot, w.slot);
+                }
+                yield new Add(a, b);
+            }
+            case '-' -> b instanceof Const c ? new AddConst(a, -c.value) : new Sub(a, b);
+            case '*' -> {
+                if (b instanceof Const c) {
+                    yield new MulConst(a, c.value);
+                }
+                if (a instanceof Const c) {
+                    yield new MulConst(b, c.value);
+                }
+                if (a instanceof Var v && b instanceof Var w) {
+                    yield new MulVars(v.slot, w.slot);
+                }
+                yield new Mul(a, b);
+            }
+            case '/' -> new Div(a, b);
+            case '%' -> new Mod(a, b);
+            case '^' -> new Pow(a, b);
+            case '&' -> new And(a, b);
+            case '|' -> new Or(a, b);
+            default  -> new OpBinary(op, a, b);
+        };
+    }
+
+    private static Node unary(Operator op, Node a) {
+        if (!isBuiltin(op)) {
+            return Arity.isSpecialized(op) ? new OpUnary(op, a) : new OpVarargs(op, a);
+        }
+        return switch (op.getSymbol().charAt(0)) {
+            case '+' -> a;
+            case '-' -> new Neg(a);
+            case '¬' -> new Not(a);
+            default  -> new OpUnary(op, a);
+        };
+    }
+
+    private static Node function(Function func, Node[] args) {
+        final int n = args.length;
+        if (isBuiltin(func)) {
+            switch (func.getName()) {
+                case "sin"  -> { return new Sin(args[0]); }
+                case "cos"  -> { return new Cos(args[0]); }
+                case "sqrt" -> { return new Sqrt(args[0]); }
+                case "exp"  -> { return new Exp(args[0]); }
+                case "log"  -> { return new Log(args[0]); }
+                case "abs"  -> { return new Abs(args[0]); }
+                case "pow"  -> { return new Pow(args[0], args[1]); }
+                case "pi"   -> { return new Const(Math.PI); }
+                case "e"    -> { return new Const(Math.E); }
+                default     -> {
+                    //Use the generic nodes
+                }
+            }
+        }
+        if (Arity.isSpecialized(func)) {
+            switch (n) {
+                case 1 -> { return new Call1(func, args[0]); }
+                case 2 -> { return new Call2(func, args[0], args[1]); }
+                case 3 -> { return new Call3(func, args[0], args[1], args[2]); }
+                default -> {
+                    //Only the varargs version is available
+                }
+            }
+        }
+        return new CallVarargs(func, args);
+    }
+
+    /** Base class of every node, it's abstract so children are called with invokevirtual */
+    abstract static class Node implements Evaluator {
+    }
+
+    static final class Const extends Node {
+        final double value;
+
+        Const(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return value;
+        }
+    }
+
+    static final class Var extends Node {
+        final int slot;
+
+        Var(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return vars[slot];
+        }
+    }
+
+    /** Keeps the result of a common subexpression, the other occurrences are {@link Var}s */
+    static final class Store extends Node {
+        private final int slot;
+        private final Node a;
+
+        Store(int slot, Node a) {
+            this.slot = slot;
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return vars[slot] = a.evaluate(vars);
+        }
+    }
+
+    static final class Add extends Node {
+        private final Node a, b;
+
+        Add(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return a.evaluate(vars) + b.evaluate(vars);
+        }
+    }
+
+    static final class AddConst extends Node {
+        private final Node a;
+        private final double b;
+
+        AddConst(Node a, double b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return a.evaluate(vars) + b;
+        }
+    }
+
+    static final class AddVars extends Node {
+        private final int a, b;
+
+        AddVars(int a, int b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return vars[a] + vars[b];
+        }
+    }
+
+    static final class Sub extends Node {
+        private final Node a, b;
+
+        Sub(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return a.evaluate(vars) - b.evaluate(vars);
+        }
+    }
+
+    static final class Mul extends Node {
+        private final Node a, b;
+
+        Mul(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return a.evaluate(vars) * b.evaluate(vars);
+        }
+    }
+
+    static final class MulConst extends Node {
+        private final Node a;
+        private final double b;
+
+        MulConst(Node a, double b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return a.evaluate(vars) * b;
+        }
+    }
+
+    static final class MulVars extends Node {
+        private final int a, b;
+
+        MulVars(int a, int b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return vars[a] * vars[b];
+        }
+    }
+
+    static final class Div extends Node {
+        private final Node a, b;
+
+        Div(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return divide(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class Mod extends Node {
+        private final Node a, b;
+
+        Mod(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return modulo(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class Pow extends Node {
+        private final Node a, b;
+
+        Pow(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.pow(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class And extends Node {
+        private final Node a, b;
+
+        And(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return and(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class Or extends Node {
+        private final Node a, b;
+
+        Or(Node a, Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return or(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class Neg extends Node {
+        private final Node a;
+
+        Neg(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return -a.evaluate(vars);
+        }
+    }
+
+    static final class Not extends Node {
+        private final Node a;
+
+        Not(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return not(a.evaluate(vars));
+        }
+    }
+
+    static final class Sin extends Node {
+        private final Node a;
+
+        Sin(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.sin(a.evaluate(vars));
+        }
+    }
+
+    static final class Cos extends Node {
+        private final Node a;
+
+        Cos(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.cos(a.evaluate(vars));
+        }
+    }
+
+    static final class Sqrt extends Node {
+        private final Node a;
+
+        Sqrt(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.sqrt(a.evaluate(vars));
+        }
+    }
+
+    static final class Exp extends Node {
+        private final Node a;
+
+        Exp(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.exp(a.evaluate(vars));
+        }
+    }
+
+    static final class Log extends Node {
+        private final Node a;
+
+        Log(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.log(a.evaluate(vars));
+        }
+    }
+
+    static final class Abs extends Node {
+        private final Node a;
+
+        Abs(Node a) {
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return Math.abs(a.evaluate(vars));
+        }
+    }
+
+    static final class OpUnary extends Node {
+        private final Operator op;
+        private final Node a;
+
+        OpUnary(Operator op, Node a) {
+            this.op = op;
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return op.apply(a.evaluate(vars));
+        }
+    }
+
+    static final class OpBinary extends Node {
+        private final Operator op;
+        private final Node a, b;
+
+        OpBinary(Operator op, Node a, Node b) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return op.apply(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    /**
+     * Operators that only implement the varargs version, the array can't be shared between
+     * threads
+     */
+    static final class OpVarargs extends Node {
+        private final Operator op;
+        private final Node[] args;
+
+        OpVarargs(Operator op, Node... args) {
+            this.op = op;
+            this.args = args;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            final double[] values = new double[args.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = args[i].evaluate(vars);
+            }
+            return op.apply(values);
+        }
+    }
+
+    static final class Call1 extends Node {
+        private final Function func;
+        private final Node a;
+
+        Call1(Function func, Node a) {
+            this.func = func;
+            this.a = a;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return func.apply(a.evaluate(vars));
+        }
+    }
+
+    static final class Call2 extends Node {
+        private final Function func;
+        private final Node a, b;
+
+        Call2(Function func, Node a, Node b) {
+            this.func = func;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return func.apply(a.evaluate(vars), b.evaluate(vars));
+        }
+    }
+
+    static final class Call3 extends Node {
+        private final Function func;
+        private final Node a, b, c;
+
+        Call3(Function func, Node a, Node b, Node c) {
+            this.func = func;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            return func.apply(a.evaluate(vars), b.evaluate(vars), c.evaluate(vars));
+        }
+    }
+
+    /**
+     * Functions that only implement the varargs version, the array can't be shared between
+     * threads
+     */
+    static final class CallVarargs extends Node {
+        private final Function func;
+        private final Node[] args;
+
+        CallVarargs(Function func, Node[] args) {
+            this.func = func;
+            this.args = args;
+        }
+
+        @Override
+        public double evaluate(double[] vars) {
+            if (args.length == 0) {
+                return func.apply(NO_ARGS);
+            }
+            final double[] values = new double[args.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = args[i].evaluate(vars);
+            }
+            return func.apply(values);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+/**
+ * Pre-resolved reference to a variable of an {@link Expression}.<br><br>
+ * Setting a variable by name needs to look it up (and validate it) on every call, a handle
+ * does this only once, so it's the fastest way of updating variables that change on every
+ * evaluation.<br><br>
+ * A handle can be used with the {@link Expression} that created it and with all its
+ * {@link Expression#copy() copies}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ * @see Expression#handle(String)
+ * @see Expression#setVariable(VariableHandle, double)
+ */
+public final class VariableHandle {
+    private final String[] order;
+
+    private final int index;
+
+    VariableHandle(String[] order, int index) {
+        this.order = order;
+        this.index = index;
+    }
+
+    /**
+     * Retrieves the name of the variable.
+     *
+     * @return variable name
+     */
+    public String getName() {
+        return order[index];
+    }
+
+    /**
+     * Retrieves the position of the variable in the order in which the variables were declared,
+     * i.e. its position in the array passed to {@link Expression#setVariables(double[])}.
+     *
+     * @return index of the variable
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Tells if this handle can be used with an expression with the given variable order.
+     */
+    boolean belongsTo(String[] order) {
+        return this.order == order;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
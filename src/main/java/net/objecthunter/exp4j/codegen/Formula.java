@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.codegen;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code String} constant holding an expression that must be translated into a Java
+ * class while compiling, see {@link FormulaProcessor}.
+ *
+ * <pre>
+ * public final class Formulas {
+ *     &#64;Formula(className = "Price", variables = {"price", "tax"})
+ *     public static final String PRICE = "price * 1.21 + tax";
+ * }
+ * </pre>
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Formula {
+    /**
+     * @return simple name of the generated class, which goes in the package of the constant
+     */
+    String className();
+
+    /**
+     * @return variables of the expression, in the order expected by the generated class
+     */
+    String[] variables() default {};
+
+    /**
+     * User functions of the expression as {@code name/arguments} (i.e. {@code "max/2"}). The
+     * generated class looks them up by name in the
+     * {@link net.objecthunter.exp4j.ExpressionContext} passed to its constructor.
+     *
+     * @return user functions
+     */
+    String[] functions() default {};
+
+    /**
+     * @return {@code false} to remove the built-in functions
+     */
+    boolean builtInFunctions() default true;
+}
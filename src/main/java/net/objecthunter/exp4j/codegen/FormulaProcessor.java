@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.codegen;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Writer;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+
+import net.objecthunter.exp4j.ExpressionContext;
+import net.objecthunter.exp4j.JavaSourceGenerator;
+import net.objecthunter.exp4j.function.Function;
+
+import static net.objecthunter.exp4j.utils.Text.l10n;
+
+/**
+ * Annotation processor that generates a class for each {@link Formula} constant using
+ * {@link JavaSourceGenerator}, so the expression is parsed by {@code javac} instead of at
+ * runtime. Invalid expressions are reported as compilation errors on the constant.<br><br>
+ * The processor isn't registered as a service, otherwise every project that depends on exp4j
+ * would run it (and newer versions of {@code javac} don't discover processors by default
+ * anyway). It has to be enabled explicitly, with exp4j in the classpath or the processor path:
+ *
+ * <pre>
+ * javac -processor net.objecthunter.exp4j.codegen.FormulaProcessor ...
+ * </pre>
+ *
+ * With Maven, add it to the {@code annotationProcessors} of the {@code maven-compiler-plugin}.
+ * User functions are only known by name and number of arguments while compiling, so they are
+ * never simplified and the generated class gets the actual implementations from an
+ * {@link ExpressionContext}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+@SupportedAnnotationTypes("net.objecthunter.exp4j.codegen.Formula")
+public final class FormulaProcessor extends AbstractProcessor {
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(Formula.class)) {
+            try {
+                generate(element);
+            } catch (RuntimeException ex) {
+                //Invalid expressions fail in many ways (i.e. simplifying a division by zero)
+                final String message = ex.getMessage();
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR, message != null ? message : ex.toString(), element
+                );
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR, ex.toString(), element
+                );
+            }
+        }
+        return true;
+    }
+
+    private void generate(Element element) throws IOException {
+        final Formula formula = element.getAnnotation(Formula.class);
+        final Object value = element instanceof VariableElement v ? v.getConstantValue() : null;
+        if (!(value instanceof String expression)) {
+            throw new IllegalArgumentException(l10n("The formula must be a String constant"));
+        }
+
+        final ExpressionContext.Builder builder = ExpressionContext.builder()
+                .variables(formula.variables());
+        for (String spec : formula.functions()) {
+            builder.function(placeholder(spec));
+        }
+        if (!formula.builtInFunctions()) {
+            builder.disableBuiltInFunctions();
+        }
+
+        final String pkg = processingEnv.getElementUtils()
+                .getPackageOf(element)
+                .getQualifiedName()
+                .toString();
+        final String className = pkg.isEmpty() ? formula.className()
+                                               : pkg + '.' + formula.className();
+        final String source = JavaSourceGenerator.generate(className, expression, builder.build());
+        try (Writer w = processingEnv.getFiler()
+                                     .createSourceFile(className, element)
+                                     .openWriter()) {
+            w.write(source);
+        }
+    }
+
+    /**
+     * Creates a function with the given name and number of arguments that can't be called,
+     * it's non deterministic so it's never simplified.
+     */
+    private static Function placeholder(String spec) {
+        final int slash = spec.lastIndexOf('/');
+        try {
+            final int n = Integer.parseInt(spec.substring(slash + 1).trim());
+            if (slash > 0 && n >= 0) {
+                return new Placeholder(spec.substring(0, slash).trim(), n);
+            }
+        } catch (NumberFormatException ex) {
+            //Reported below
+        }
+        throw new IllegalArgumentException(l10n(
+                "Invalid function '%s', expected name/arguments", spec
+        ));
+    }
+
+    private static final class Placeholder extends Function {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        Placeholder(String name, int numArguments) {
+            super(name, numArguments, false);
+        }
+
+        @Override
+        public double apply(double... args) {
+            throw new UnsupportedOperationException(l10n(
+                    "Function '%s' can't be evaluated while compiling", getName()
+            ));
+        }
+    }
+}
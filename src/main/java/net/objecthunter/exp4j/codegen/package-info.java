@@ -0,0 +1,4 @@
+/**
+ * Generation of Java classes from expressions at build time.
+ */
+package net.objecthunter.exp4j.codegen;
@@ -216,7 +216,11 @@ public final class FunctionsBoolean {
         Not() { super("not", 1); }
         @Override
         public double apply(double... args) {
-            return (Math.abs(args[0]) >= BOOLEAN_THRESHOLD) ? 0 : 1;
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return (Math.abs(a) >= BOOLEAN_THRESHOLD) ? 0 : 1;
         }
     }
 
@@ -226,8 +230,12 @@ public final class FunctionsBoolean {
         And() { super("and", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a & b) ? 1 : 0;
         }
     }
@@ -238,8 +246,12 @@ public final class FunctionsBoolean {
         Or() { super("or", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a | b) ? 1 : 0;
         }
     }
@@ -250,8 +262,12 @@ public final class FunctionsBoolean {
         Xor() { super("xor", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a ^ b) ? 1 : 0;
         }
     }
@@ -262,8 +278,12 @@ public final class FunctionsBoolean {
         Nand() { super("nand", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a & b) ? 0 : 1;
         }
     }
@@ -274,8 +294,12 @@ public final class FunctionsBoolean {
         Nor() { super("nor", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a | b) ? 0 : 1;
         }
     }
@@ -286,8 +310,12 @@ public final class FunctionsBoolean {
         Xnor() { super("xnor", 2); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a ^ b) ? 0 : 1;
         }
     }
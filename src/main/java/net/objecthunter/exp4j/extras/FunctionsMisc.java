@@ -238,8 +238,10 @@ public final class FunctionsMisc {
         Equals() { super("equal", 2); }
         @Override
         public double apply(double... args) {
-            final double  a = args[0];
-            final double  b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return Math.abs(a - b) < EQUALITY_THRESHOLD ? 1 : 0;
         }
     }
@@ -250,10 +252,11 @@ public final class FunctionsMisc {
         If() { super("if", 3); }
         @Override
         public double apply(double... args) {
-            final boolean a = args[0] >= EQUALITY_THRESHOLD;
-            final double  t = args[1];
-            final double  f = args[2];
-            return a ? t : f;
+            return apply(args[0], args[1], args[2]);
+        }
+        @Override
+        public double apply(double a, double t, double f) {
+            return a >= EQUALITY_THRESHOLD ? t : f;
         }
     }
 
@@ -273,7 +276,10 @@ public final class FunctionsMisc {
         IsNaN() { super("isnan", 1); }
         @Override
         public double apply(double... args) {
-            final double val = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double val) {
             return Double.isNaN(val) ? 1.0 : 0.0;
         }
     }
@@ -284,8 +290,10 @@ public final class FunctionsMisc {
         Min() { super("min", 2); }
         @Override
         public double apply(double... args) {
-            final double v1 = args[0];
-            final double v2 = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double v1, double v2) {
             return Math.min(v1, v2);
         }
     }
@@ -296,8 +304,10 @@ public final class FunctionsMisc {
         Max() { super("max", 2); }
         @Override
         public double apply(double... args) {
-            final double v1 = args[0];
-            final double v2 = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double v1, double v2) {
             return Math.max(v1, v2);
         }
     }
@@ -308,8 +318,12 @@ public final class FunctionsMisc {
         GCD() { super("gcd", 2); }
         @Override
         public double apply(double... args) {
-            final BigInteger v1 = BigInteger.valueOf(Math.round(args[0]));
-            final BigInteger v2 = BigInteger.valueOf(Math.round(args[1]));
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            final BigInteger v1 = BigInteger.valueOf(Math.round(a));
+            final BigInteger v2 = BigInteger.valueOf(Math.round(b));
             return v1.gcd(v2).longValueExact();
         }
     }
@@ -320,8 +334,12 @@ public final class FunctionsMisc {
         LCM() { super("lcm", 2); }
         @Override
         public double apply(double... args) {
-            final long a = Math.round(args[0]);
-            final long b = Math.round(args[1]);
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final long a = Math.round(x);
+            final long b = Math.round(y);
             final BigInteger v1 = BigInteger.valueOf(a);
             final BigInteger v2 = BigInteger.valueOf(b);
             final double gcd = v1.gcd(v2).longValueExact();
@@ -335,7 +353,10 @@ public final class FunctionsMisc {
         Round() { super("round", 1); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
             return Math.round(a);
         }
     }
@@ -346,7 +367,10 @@ public final class FunctionsMisc {
         Deg2Rad() { super("degtorad", 1); }
         @Override
         public double apply(double... args) {
-            final double x = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double x) {
             return Math.toRadians(x);
         }
     }
@@ -357,7 +381,10 @@ public final class FunctionsMisc {
         Rad2Deg() { super("radtodeg", 1); }
         @Override
         public double apply(double... args) {
-            final double x = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double x) {
             return Math.toDegrees(x);
         }
     }
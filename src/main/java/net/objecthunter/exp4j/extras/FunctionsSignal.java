@@ -130,7 +130,10 @@ public class FunctionsSignal {
         Sinc() { super("sinc", 1); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
             return a == 0.0 ? 1 : Math.sin(a) / a;
         }
     }
@@ -141,7 +144,10 @@ public class FunctionsSignal {
         HeavySide() { super("heavyside", 1); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
             return a < 0 ? 0.0 : 1.0;
         }
     }
@@ -152,9 +158,10 @@ public class FunctionsSignal {
         Rectangular() { super("rectangle", 3); }
         @Override
         public double apply(double... args) {
-            final double t = args[0];
-            final double X = args[1];
-            final double Y = args[2];
+            return apply(args[0], args[1], args[2]);
+        }
+        @Override
+        public double apply(double t, double X, double Y) {
             return u(t - X + Y / 2) - u(t - X - Y / 2);
         }
 
@@ -169,7 +176,10 @@ public class FunctionsSignal {
         Sawtooth() { super("sawtooth", 1); }
         @Override
         public double apply(double... args) {
-            final double x = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double x) {
             return x >= 0 ? x % 1 : 1 + (x % 1);
         }
     }
@@ -180,7 +190,10 @@ public class FunctionsSignal {
         Triangle() { super("triangle", 1); }
         @Override
         public double apply(double... args) {
-            final double x = args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double x) {
             return 2.0 / Math.PI * Math.asin(Math.sin(2.0 * Math.PI * x));
         }
     }
@@ -171,8 +171,10 @@ public final class OperatorsComparison {
         OpGT() { super(">", 2, true, PRECEDENCE_COMPARISON); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return (a > b) ? 1 : 0;
         }
     }
@@ -183,8 +185,10 @@ public final class OperatorsComparison {
         OpGOE() { super(">=", 2, true, PRECEDENCE_COMPARISON); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return (a >= b) ? 1 : 0;
         }
     }
@@ -195,8 +199,10 @@ public final class OperatorsComparison {
         OpLT() { super("<", 2, false, PRECEDENCE_COMPARISON); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return (a < b) ? 1 : 0;
         }
     }
@@ -207,8 +213,10 @@ public final class OperatorsComparison {
         OpLOE() { super("<=", 2, false, PRECEDENCE_COMPARISON); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return (a <= b) ? 1 : 0;
         }
     }
@@ -219,8 +227,10 @@ public final class OperatorsComparison {
         OpEqu() { super("==", 2, true, PRECEDENCE_EQUAL); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return Math.abs(a - b) < EQUALITY_THRESHOLD ? 1 : 0;
         }
     }
@@ -231,8 +241,10 @@ public final class OperatorsComparison {
         OpNeq() { super("!=", 2, true, PRECEDENCE_EQUAL); }
         @Override
         public double apply(double... args) {
-            final double a = args[0];
-            final double b = args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
             return Math.abs(a - b) >= EQUALITY_THRESHOLD ? 1 : 0;
         }
     }
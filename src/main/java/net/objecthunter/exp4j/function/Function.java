@@ -107,13 +107,57 @@ public abstract class Function implements Serializable {
     }
 
     /**
-     * Method that does the actual calculation of the function value given the arguments
+     * Method that does the actual calculation of the function value given the arguments.<br><br>
+     * <i><b>Note:</b></i> the {@code args} array is reused between evaluations, so
+     * implementations must not keep a reference to it.
      *
      * @param args the set of arguments used for calculating the function
      * @return the result of the function evaluation
      */
     public abstract double apply(double... args);
 
+    /**
+     * Applies a function that takes a single argument.<br><br>
+     * By default this method delegates to {@link #apply(double...)}, functions with a single
+     * argument should override it since the evaluator calls it directly (without creating an
+     * array).
+     *
+     * @param a the argument
+     * @return the result of the function evaluation
+     */
+    public double apply(double a) {
+        return apply(new double[]{a});
+    }
+
+    /**
+     * Applies a function that takes two arguments.<br><br>
+     * By default this method delegates to {@link #apply(double...)}, functions with two
+     * arguments should override it since the evaluator calls it directly (without creating an
+     * array).
+     *
+     * @param a the first argument
+     * @param b the second argument
+     * @return the result of the function evaluation
+     */
+    public double apply(double a, double b) {
+        return apply(new double[]{a, b});
+    }
+
+    /**
+     * Applies a function that takes three arguments.<br><br>
+     * By default this method delegates to {@link #apply(double...)}, functions with three
+     * arguments should override it since the evaluator calls it directly (without creating an
+     * array).
+     *
+     * @param a the first argument
+     * @param b the second argument
+     * @param c the third argument
+     * @return the result of the function evaluation
+     */
+    public double apply(double a, double b, double c) {
+        return apply(new double[]{a, b, c});
+    }
+
     /**
      * Tells if a function name is valid in the context of the expression.
      * This means that it's not {@code null} or empty, and it only contains
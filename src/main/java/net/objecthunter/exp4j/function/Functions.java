@@ -257,7 +257,11 @@ public final class Functions {
         Sin() { super("sin"); }
         @Override
         public double apply(double... args) {
-            return Math.sin(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.sin(a);
         }
     }
 
@@ -267,7 +271,11 @@ public final class Functions {
         Cos() { super("cos"); }
         @Override
         public double apply(double... args) {
-            return Math.cos(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.cos(a);
         }
     }
 
@@ -277,7 +285,11 @@ public final class Functions {
         Tan() { super("tan"); }
         @Override
         public double apply(double... args) {
-            return Math.tan(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.tan(a);
         }
     }
 
@@ -287,7 +299,11 @@ public final class Functions {
         Log() { super("log"); }
         @Override
         public double apply(double... args) {
-            return Math.log(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.log(a);
         }
     }
 
@@ -297,7 +313,11 @@ public final class Functions {
         Log2() { super("log2"); }
         @Override
         public double apply(double... args) {
-            return Math.log(args[0]) / Math.log(2d);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.log(a) / Math.log(2d);
         }
     }
 
@@ -307,7 +327,11 @@ public final class Functions {
         Log10() { super("log10"); }
         @Override
         public double apply(double... args) {
-            return Math.log10(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.log10(a);
         }
     }
 
@@ -317,7 +341,11 @@ public final class Functions {
         Log1p() { super("log1p"); }
         @Override
         public double apply(double... args) {
-            return Math.log1p(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.log1p(a);
         }
     }
 
@@ -327,7 +355,11 @@ public final class Functions {
         Abs() { super("abs"); }
         @Override
         public double apply(double... args) {
-            return Math.abs(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.abs(a);
         }
     }
 
@@ -337,7 +369,11 @@ public final class Functions {
         ACos() { super("acos"); }
         @Override
         public double apply(double... args) {
-            return Math.acos(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.acos(a);
         }
     }
 
@@ -347,7 +383,11 @@ public final class Functions {
         ASin() { super("asin"); }
         @Override
         public double apply(double... args) {
-            return Math.asin(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.asin(a);
         }
     }
 
@@ -357,7 +397,11 @@ public final class Functions {
         ATan() { super("atan"); }
         @Override
         public double apply(double... args) {
-            return Math.atan(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.atan(a);
         }
     }
 
@@ -367,7 +411,11 @@ public final class Functions {
         CBRT() { super("cbrt"); }
         @Override
         public double apply(double... args) {
-            return Math.cbrt(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.cbrt(a);
         }
     }
 
@@ -377,7 +425,11 @@ public final class Functions {
         Floor() { super("floor"); }
         @Override
         public double apply(double... args) {
-            return Math.floor(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.floor(a);
         }
     }
 
@@ -387,7 +439,11 @@ public final class Functions {
         Sinh() { super("sinh"); }
         @Override
         public double apply(double... args) {
-            return Math.sinh(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.sinh(a);
         }
     }
 
@@ -397,7 +453,11 @@ public final class Functions {
         Tanh() { super("tanh"); }
         @Override
         public double apply(double... args) {
-            return Math.tanh(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.tanh(a);
         }
     }
 
@@ -407,7 +467,11 @@ public final class Functions {
         Cosh() { super("cosh"); }
         @Override
         public double apply(double... args) {
-            return Math.cosh(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.cosh(a);
         }
     }
 
@@ -417,7 +481,11 @@ public final class Functions {
         Ceil() { super("ceil"); }
         @Override
         public double apply(double... args) {
-            return Math.ceil(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.ceil(a);
         }
     }
 
@@ -427,7 +495,11 @@ public final class Functions {
         Sqrt() { super("sqrt"); }
         @Override
         public double apply(double... args) {
-            return Math.sqrt(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.sqrt(a);
         }
     }
 
@@ -437,7 +509,11 @@ public final class Functions {
         Pow() { super("pow", 2); }
         @Override
         public double apply(double... args) {
-            return Math.pow(args[0], args[1]);
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            return Math.pow(a, b);
         }
     }
 
@@ -447,7 +523,11 @@ public final class Functions {
         Exp() { super("exp"); }
         @Override
         public double apply(double... args) {
-            return Math.exp(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.exp(a);
         }
     }
 
@@ -457,7 +537,11 @@ public final class Functions {
         Expm1() { super("expm1"); }
         @Override
         public double apply(double... args) {
-            return Math.expm1(args[0]);
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return Math.expm1(a);
         }
     }
 
@@ -467,9 +551,13 @@ public final class Functions {
         Signum() { super("signum"); }
         @Override
         public double apply(double... args) {
-            if (args[0] > 0) {
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            if (a > 0) {
                 return 1;
-            } else if (args[0] < 0) {
+            } else if (a < 0) {
                 return -1;
             } else {
                 return 0;
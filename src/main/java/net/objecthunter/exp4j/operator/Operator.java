@@ -85,6 +85,15 @@ public abstract class Operator implements Serializable {
         '>', '|', '=', '¬'
     };
 
+    /** Lookup table for {@link #ALLOWED_OPERATOR_CHARS}, all of them fit in a byte */
+    private static final boolean[] OPERATOR_CHARS = new boolean[256];
+
+    static {
+        for (char ch : ALLOWED_OPERATOR_CHARS) {
+            OPERATOR_CHARS[ch] = true;
+        }
+    }
+
     private final int numOperands;
     private final boolean leftAssociative;
     private final String symbol;
@@ -113,12 +122,7 @@ public abstract class Operator implements Serializable {
      * @return true if the char is allowed an operator symbol, false otherwise
      */
     public static boolean isAllowedOperatorChar(char ch) {
-        for (char allowed: ALLOWED_OPERATOR_CHARS) {
-            if (ch == allowed) {
-                return true;
-            }
-        }
-        return false;
+        return ch < OPERATOR_CHARS.length && OPERATOR_CHARS[ch];
     }
 
     /**
@@ -138,12 +142,37 @@ public abstract class Operator implements Serializable {
     }
 
     /**
-     * Apply the operation on the given operands
+     * Apply the operation on the given operands.<br><br>
+     * <i><b>Note:</b></i> the {@code args} array is reused between evaluations, so
+     * implementations must not keep a reference to it.
      * @param args the operands for the operation
      * @return the calculated result of the operation
      */
     public abstract double apply(double ... args);
 
+    /**
+     * Apply an unary operation.<br><br>
+     * By default this method delegates to {@link #apply(double...)}, unary operators should
+     * override it since the evaluator calls it directly (without creating an array).
+     * @param a the operand
+     * @return the calculated result of the operation
+     */
+    public double apply(double a) {
+        return apply(new double[]{a});
+    }
+
+    /**
+     * Apply a binary operation.<br><br>
+     * By default this method delegates to {@link #apply(double...)}, binary operators should
+     * override it since the evaluator calls it directly (without creating an array).
+     * @param a the left operand
+     * @param b the right operand
+     * @return the calculated result of the operation
+     */
+    public double apply(double a, double b) {
+        return apply(new double[]{a, b});
+    }
+
     /**
      * Get the operator symbol
      * @return the symbol
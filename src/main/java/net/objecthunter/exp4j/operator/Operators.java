@@ -121,7 +121,11 @@ public final class Operators {
         OpAdd() { super("+", 2, true, PRECEDENCE_ADDITION); }
         @Override
         public double apply(double... args) {
-            return args[0] + args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            return a + b;
         }
     }
 
@@ -131,7 +135,11 @@ public final class Operators {
         OpAddUnary() { super("+", 1, false, PRECEDENCE_UNARY_PLUS); }
         @Override
         public double apply(double... args) {
-            return args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return a;
         }
     }
 
@@ -141,7 +149,11 @@ public final class Operators {
         OpMinus() { super("-", 2, true, PRECEDENCE_ADDITION); }
         @Override
         public double apply(double... args) {
-            return args[0] - args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            return a - b;
         }
     }
 
@@ -151,7 +163,11 @@ public final class Operators {
         OpMinusUnary() { super("-", 1, false, PRECEDENCE_UNARY_MINUS); }
         @Override
         public double apply(double... args) {
-            return -args[0];
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return -a;
         }
     }
 
@@ -161,7 +177,11 @@ public final class Operators {
         OpMultiply() { super("*", 2, true, PRECEDENCE_MULTIPLICATION); }
         @Override
         public double apply(double... args) {
-            return args[0] * args[1];
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            return a * b;
         }
     }
 
@@ -171,10 +191,14 @@ public final class Operators {
         OpDivide() { super("/", 2, true, PRECEDENCE_DIVISION); }
         @Override
         public double apply(double... args) {
-            if (args[1] == 0d) {
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            if (b == 0d) {
                 throw new ArithmeticException(l10n("Division by zero!"));
             }
-            return args[0] / args[1];
+            return a / b;
         }
     }
 
@@ -184,7 +208,11 @@ public final class Operators {
         OpPower() { super("^", 2, false, PRECEDENCE_POWER); }
         @Override
         public double apply(double... args) {
-            return Math.pow(args[0], args[1]);
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            return Math.pow(a, b);
         }
     }
 
@@ -194,10 +222,14 @@ public final class Operators {
         OpModulo() { super("%", 2, true, PRECEDENCE_MODULO); }
         @Override
         public double apply(double... args) {
-            if (args[1] == 0d) {
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double a, double b) {
+            if (b == 0d) {
                 throw new ArithmeticException(l10n("Division by zero!"));
             }
-            return args[0] % args[1];
+            return a % b;
         }
     }
 
@@ -207,8 +239,12 @@ public final class Operators {
         OpAnd() { super("&", 2, true, PRECEDENCE_AND); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a & b) ? 1 : 0;
         }
     }
@@ -219,8 +255,12 @@ public final class Operators {
         OpOr() { super("|", 2, true, PRECEDENCE_OR); }
         @Override
         public double apply(double... args) {
-            final boolean a = Math.abs(args[0]) >= BOOLEAN_THRESHOLD;
-            final boolean b = Math.abs(args[1]) >= BOOLEAN_THRESHOLD;
+            return apply(args[0], args[1]);
+        }
+        @Override
+        public double apply(double x, double y) {
+            final boolean a = Math.abs(x) >= BOOLEAN_THRESHOLD;
+            final boolean b = Math.abs(y) >= BOOLEAN_THRESHOLD;
             return (a | b) ? 1 : 0;
         }
     }
@@ -231,7 +271,11 @@ public final class Operators {
         OpNot() { super("¬", 1, false, PRECEDENCE_NOT); }
         @Override
         public double apply(double... args) {
-            return (Math.abs(args[0]) < BOOLEAN_THRESHOLD) ? 1 : 0;
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            return (Math.abs(a) < BOOLEAN_THRESHOLD) ? 1 : 0;
         }
     }
 
@@ -241,8 +285,12 @@ public final class Operators {
         OpFactorial() { super("!", 1, true, Operator.PRECEDENCE_POWER + 1); }
         @Override
         public double apply(double... args) {
-            final int arg = (int) args[0];
-            if ((double) arg != args[0]) {
+            return apply(args[0]);
+        }
+        @Override
+        public double apply(double a) {
+            final int arg = (int) a;
+            if ((double) arg != a) {
                 String msg = "Operand for factorial has to be an integer";
                 throw new IllegalArgumentException(l10n(msg));
             }
@@ -15,11 +15,15 @@
  */
 package net.objecthunter.exp4j.shuntingyard;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.Map;
+import java.util.Set;
 
 import net.objecthunter.exp4j.function.Function;
 import net.objecthunter.exp4j.operator.Operator;
 import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.SymbolTable;
 import net.objecthunter.exp4j.tokenizer.Token;
 import net.objecthunter.exp4j.tokenizer.Tokenizer;
 
@@ -51,34 +55,76 @@ public final class ShuntingYard {
                                        final Map<String, Operator> userOperators,
                                        final Set<String> variableNames,
                                        final boolean useBuiltInFunctions){
-        final TokenStack stack  = new TokenStack();
-        final TokenStack output = new TokenStack();
-
-        final Tokenizer tokenizer = new Tokenizer(
+        return convertToRPN(
+                simplify,
                 expression,
-                userFunctions,
-                userOperators,
-                variableNames,
+                new SymbolTable(userFunctions, userOperators, variableNames),
                 useBuiltInFunctions
         );
+    }
+
+    /**
+     * Convert a Set of tokens from infix to reverse polish notation
+     * @param simplify tells the method to apply the simplifier to returned expression
+     * @param expression the expression to convert
+     * @param symbols the custom functions, operators and variables
+     * @param useBuiltInFunctions tells if builtin functions should be enabled
+     * @return a {@link net.objecthunter.exp4j.tokenizer.Token} array containing the result
+     */
+    public static Token[] convertToRPN(final boolean simplify,
+                                       final String expression,
+                                       final SymbolTable symbols,
+                                       final boolean useBuiltInFunctions){
+        /* Every char yields at most one token plus an implicit multiplication,
+           so both stacks can be allocated once */
+        final int capacity = 2 * expression.length() + 1;
+        final Token[] stack  = new Token[capacity];
+        final Token[] output = new Token[capacity];
+        int sp  = -1;
+        int out = 0;
+
+        final Tokenizer tokenizer = new Tokenizer(expression, symbols, useBuiltInFunctions);
         while (tokenizer.hasNext()) {
             Token token = tokenizer.nextToken();
             switch (token.getType()) {
-                case NUMBER, VARIABLE  -> output.push(token);
-                case FUNCTION          -> function(stack, token);
-                case SEPARATOR         -> separator(stack, output);
+                case NUMBER, VARIABLE  -> output[out++] = token;
+                case FUNCTION          -> {
+                    if (sp >= 0 && stack[sp].getType() == FUNCTION) {
+                        throw new IllegalArgumentException(l10n(
+                            "Mismatched parentheses detected. Please check the expression"
+                        ));
+                    }
+                    stack[++sp] = token;
+                }
+                case SEPARATOR         -> {
+                    while (sp >= 0 && stack[sp].getType() != PARENTHESES_OPEN) {
+                        output[out++] = stack[sp--];
+                    }
+                    if (sp < 0) {
+                        throw new IllegalArgumentException(l10n(
+                            "Misplaced function separator ',' or mismatched parentheses"
+                        ));
+                    }
+                }
                 case OPERATOR          -> {
-                    operator(stack, output, token);
-                    stack.push(token);
+                    final Operator o1 = ((OperatorToken) token).getOperator();
+                    while (sp >= 0 && stack[sp].getType() == OPERATOR &&
+                            pops(o1, ((OperatorToken) stack[sp]).getOperator())) {
+                        output[out++] = stack[sp--];
+                    }
+                    stack[++sp] = token;
                 }
-                case PARENTHESES_OPEN  -> stack.push(token);
+                case PARENTHESES_OPEN  -> stack[++sp] = token;
                 case PARENTHESES_CLOSE -> {
-                    while (stack.peek().getType() != PARENTHESES_OPEN) {
-                        output.push(stack.pop());
+                    while (sp >= 0 && stack[sp].getType() != PARENTHESES_OPEN) {
+                        output[out++] = stack[sp--];
                     }
-                    stack.pop();
-                    if (!stack.isEmpty() && stack.peek().getType() == FUNCTION) {
-                        output.push(stack.pop());
+                    if (sp < 0) {
+                        throw new EmptyStackException();
+                    }
+                    sp--;
+                    if (sp >= 0 && stack[sp].getType() == FUNCTION) {
+                        output[out++] = stack[sp--];
                     }
                 }
                 default -> {
@@ -87,59 +133,33 @@ public final class ShuntingYard {
             }
         }
 
-        while (!stack.isEmpty()) {
-            Token t = stack.pop();
+        while (sp >= 0) {
+            Token t = stack[sp--];
             if (t.getType() == PARENTHESES_CLOSE ||
                 t.getType() == PARENTHESES_OPEN) {
                 throw new IllegalArgumentException(l10n(
                     "Mismatched parentheses detected. Please check the expression"
                 ));
             } else {
-                output.push(t);
+                output[out++] = t;
             }
         }
 
         if (simplify) {
-            return Simplifier.simplify(output.toArray());
+            out = Simplifier.simplify(output, out);
         }
-        return output.toArray();
+        return Arrays.copyOf(output, out);
     }
 
-    private static void operator(TokenStack stack, TokenStack output, Token token) {
-        while (!stack.isEmpty() && stack.peek().getType() == OPERATOR) {
-            final Operator o1 = ((OperatorToken) token).getOperator();
-            final Operator o2 = ((OperatorToken) stack.peek()).getOperator();
-
-            if (o1.getNumOperands() == 1 && o2.getNumOperands() == 2) {
-                break;
-            } else if ((o1.isLeftAssociative()
-                        && (o1.getPrecedence() <= o2.getPrecedence()))
-                    || (o1.getPrecedence() < o2.getPrecedence())) {
-                output.push(stack.pop());
-            } else {
-                break;
-            }
-        }
-    }
-
-    private static void separator(TokenStack stack, TokenStack output) {
-        while (!stack.isEmpty() && stack.peek().getType() != PARENTHESES_OPEN) {
-            output.push(stack.pop());
-        }
-
-        if (stack.isEmpty() || stack.peek().getType() != PARENTHESES_OPEN) {
-            throw new IllegalArgumentException(l10n(
-                "Misplaced function separator ',' or mismatched parentheses"
-            ));
-        }
-    }
-
-    private static void function(TokenStack stack, Token token) {
-        if(!stack.isEmpty() && stack.peek().getType() == FUNCTION) {
-            throw new IllegalArgumentException(l10n(
-                "Mismatched parentheses detected. Please check the expression"
-            ));
+    /**
+     * Tells if the operator on top of the stack ({@code o2}) must be moved to the output
+     * before pushing {@code o1}.
+     */
+    private static boolean pops(Operator o1, Operator o2) {
+        if (o1.getNumOperands() == 1 && o2.getNumOperands() == 2) {
+            return false;
         }
-        stack.push(token);
+        return (o1.isLeftAssociative() && (o1.getPrecedence() <= o2.getPrecedence()))
+            || (o1.getPrecedence() < o2.getPrecedence());
     }
 }
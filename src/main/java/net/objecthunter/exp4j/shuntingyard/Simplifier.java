@@ -15,6 +15,9 @@
  */
 package net.objecthunter.exp4j.shuntingyard;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
 import net.objecthunter.exp4j.operator.Operator;
 import net.objecthunter.exp4j.tokenizer.FunctionToken;
 import net.objecthunter.exp4j.tokenizer.NumberToken;
@@ -34,51 +37,60 @@ final class Simplifier {
     }
 
     public static Token[] simplify (Token[] tokens) {
-        final TokenStack output = new TokenStack(tokens.length);
-        for (Token t : tokens) {
+        final Token[] output = tokens.clone();
+        return Arrays.copyOf(output, simplify(output, output.length));
+    }
+
+    /**
+     * Simplifies the first {@code length} tokens in place. The folded expression is never
+     * longer than what has been read, so the output can overwrite the input.
+     *
+     * @param tokens RPN to simplify, it will be overwritten with the result
+     * @param length number of tokens
+     * @return number of tokens after the simplification
+     */
+    static int simplify(Token[] tokens, int length) {
+        int out = 0;
+        for (int i = 0; i < length; i++) {
+            final Token t = tokens[i];
             switch(t.getType()) {
                 case NUMBER:
                 case VARIABLE:
-                    output.push(t);
+                    tokens[out++] = t;
                     break;
                 case OPERATOR:
                     final OperatorToken op  = (OperatorToken) t;
                     final Operator operator = op.getOperator();
 
-                    if (output.size()  < operator.getNumOperands()) {
+                    if (out < operator.getNumOperands()) {
                         throw new IllegalArgumentException(Text.l10n(
                                 "Invalid number of operands available"
                         ));
                     }
 
                     if (operator.getNumOperands() == 2) {
-                        final Token rightArg = output.pop();
-                        final Token leftArg  = output.pop();
+                        final Token rightArg = tokens[out - 1];
+                        final Token leftArg  = tokens[out - 2];
 
                         if (rightArg.getType() == NUMBER &&
                             leftArg .getType() == NUMBER) {
-
-                            output.push(new NumberToken(operator.apply(
+                            out--;
+                            tokens[out - 1] = new NumberToken(operator.apply(
                                     ((NumberToken)leftArg ).getValue(),
                                     ((NumberToken)rightArg).getValue()
-                                ))
-                            );
+                            ));
                         } else {
-                            output.push(leftArg);
-                            output.push(rightArg);
-                            output.push(t);
+                            tokens[out++] = t;
                         }
                     } else if (operator.getNumOperands() == 1) {
-                        final Token arg = output.pop();
+                        final Token arg = tokens[out - 1];
 
                         if (arg.getType() == NUMBER) {
-                            output.push(new NumberToken(operator.apply(
+                            tokens[out - 1] = new NumberToken(operator.apply(
                                     ((NumberToken)arg).getValue()
-                                ))
-                            );
+                            ));
                         } else {
-                            output.push(arg);
-                            output.push(t);
+                            tokens[out++] = t;
                         }
                     }
                     break;
@@ -86,41 +98,32 @@ final class Simplifier {
                     final FunctionToken func = (FunctionToken) t;
                     final int numArgs = func.getFunction().getNumArguments();
 
-                    //collect the arguments from the stack
-                    final Token[] args = new Token[numArgs];
-                    boolean areNumbers = true;
+                    if (out < numArgs) {
+                        throw new EmptyStackException();
+                    }
 
-                    for (int j = 0; j < numArgs; j++) {
-                        args[j] = output.pop();
-                        areNumbers &= args[j].getType() == NUMBER;
+                    //check the arguments on top of the stack
+                    boolean areNumbers = true;
+                    for (int j = out - numArgs; j < out; j++) {
+                        areNumbers &= tokens[j].getType() == NUMBER;
                     }
 
                     if (areNumbers && func.getFunction().isDeterministic()) {
-                        output.push(new NumberToken(
-                                func.getFunction().apply(reverseInPlace(args)))
-                        );
-                    } else {
-                        for (int i = args.length - 1; i >= 0; i--) {
-                            output.push(args[i]);
+                        final double[] args = new double[numArgs];
+                        for (int j = 0; j < numArgs; j++) {
+                            args[j] = ((NumberToken) tokens[out - numArgs + j]).getValue();
                         }
-                        output.push(t);
+                        out -= numArgs;
+                        tokens[out++] = new NumberToken(func.getFunction().apply(args));
+                    } else {
+                        tokens[out++] = t;
                     }
+                    break;
                 default:
                     //Do nothing
             }
         }
 
-        return output.toArray();
-    }
-
-    private static double[] reverseInPlace(Token[] args) {
-        final double[] nargs = new double[args.length];
-
-        final int sz = args.length - 1;
-        for (int j = 0; j <= sz; j++) {
-            nargs[j] = ((NumberToken)args[sz - j]).getValue();
-        }
-
-        return nargs;
+        return out;
     }
 }
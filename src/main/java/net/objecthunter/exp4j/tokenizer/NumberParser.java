@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.tokenizer;
+
+import java.math.BigInteger;
+
+/**
+ * Parses decimal literals straight from the expression chars.<br><br>
+ * Literals with up to 19 significant digits are converted without creating a {@link String}:
+ * first with Clinger's fast path (exact when both the digits and the power of ten fit in a
+ * {@code double}) and then with the Eisel-Lemire algorithm, which multiplies the digits by a
+ * 128 bit approximation of the power of ten. Both are correctly rounded, and whenever
+ * Eisel-Lemire can't decide the rounding (or the literal is too long, out of range or
+ * malformed) the literal is handed to {@link Double#parseDouble(String)}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class NumberParser {
+    /** Range of the powers of ten in {@link #POW5_HI} and {@link #POW5_LO} */
+    private static final int MIN_EXP10 = -342;
+
+    private static final int MAX_EXP10 = 308;
+
+    /** Exactly representable powers of ten */
+    private static final double[] POW10 = {
+        1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Largest number of digits that always fit in an unsigned {@code long} */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * Upper (and lower) 64 bits of the normalized 128 bit mantissa of {@code 5^q} (which is
+     * also the mantissa of {@code 10^q}), rounded down.
+     */
+    private static final long[] POW5_HI = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+    private static final long[] POW5_LO = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+    static {
+        final BigInteger five = BigInteger.valueOf(5);
+        BigInteger power5 = BigInteger.ONE;
+        for (int q = 0; q <= MAX_EXP10; q++) {
+            final int bits = power5.bitLength();
+            store(q, bits < 128 ? power5.shiftLeft(128 - bits) : power5.shiftRight(bits - 128));
+            power5 = power5.multiply(five);
+        }
+        power5 = five;
+        for (int q = -1; q >= MIN_EXP10; q--) {
+            //5^-q isn't a power of two, so this quotient always has exactly 128 bits
+            store(q, BigInteger.ONE.shiftLeft(power5.bitLength() + 127).divide(power5));
+            power5 = power5.multiply(five);
+        }
+    }
+
+    private static void store(int q, BigInteger mantissa) {
+        POW5_HI[q - MIN_EXP10] = mantissa.shiftRight(64).longValue();
+        POW5_LO[q - MIN_EXP10] = mantissa.longValue();
+    }
+
+    private NumberParser() {
+        // Don't let anyone initialize this class
+    }
+
+    /**
+     * Parses a decimal literal ({@code digits[.digits][(e|E)[+|-]digits]}).
+     *
+     * @param chars chars of the expression
+     * @param offset first char of the literal
+     * @param len length of the literal
+     * @return the closest {@code double} to the literal
+     * @throws NumberFormatException if the literal is malformed
+     */
+    static double parse(char[] chars, int offset, int len) {
+        final int end = offset + len;
+        int i = offset;
+        long digits = 0;
+        int count = 0;
+        int scale = 0;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < end; i++) {
+            final char ch = chars[i];
+            if (ch >= '0' && ch <= '9') {
+                any = true;
+                if (count == 0 && ch == '0') {
+                    scale -= dot ? 1 : 0;
+                    continue;
+                }
+                if (count == MAX_DIGITS) {
+                    return fallback(chars, offset, len);
+                }
+                digits = digits * 10 + (ch - '0');
+                count++;
+                scale -= dot ? 1 : 0;
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) {
+            return fallback(chars, offset, len);
+        }
+        if (i < end) {
+            if (chars[i] != 'e' && chars[i] != 'E' || ++i == end) {
+                return fallback(chars, offset, len);
+            }
+            final boolean negative = chars[i] == '-';
+            if (negative || chars[i] == '+') {
+                i++;
+            }
+            if (i == end) {
+                return fallback(chars, offset, len);
+            }
+            int exponent = 0;
+            for (; i < end; i++) {
+                final char ch = chars[i];
+                if (ch < '0' || ch > '9') {
+                    return fallback(chars, offset, len);
+                }
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (ch - '0');
+                }
+            }
+            scale += negative ? -exponent : exponent;
+        }
+        if (digits == 0) {
+            return 0.0;
+        }
+        //Clinger's fast path, both operands are exact so the result is correctly rounded
+        if (Long.compareUnsigned(digits, 1L << 53) <= 0 && scale >= -22 && scale <= 22) {
+            return scale < 0 ? digits / POW10[-scale] : digits * POW10[scale];
+        }
+        final double value = eiselLemire(digits, scale);
+        return Double.isNaN(value) ? fallback(chars, offset, len) : value;
+    }
+
+    /**
+     * @param w decimal digits (unsigned and non zero)
+     * @param q power of ten
+     * @return {@code w * 10^q} or {@code NaN} if the result can't be decided
+     */
+    private static double eiselLemire(long w, int q) {
+        if (q < MIN_EXP10 || q > MAX_EXP10) {
+            return Double.NaN;
+        }
+        final int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        long exp2 = ((217706L * q) >> 16) + 64 + 1023 - lz;
+
+        final long powHi = POW5_HI[q - MIN_EXP10];
+        long hi = unsignedMultiplyHigh(w, powHi);
+        long lo = w * powHi;
+        if ((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + w, w) < 0) {
+            //The truncated product might be off, so the lower half of the power is needed
+            final long powLo = POW5_LO[q - MIN_EXP10];
+            final long yHi = unsignedMultiplyHigh(w, powLo);
+            final long yLo = w * powLo;
+            long mergedHi = hi;
+            final long mergedLo = lo + yHi;
+            if (Long.compareUnsigned(mergedLo, lo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo == -1L && Long.compareUnsigned(yLo + w, w) < 0) {
+                return Double.NaN;
+            }
+            hi = mergedHi;
+            lo = mergedLo;
+        }
+
+        final long msb = hi >>> 63;
+        long mantissa = hi >>> (msb + 9);
+        exp2 -= 1 ^ msb;
+        if (lo == 0 && (hi & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            //Exactly half way between two doubles, let the slow path break the tie
+            return Double.NaN;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if ((mantissa >>> 53) > 0) {
+            mantissa >>>= 1;
+            exp2++;
+        }
+        if (exp2 <= 0 || exp2 >= 0x7FF) {
+            //Subnormal or infinite
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(exp2 << 52 | mantissa & 0x000F_FFFF_FFFF_FFFFL);
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static double fallback(char[] chars, int offset, int len) {
+        return Double.parseDouble(String.valueOf(chars, offset, len));
+    }
+}
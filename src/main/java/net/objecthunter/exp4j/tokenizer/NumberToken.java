@@ -35,10 +35,6 @@ public final class NumberToken extends Token {
         this.value = value;
     }
 
-    NumberToken(final char[] expression, final int offset, final int len) {
-        this(Double.parseDouble(String.valueOf(expression, offset, len)));
-    }
-
     /**
      * Get the value of the number
      * @return the value
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.tokenizer;
+
+import java.util.Map;
+import java.util.Set;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
+/**
+ * User defined symbols (functions, operators and variables) ready to be looked up by the
+ * {@link Tokenizer}.<br><br>
+ * The table is immutable once created, so it can be shared by any number of tokenizers (even
+ * concurrently) and the symbols are only indexed once. Expressions tokenized with the same
+ * table share the tokens of its functions, operators and variables.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class SymbolTable {
+    /** Symbols of the user operators, each one holding its token */
+    final SymbolTrie operators = new SymbolTrie();
+
+    /** Names of the variables and user functions, each one holding its token */
+    final SymbolTrie names = new SymbolTrie();
+
+    /**
+     * Creates a new table, any of the arguments can be {@code null}.
+     *
+     * @param userFunctions the custom functions by name
+     * @param userOperators the custom operators by symbol
+     * @param variableNames the variable names
+     */
+    public SymbolTable(final Map<String, Function> userFunctions,
+                       final Map<String, Operator> userOperators,
+                       final Set<String> variableNames) {
+        if (userOperators != null) {
+            for (Map.Entry<String, Operator> o : userOperators.entrySet()) {
+                operators.put(o.getKey(), new OperatorToken(o.getValue()));
+            }
+        }
+        if (userFunctions != null) {
+            for (Map.Entry<String, Function> f : userFunctions.entrySet()) {
+                names.put(f.getKey(), new FunctionToken(f.getValue()));
+            }
+        }
+        //Variables take precedence just like they did when they were looked up first
+        if (variableNames != null) {
+            for (String vn : variableNames) {
+                names.put(vn, new VariableToken(vn));
+            }
+        }
+    }
+}
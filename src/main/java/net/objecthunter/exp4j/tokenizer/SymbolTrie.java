@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * Character trie used to resolve variable and function names.<br><br>
+ * The tokenizer walks the trie one char at a time, so the longest name
+ * matching the expression is found in a single pass without creating any
+ * substrings. Each node keeps its children in a small array since names
+ * rarely share more than a couple of prefixes.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class SymbolTrie {
+    private final Node root = new Node();
+
+    /**
+     * Associates a name with a value, replacing the previous value (if any).
+     *
+     * @param name name of the symbol
+     * @param value value of the symbol
+     */
+    void put(String name, Object value) {
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.childOrCreate(name.charAt(i));
+        }
+        node.value = value;
+    }
+
+    /**
+     * @return root of the trie (the empty name)
+     */
+    Node root() {
+        return root;
+    }
+
+    static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        /** Value of the name ending in this node or {@code null} if there's none */
+        Object value;
+
+        /**
+         * @param ch next char of the name
+         * @return child for the given char or {@code null} if no name continues with it
+         */
+        Node child(char ch) {
+            final char[] keys = this.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == ch) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char ch) {
+            Node child = child(ch);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = ch;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
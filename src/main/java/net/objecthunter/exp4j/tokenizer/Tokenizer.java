@@ -15,7 +15,7 @@
  */
 package net.objecthunter.exp4j.tokenizer;
 
-import java.util.TreeMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -29,15 +29,48 @@ import static net.objecthunter.exp4j.utils.Text.l10n;
 
 public final class Tokenizer {
 
+    /* Structural tokens carry no state, so they are shared by every expression */
+    private static final Token OPEN_PARENTHESES = new OpenParenthesesToken();
+
+    private static final Token CLOSE_PARENTHESES = new CloseParenthesesToken();
+
+    private static final Token SEPARATOR_TOKEN = new ArgumentSeparatorToken();
+
+    /** Tokens of the built-in operators, which are immutable too */
+    private static final Map<Operator, OperatorToken> BUILTIN_OPERATORS = new IdentityHashMap<>();
+
+    static {
+        for (Operator op : Operators.getOperators()) {
+            BUILTIN_OPERATORS.put(op, new OperatorToken(op));
+        }
+    }
+
+    private static final OperatorToken IMPLICIT_MULTIPLICATION =
+            BUILTIN_OPERATORS.get(Operators.getBuiltinOperator('*', 2));
+
+    /** Names of the built-in functions, each one holding its token */
+    private static final SymbolTrie BUILTIN_FUNCTIONS = new SymbolTrie();
+
+    static {
+        for (Function f : Functions.getFunctions()) {
+            BUILTIN_FUNCTIONS.put(f.getName(), new FunctionToken(f));
+        }
+    }
+
     private final char[] expression;
 
     private final int expressionLength;
 
-    private final Map<String, Function> userFunctions;
+    /** Symbols of the user operators, each one holding its (immutable) token */
+    private final SymbolTrie operators;
+
+    /** Names of the variables and user functions */
+    private final SymbolTrie symbols;
 
-    private final Map<String, Operator> userOperators;
+    /** Distinct literals found so far, see {@link #numberToken(double)} */
+    private NumberToken[] numbers;
 
-    private final Map<String, VariableToken> variableTokens;
+    private int numberCount;
 
     private int pos = 0;
 
@@ -50,18 +83,24 @@ public final class Tokenizer {
                     final Map<String, Operator> userOperators,
                     final Set<String> variableNames,
                     final boolean useBuiltInFunctions) {
+        this(expression, new SymbolTable(userFunctions, userOperators, variableNames), useBuiltInFunctions);
+    }
+
+    /**
+     * Creates a tokenizer that looks up the user symbols in an existing table.
+     *
+     * @param expression the expression to tokenize
+     * @param symbols the custom functions, operators and variables
+     * @param useBuiltInFunctions tells if builtin functions should be enabled
+     */
+    public Tokenizer(final String expression,
+                    final SymbolTable symbols,
+                    final boolean useBuiltInFunctions) {
         this.expression = expression.trim().toCharArray();
         this.expressionLength = this.expression.length;
-        this.userFunctions = userFunctions;
-        this.userOperators = userOperators;
         this.useBuiltInFunctions = useBuiltInFunctions;
-
-        variableTokens = new TreeMap<>();
-        if (variableNames != null) {
-            for (String vn : variableNames) {
-                variableTokens.put(vn, new VariableToken(vn));
-            }
-        }
+        this.operators = symbols.operators;
+        this.symbols = symbols.names;
     }
 
     public boolean hasNext() {
@@ -84,7 +123,7 @@ public final class Tokenizer {
                          && lastToken.getType() != FUNCTION
                          && lastToken.getType() != SEPARATOR)) {
                     // insert an implicit multiplication token
-                    lastToken = new OperatorToken(Operators.getBuiltinOperator('*', 2));
+                    lastToken = IMPLICIT_MULTIPLICATION;
                     return lastToken;
                 }
             }
@@ -98,7 +137,7 @@ public final class Tokenizer {
                   && lastToken.getType() != FUNCTION
                   && lastToken.getType() != SEPARATOR)) {
                 // insert an implicit multiplication token
-                lastToken = new OperatorToken(Operators.getBuiltinOperator('*', 2));
+                lastToken = IMPLICIT_MULTIPLICATION;
                 return lastToken;
             }
             return parseParentheses(true);
@@ -114,7 +153,7 @@ public final class Tokenizer {
                   && lastToken.getType() != FUNCTION
                   && lastToken.getType() != SEPARATOR)) {
                 // insert an implicit multiplication token
-                lastToken = new OperatorToken(Operators.getBuiltinOperator('*', 2));
+                lastToken = IMPLICIT_MULTIPLICATION;
                 return lastToken;
             }
             return parseFunctionOrVariable();
@@ -127,7 +166,7 @@ public final class Tokenizer {
 
     private Token parseArgumentSeparatorToken() {
         this.pos++;
-        this.lastToken = new ArgumentSeparatorToken();
+        this.lastToken = SEPARATOR_TOKEN;
         return lastToken;
     }
 
@@ -136,11 +175,7 @@ public final class Tokenizer {
     }
 
     private Token parseParentheses(final boolean open) {
-        if (open) {
-            lastToken = new OpenParenthesesToken();
-        } else {
-            lastToken = new CloseParenthesesToken();
-        }
+        lastToken = open ? OPEN_PARENTHESES : CLOSE_PARENTHESES;
         pos++;
         return lastToken;
     }
@@ -155,109 +190,88 @@ public final class Tokenizer {
 
     private Token parseFunctionOrVariable() {
         final int offset = this.pos;
-        int testPos;
-        int lastValidLen = 1;
-        Token lastValidToken = null;
-        int len = 1;
-
-        if (isEndOfExpression(offset)) {
-            this.pos++;
-        }
-
-        testPos = offset + len - 1;
-        while (!isEndOfExpression(testPos) &&
-                isVariableOrFunctionCharacter(expression[testPos])) {
-            String name = new String(expression, offset, len);
-            if (variableTokens.containsKey(name)) {
-                lastValidLen = len;
-                lastValidToken = variableTokens.get(name);
-            } else {
-                final Function f = getFunction(name);
-                if (f != null) {
-                    lastValidLen = len;
-                    lastValidToken = new FunctionToken(f);
-                }
+        SymbolTrie.Node user = symbols.root();
+        SymbolTrie.Node builtin = useBuiltInFunctions ? BUILTIN_FUNCTIONS.root() : null;
+        Object lastValid = null;
+        int lastValidLen = 0;
+
+        /* Walk both tries at once, user names hide the built-in ones */
+        int end = offset;
+        while ((user != null || builtin != null) &&
+                !isEndOfExpression(end) &&
+                isVariableOrFunctionCharacter(expression[end])) {
+            final char ch = expression[end++];
+            user = user == null ? null : user.child(ch);
+            builtin = builtin == null ? null : builtin.child(ch);
+            Object value = user == null ? null : user.value;
+            if (value == null && builtin != null) {
+                value = builtin.value;
+            }
+            if (value != null) {
+                lastValid = value;
+                lastValidLen = end - offset;
             }
-            len++;
-            testPos = offset + len - 1;
         }
 
-        if (lastValidToken == null) {
+        if (lastValid == null) {
+            int len = 1;
+            while (!isEndOfExpression(offset + len - 1) &&
+                    isVariableOrFunctionCharacter(expression[offset + len - 1])) {
+                len++;
+            }
             throw new UnknownFunctionOrVariableException(new String(expression), pos, len);
         }
 
         pos += lastValidLen;
-        lastToken = lastValidToken;
+        lastToken = (Token) lastValid;
 
         return lastToken;
     }
 
-    private Function getFunction(String name) {
-        Function f = null;
-
-        if (this.userFunctions != null) {
-            f = this.userFunctions.get(name);
-        }
-
-        if (f == null && useBuiltInFunctions) {
-            f = Functions.getBuiltinFunction(name);
-        }
-
-        return f;
-    }
-
     private Token parseOperatorToken(char firstChar) {
-        final int offset = this.pos;
-        int len = 1;
-        final StringBuilder symbol = new StringBuilder();
-        Operator lastValid = null;
-        symbol.append(firstChar);
-
-        while (!isEndOfExpression(offset + len)  && Operator.isAllowedOperatorChar(expression[offset + len])) {
-            symbol.append(expression[offset + len++]);
-        }
-
-        while (symbol.length() > 0) {
-            Operator op = this.getOperator(symbol.toString());
-            if (op == null) {
-                symbol.setLength(symbol.length() - 1);
-            }else{
-                lastValid = op;
+        //Longest user operator starting here, the walk stops at the first char that can't extend it
+        SymbolTrie.Node node = operators.root();
+        Object lastValid = null;
+        int lastValidLen = 0;
+        int len = 0;
+        while (!isEndOfExpression(pos + len) && Operator.isAllowedOperatorChar(expression[pos + len])) {
+            node = node.child(expression[pos + len++]);
+            if (node == null) {
                 break;
             }
+            if (node.value != null) {
+                lastValid = node.value;
+                lastValidLen = len;
+            }
+        }
+
+        if (lastValid == null) {
+            final Operator builtin = getBuiltinOperator(firstChar);
+            lastValid = builtin == null ? null : BUILTIN_OPERATORS.get(builtin);
+            lastValidLen = 1;
         }
 
-        pos += symbol.length();
-        lastToken = new OperatorToken(lastValid);
+        pos += lastValidLen;
+        lastToken = lastValid != null ? (OperatorToken) lastValid : new OperatorToken(null);
         return lastToken;
     }
 
-    private Operator getOperator(String symbol) {
-        Operator op = null;
-
-        if (this.userOperators != null) {
-            op = this.userOperators.get(symbol);
-        }
-
-        if (op == null && symbol.length() == 1) {
-            int argc = 2;
-            if (lastToken == null) {
+    private Operator getBuiltinOperator(char symbol) {
+        int argc = 2;
+        if (lastToken == null) {
+            argc = 1;
+        } else {
+            TokenType lastTokenType = lastToken.getType();
+            if (lastTokenType == PARENTHESES_OPEN || lastTokenType == SEPARATOR) {
                 argc = 1;
-            } else {
-                TokenType lastTokenType = lastToken.getType();
-                if (lastTokenType == PARENTHESES_OPEN || lastTokenType == SEPARATOR) {
+            } else if (lastTokenType == OPERATOR) {
+                final Operator lastOp = ((OperatorToken) lastToken).getOperator();
+                if (lastOp.getNumOperands() == 2 || (lastOp.getNumOperands() == 1 && !lastOp.isLeftAssociative())) {
                     argc = 1;
-                } else if (lastTokenType == OPERATOR) {
-                    final Operator lastOp = ((OperatorToken) lastToken).getOperator();
-                    if (lastOp.getNumOperands() == 2 || (lastOp.getNumOperands() == 1 && !lastOp.isLeftAssociative())) {
-                        argc = 1;
-                    }
                 }
-
             }
-            op = Operators.getBuiltinOperator(symbol.charAt(0), argc);
         }
-        return op;
+        return Operators.getBuiltinOperator(symbol, argc);
     }
 
     private Token parseNumberToken(final char firstChar) {
@@ -265,11 +279,6 @@ public final class Tokenizer {
         int len = 1;
         this.pos++;
 
-        if (isEndOfExpression(offset + len)) {
-            lastToken = new NumberToken(Double.parseDouble(String.valueOf(firstChar)));
-            return lastToken;
-        }
-
         while (!isEndOfExpression(offset + len) &&
                 isNumeric(expression[offset + len], expression[offset + len - 1] == 'e' ||
                         expression[offset + len - 1] == 'E')) {
@@ -284,24 +293,66 @@ public final class Tokenizer {
             pos--;
         }
 
-        lastToken = new NumberToken(expression, offset, len);
+        lastToken = numberToken(NumberParser.parse(expression, offset, len));
         return lastToken;
     }
 
+    /**
+     * Number tokens are immutable, so every literal with the same value shares its token. They
+     * are kept in an open addressing table indexed by the bits of the value.
+     */
+    private NumberToken numberToken(double value) {
+        if (numbers == null) {
+            numbers = new NumberToken[16];
+        }
+        final long bits = Double.doubleToRawLongBits(value);
+        int i = slot(numbers, bits);
+        if (numbers[i] != null) {
+            return numbers[i];
+        }
+        final NumberToken token = new NumberToken(value);
+        numbers[i] = token;
+        if (++numberCount * 2 > numbers.length) {
+            final NumberToken[] old = numbers;
+            numbers = new NumberToken[old.length * 2];
+            for (NumberToken t : old) {
+                if (t != null) {
+                    numbers[slot(numbers, Double.doubleToRawLongBits(t.getValue()))] = t;
+                }
+            }
+        }
+        return token;
+    }
+
+    /** Slot holding the given value or the empty slot where it should go */
+    private static int slot(NumberToken[] table, long bits) {
+        final int mask = table.length - 1;
+        final int h = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (table[i] != null && Double.doubleToRawLongBits(table[i].getValue()) != bits) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
     private static boolean isNumeric(char ch, boolean lastCharE) {
         return Character.isDigit(ch) || ch == '.' || ch == 'e' || ch == 'E' ||
                 (lastCharE && (ch == '-' || ch == '+'));
     }
 
-    private static boolean isAlphabetic(int codePoint) {
-        return Character.isLetter(codePoint);
+    private static boolean isAlphabetic(char ch) {
+        if (ch < 128) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+        }
+        return Character.isLetter(ch);
     }
 
-    private static boolean isVariableOrFunctionCharacter(int codePoint) {
-        return isAlphabetic(codePoint) ||
-                Character.isDigit(codePoint) ||
-                codePoint == '_' ||
-                codePoint == '.';
+    private static boolean isVariableOrFunctionCharacter(char ch) {
+        if (ch < 128) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') ||
+                   (ch >= '0' && ch <= '9') || ch == '_' || ch == '.';
+        }
+        return Character.isLetter(ch) || Character.isDigit(ch);
     }
 
     private boolean isEndOfExpression(int offset) {
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
+
+import static net.objecthunter.exp4j.operator.Operator.BOOLEAN_THRESHOLD;
+
+/**
+ * Batch kernels that use the {@code jdk.incubator.vector} API, so the arithmetic, comparison
+ * and boolean operators (and {@code min}/{@code max}) are applied to a whole SIMD register of
+ * rows at once.<br><br>
+ * Only operations that give exactly the same results as the scalar path are vectorized, the
+ * lanewise {@code POW} of the Vector API isn't as accurate as {@link Math#pow(double, double)}
+ * so {@code ^} and {@code pow} are left to the scalar kernels.<br><br>
+ * This class is only built by the {@code simd} profile of the {@code pom.xml} and it's only
+ * loaded if the module is available at runtime
+ * ({@code --add-modules jdk.incubator.vector}).
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+final class VectorKernels extends ScalarKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final Operator AND = Operators.getBuiltinOperator('&', 2);
+    private static final Operator OR  = Operators.getBuiltinOperator('|', 2);
+    private static final Operator NOT = Operators.getBuiltinOperator('¬', 1);
+
+    private enum Kind {
+        ADD, SUB, MUL, DIV, MIN, MAX, GT, GOE, LT, LOE, EQU, NEQ, AND, OR
+    }
+
+    @Override
+    public boolean binary(Operator op, double[] a, double[] b, int len) {
+        final Kind kind = kind(op);
+        if (kind == null) {
+            return false;
+        }
+        if (kind == Kind.DIV) {
+            checkDivisor(b, len);
+        }
+        apply(kind, a, b, len);
+        return true;
+    }
+
+    @Override
+    public boolean unary(Operator op, double[] a, int len) {
+        if (op == MINUS) {
+            final int bound = SPECIES.loopBound(len);
+            int r = 0;
+            for (; r < bound; r += SPECIES.length()) {
+                DoubleVector.fromArray(SPECIES, a, r).neg().intoArray(a, r);
+            }
+            for (; r < len; r++) {
+                a[r] = -a[r];
+            }
+            return true;
+        }
+        if (op == NOT) {
+            final DoubleVector one = DoubleVector.broadcast(SPECIES, 1d);
+            final DoubleVector zero = DoubleVector.zero(SPECIES);
+            final int bound = SPECIES.loopBound(len);
+            int r = 0;
+            for (; r < bound; r += SPECIES.length()) {
+                final VectorMask<Double> m = DoubleVector.fromArray(SPECIES, a, r)
+                        .abs().compare(VectorOperators.LT, BOOLEAN_THRESHOLD);
+                zero.blend(one, m).intoArray(a, r);
+            }
+            for (; r < len; r++) {
+                a[r] = Math.abs(a[r]) < BOOLEAN_THRESHOLD ? 1 : 0;
+            }
+            return true;
+        }
+        return op == PLUS;
+    }
+
+    @Override
+    public boolean function(Function func, double[][] stack, int sp, int len) {
+        final Kind kind;
+        if (func == FunctionsMisc.MIN) {
+            kind = Kind.MIN;
+        } else if (func == FunctionsMisc.MAX) {
+            kind = Kind.MAX;
+        } else {
+            return false;
+        }
+        apply(kind, stack[sp], stack[sp + 1], len);
+        return true;
+    }
+
+    private static Kind kind(Operator op) {
+        if (op == ADD) {
+            return Kind.ADD;
+        } else if (op == SUB) {
+            return Kind.SUB;
+        } else if (op == MUL) {
+            return Kind.MUL;
+        } else if (op == DIV) {
+            return Kind.DIV;
+        } else if (op == AND) {
+            return Kind.AND;
+        } else if (op == OR) {
+            return Kind.OR;
+        } else if (op == OperatorsComparison.OP_GT) {
+            return Kind.GT;
+        } else if (op == OperatorsComparison.OP_GOE) {
+            return Kind.GOE;
+        } else if (op == OperatorsComparison.OP_LT) {
+            return Kind.LT;
+        } else if (op == OperatorsComparison.OP_LOE) {
+            return Kind.LOE;
+        } else if (op == OperatorsComparison.OP_EQU) {
+            return Kind.EQU;
+        } else if (op == OperatorsComparison.OP_NEQ) {
+            return Kind.NEQ;
+        }
+        return null;
+    }
+
+    private static void apply(Kind kind, double[] a, double[] b, int len) {
+        final DoubleVector one = DoubleVector.broadcast(SPECIES, 1d);
+        final DoubleVector zero = DoubleVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(len);
+        int r = 0;
+        for (; r < bound; r += SPECIES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, a, r);
+            final DoubleVector y = DoubleVector.fromArray(SPECIES, b, r);
+            final DoubleVector res = switch (kind) {
+                case ADD -> x.add(y);
+                case SUB -> x.sub(y);
+                case MUL -> x.mul(y);
+                case DIV -> x.div(y);
+                case MIN -> x.min(y);
+                case MAX -> x.max(y);
+                case GT  -> zero.blend(one, x.compare(VectorOperators.GT, y));
+                case GOE -> zero.blend(one, x.compare(VectorOperators.GE, y));
+                case LT  -> zero.blend(one, x.compare(VectorOperators.LT, y));
+                case LOE -> zero.blend(one, x.compare(VectorOperators.LE, y));
+                case EQU -> zero.blend(one, x.sub(y).abs()
+                                 .compare(VectorOperators.LT, OperatorsComparison.EQUALITY_THRESHOLD));
+                case NEQ -> zero.blend(one, x.sub(y).abs()
+                                 .compare(VectorOperators.GE, OperatorsComparison.EQUALITY_THRESHOLD));
+                case AND -> zero.blend(one, x.abs().compare(VectorOperators.GE, BOOLEAN_THRESHOLD)
+                                 .and(y.abs().compare(VectorOperators.GE, BOOLEAN_THRESHOLD)));
+                case OR  -> zero.blend(one, x.abs().compare(VectorOperators.GE, BOOLEAN_THRESHOLD)
+                                 .or(y.abs().compare(VectorOperators.GE, BOOLEAN_THRESHOLD)));
+            };
+            res.intoArray(a, r);
+        }
+        for (; r < len; r++) {
+            a[r] = scalar(kind, a[r], b[r]);
+        }
+    }
+
+    private static double scalar(Kind kind, double x, double y) {
+        return switch (kind) {
+            case ADD -> x + y;
+            case SUB -> x - y;
+            case MUL -> x * y;
+            case DIV -> x / y;
+            case MIN -> Math.min(x, y);
+            case MAX -> Math.max(x, y);
+            case GT  -> x > y ? 1 : 0;
+            case GOE -> x >= y ? 1 : 0;
+            case LT  -> x < y ? 1 : 0;
+            case LOE -> x <= y ? 1 : 0;
+            case EQU -> Math.abs(x - y) < OperatorsComparison.EQUALITY_THRESHOLD ? 1 : 0;
+            case NEQ -> Math.abs(x - y) >= OperatorsComparison.EQUALITY_THRESHOLD ? 1 : 0;
+            case AND -> Math.abs(x) >= BOOLEAN_THRESHOLD & Math.abs(y) >= BOOLEAN_THRESHOLD ? 1 : 0;
+            case OR  -> Math.abs(x) >= BOOLEAN_THRESHOLD | Math.abs(y) >= BOOLEAN_THRESHOLD ? 1 : 0;
+        };
+    }
+}
@@ -171,4 +171,16 @@ public class ArrayStackTest {
         Assertions.assertEquals(0, stack.size());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testClear() {
+        ArrayStack stack = new ArrayStack(5);
+        stack.push(4);
+        stack.push(5);
+        stack.clear();
+        Assertions.assertTrue(stack.isEmpty());
+        Assertions.assertThrowsExactly(EmptyStackException.class, stack::pop);
+        stack.push(6);
+        Assertions.assertEquals(6, stack.peek(), 0d);
+    }
+
+}
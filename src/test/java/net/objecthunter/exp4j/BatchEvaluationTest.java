@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.extras.FunctionsBoolean;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.FunctionsSignal;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class BatchEvaluationTest {
+
+    private static final String[] EXPRESSIONS = {
+        "2 + 3 * x - y / 4",
+        "-x + +y - -3",
+        "x ^ y ^ 0.5 + x % 3",
+        "sin(x) + cos(y) * tan(x * y) + pow(x, 2)",
+        "2pi() + e()x - y",
+        "3! + x * y",
+        "x & y | ¬(x - 1.5)",
+        "x > y & x >= 1 | y < 2 & y <= 3 | x == y | x != y",
+        "if(x > y, min(x, y), max(x, y)) + gcd(12, 18) + lcm(4, 6)",
+        "and(x, y) + xor(x, y) + not(y) + rectangle(x, 1, 2) + sawtooth(y)",
+        "true() + inf() * 0 + isnan(x) - y",
+    };
+
+    private static final int ROWS = 3 * BatchEvaluator.CHUNK + 17;
+
+    private static Expression build(String exp, EvaluationMode mode) {
+        return new ExpressionBuilder(exp)
+                .variables("y", "x")
+                .functions(FunctionsMisc.getFunctions())
+                .functions(FunctionsBoolean.getFunctions())
+                .functions(FunctionsSignal.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .evaluationMode(mode)
+                .build();
+    }
+
+    private static double[][] columns() {
+        final double[] x = new double[ROWS];
+        final double[] y = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = 0.25 + (i % 37) * 0.125;
+            y[i] = 0.5 + (i % 11) * 0.5;
+        }
+        return new double[][]{y, x};
+    }
+
+    @Test
+    public void testSameResultsAsScalar() {
+        final double[][] columns = columns();
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            for (String str : EXPRESSIONS) {
+                final Expression exp = build(str, mode);
+                final double[] out = new double[ROWS];
+                exp.evaluate(columns, out);
+                for (int i = 0; i < ROWS; i++) {
+                    exp.setVariable("x", columns[1][i]).setVariable("y", columns[0][i]);
+                    Assertions.assertEquals(exp.evaluate(), out[i], 0d, str + " @ " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKernels() {
+        final boolean simd = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        Assertions.assertEquals(simd, BatchEvaluator.KERNELS != ScalarKernels.INSTANCE);
+
+        //Both dyadic values and values that can't be represented exactly
+        final double[][] random = new double[2][ROWS];
+        final Random rnd = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            random[0][i] = 0.1 + 10 * rnd.nextDouble();
+            random[1][i] = 0.1 + 10 * rnd.nextDouble();
+        }
+        for (double[][] columns : new double[][][]{columns(), random}) {
+            final String[] ops = {"+", "-", "*", "/", "^", "&", "|", ">", ">=", "<", "<=", "==", "!="};
+            for (String op : ops) {
+                checkKernel("x " + op + " y", columns);
+                checkKernel("(x - 2) " + op + " (y - 2.25)", columns);
+            }
+            checkKernel("min(x, y) + max(x - 2, y) + pow(x, y) - (-x) + ¬(x - 1)", columns);
+        }
+    }
+
+    private static void checkKernel(String str, double[][] columns) {
+        final Expression exp = build(str, EvaluationMode.INTERPRETED);
+        final double[] out = new double[ROWS];
+        exp.evaluate(columns, out);
+        for (int i = 0; i < ROWS; i++) {
+            exp.setVariable("x", columns[1][i]).setVariable("y", columns[0][i]);
+            final double expected = exp.evaluate();
+            //Kernels must give exactly the same results as the scalar path
+            Assertions.assertEquals(expected, out[i], 0d, str + " @ " + i);
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        final int rows = 20 * ParallelBatch.THRESHOLD + 123;
+        final double[] x = new double[rows];
+        final double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = i * 0.001;
+            y[i] = 1 + (i % 97);
+        }
+        final double[][] columns = {y, x};
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final Expression exp = build("sin(x) * y + max(x, y) / y", mode);
+            final double[] expected = new double[rows];
+            final double[] out = new double[rows];
+            exp.evaluate(columns, expected);
+            exp.evaluateParallel(columns, out);
+            Assertions.assertArrayEquals(expected, out, 0d, mode.name());
+
+            final ForkJoinPool pool = new ForkJoinPool(3);
+            try {
+                Arrays.fill(out, 0);
+                exp.getCompiledExpression().evaluateParallel(columns, out, pool);
+                Assertions.assertArrayEquals(expected, out, 0d, mode.name());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testParallelDivisionByZero() {
+        final int rows = 4 * ParallelBatch.THRESHOLD;
+        final double[] x = new double[rows];
+        Arrays.fill(x, 1);
+        x[rows - 1] = 0;
+        final Expression exp = new ExpressionBuilder("1 / x").variable("x").build();
+        Assertions.assertThrowsExactly(ArithmeticException.class,
+                () -> exp.evaluateParallel(new double[][]{x}, new double[rows]));
+    }
+
+    @Test
+    public void testColumnsByName() {
+        final double[][] columns = columns();
+        final Map<String, double[]> map = new HashMap<>();
+        map.put("x", columns[1]);
+        map.put("y", columns[0]);
+        final Expression exp = build("x * y - 1", EvaluationMode.INTERPRETED);
+        final double[] out = new double[ROWS];
+        exp.evaluate(map, out);
+        for (int i = 0; i < ROWS; i++) {
+            Assertions.assertEquals(columns[1][i] * columns[0][i] - 1, out[i], 0d);
+        }
+    }
+
+    @Test
+    public void testVarargsUserFunction() {
+        final Function avg = new Function("avg", 4) {
+            @Override
+            public double apply(double... args) {
+                return (args[0] + args[1] + args[2] + args[3]) / 4;
+            }
+        };
+        final Expression exp = new ExpressionBuilder("avg(x, 1, x, 3)")
+                .variable("x")
+                .function(avg)
+                .build();
+        final double[] out = new double[3];
+        exp.evaluate(new double[][]{{0, 2, 4}}, out);
+        Assertions.assertArrayEquals(new double[]{1, 2, 3}, out, 0d);
+    }
+
+    @Test
+    public void testUnusedVariable() {
+        final Expression exp = new ExpressionBuilder("x + 1").variables("unused", "x").build();
+        final double[] out = new double[2];
+        exp.evaluate(new double[][]{null, {1, 2}}, out);
+        Assertions.assertArrayEquals(new double[]{2, 3}, out, 0d);
+    }
+
+    @Test
+    public void testInvalidColumns() {
+        final Expression exp = new ExpressionBuilder("x + y").variables("x", "y").build();
+        final double[] out = new double[2];
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new double[][]{{1, 2}}, out));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new double[][]{{1, 2}, null}, out));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new double[][]{{1, 2}, {1}}, out));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(Map.of("x", new double[2]), out));
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        final Expression exp = new ExpressionBuilder("3 * ").build();
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new double[0][], new double[1]));
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        final Expression exp = new ExpressionBuilder("1 / x").variable("x").build();
+        Assertions.assertThrowsExactly(ArithmeticException.class,
+                () -> exp.evaluate(new double[][]{{1, 0}}, new double[2]));
+    }
+
+    @Test
+    public void testBuffers() {
+        final double[][] columns = columns();
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            for (String str : EXPRESSIONS) {
+                final Expression exp = build(str, mode);
+                final double[] expected = new double[ROWS];
+                exp.evaluate(columns, expected);
+
+                final DoubleBuffer out = DoubleBuffer.allocate(ROWS);
+                exp.evaluate(new DoubleBuffer[]{DoubleBuffer.wrap(columns[0]),
+                                                DoubleBuffer.wrap(columns[1])}, out);
+                Assertions.assertEquals(0, out.position());
+                Assertions.assertArrayEquals(expected, out.array(), 0d, str);
+
+                final ByteBuffer bytes = ByteBuffer.allocateDirect(ROWS * Double.BYTES);
+                exp.evaluate(new ByteBuffer[]{direct(columns[0], ByteOrder.LITTLE_ENDIAN),
+                                              direct(columns[1], ByteOrder.BIG_ENDIAN)}, bytes);
+                for (int i = 0; i < ROWS; i++) {
+                    Assertions.assertEquals(expected[i], bytes.getDouble(i * Double.BYTES), 0d, str);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer direct(double[] values, ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(values.length * Double.BYTES).order(order);
+        buffer.asDoubleBuffer().put(values);
+        return buffer;
+    }
+
+    @Test
+    public void testBufferPositions() {
+        final Expression exp = new ExpressionBuilder("x * 2").variable("x").build();
+        final DoubleBuffer x = DoubleBuffer.wrap(new double[]{9, 1, 2, 3});
+        x.position(1);
+        final DoubleBuffer out = DoubleBuffer.allocate(6);
+        out.position(2).limit(5);
+        exp.evaluate(new DoubleBuffer[]{x}, out);
+        Assertions.assertArrayEquals(new double[]{0, 0, 2, 4, 6, 0}, out.array(), 0d);
+        Assertions.assertEquals(1, x.position());
+        Assertions.assertEquals(2, out.position());
+        Assertions.assertEquals(5, out.limit());
+    }
+
+    @Test
+    public void testMappedBuffers(@TempDir Path dir) throws IOException {
+        final int rows = 4 * ParallelBatch.THRESHOLD + 5;
+        final Path file = dir.resolve("x.bin");
+        final ByteBuffer data = ByteBuffer.allocate(rows * Double.BYTES);
+        for (int i = 0; i < rows; i++) {
+            data.putDouble(i * 0.5);
+        }
+        Files.write(file, data.array());
+
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final Expression exp = build("x * x + 1", mode);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                final MappedByteBuffer x = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                final ByteBuffer bytes = ByteBuffer.allocateDirect(rows * Double.BYTES);
+                exp.evaluate(new ByteBuffer[]{null, x}, bytes);
+                final DoubleBuffer out = bytes.asDoubleBuffer();
+                for (int i = 0; i < rows; i++) {
+                    Assertions.assertEquals(i * 0.5 * i * 0.5 + 1, out.get(i), 0d, mode.name());
+                }
+
+                final DoubleBuffer parallel = DoubleBuffer.allocate(rows);
+                exp.getCompiledExpression().evaluateParallel(
+                        new DoubleBuffer[]{null, x.asDoubleBuffer()}, parallel, ForkJoinPool.commonPool());
+                for (int i = 0; i < rows; i++) {
+                    Assertions.assertEquals(out.get(i), parallel.get(i), 0d, mode.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidBuffers() {
+        final Expression exp = new ExpressionBuilder("x + y").variables("x", "y").build();
+        final DoubleBuffer out = DoubleBuffer.allocate(2);
+        final DoubleBuffer two = DoubleBuffer.allocate(2);
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new DoubleBuffer[]{two}, out));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new DoubleBuffer[]{two, null}, out));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.evaluate(new DoubleBuffer[]{two, two.duplicate().position(1)}, out));
+        Assertions.assertThrowsExactly(ReadOnlyBufferException.class,
+                () -> exp.evaluate(new DoubleBuffer[]{two, two}, out.asReadOnlyBuffer()));
+    }
+}
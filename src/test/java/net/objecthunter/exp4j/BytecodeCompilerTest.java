@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.extras.FunctionsBoolean;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.FunctionsSignal;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class BytecodeCompilerTest {
+
+    static final String[] EXPRESSIONS = {
+        "2 + 3 * x - y / 4",
+        "-x + +y - -3",
+        "x ^ y ^ 0.5",
+        "x % 3 + 7 % y",
+        "sin(x) + cos(y) + tan(x * y)",
+        "asin(x / 10) + acos(y / 10) + atan(x)",
+        "sinh(x) + cosh(y) + tanh(x - y)",
+        "abs(-x) + log(y) + log10(x) + log2(y) + log1p(x)",
+        "ceil(x) + floor(y) + sqrt(x) + cbrt(-y)",
+        "pow(x, y) + exp(x) + expm1(y) + signum(x - y)",
+        "2pi() + e()x - y",
+        "3! + x * y",
+        "x & y | ¬(x - 1.5)",
+        "x > y & x >= 1 | y < 2 & y <= 3 | x == y | x != y",
+        "if(x > y, min(x, y), max(x, y)) + gcd(12, 18) + lcm(4, 6)",
+        "and(x, y) + or(x, 0) + xor(x, y) + nand(x, y) + nor(x, y) + not(y)",
+        "sinc(x) + heavyside(y) + rectangle(x, 1, 2) + sawtooth(y) + triangle(x)",
+        "true() + false() + inf() * 0 + isnan(x) - y",
+        "equal(x, y) + round(x) + degtorad(y) + radtodeg(x)",
+        "1e10 * x + 0 * y + 1.0 + 1.5e-3",
+    };
+
+    static Expression build(String exp, EvaluationMode mode) {
+        return new ExpressionBuilder(exp)
+                .variables("x", "y")
+                .functions(FunctionsMisc.getFunctions())
+                .functions(FunctionsBoolean.getFunctions())
+                .functions(FunctionsSignal.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .evaluationMode(mode)
+                .build();
+    }
+
+    @Test
+    public void testSameResults() {
+        for (String exp : EXPRESSIONS) {
+            final Expression interpreted = build(exp, EvaluationMode.INTERPRETED);
+            final Expression compiled = build(exp, EvaluationMode.BYTECODE);
+            Assertions.assertFalse(interpreted.isCompiled(), exp);
+            Assertions.assertTrue(compiled.isCompiled(), exp);
+            for (double x = 0.25; x < 4; x += 0.75) {
+                for (double y = 0.5; y < 5; y += 1.25) {
+                    interpreted.setVariable("x", x).setVariable("y", y);
+                    compiled.setVariable("x", x).setVariable("y", y);
+                    Assertions.assertEquals(interpreted.evaluate(), compiled.evaluate(), 0d, exp);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUserFunctionsAndOperators() {
+        final Function avg = new Function("avg", 4) {
+            @Override
+            public double apply(double... args) {
+                return (args[0] + args[1] + args[2] + args[3]) / 4;
+            }
+        };
+        final Function rnd = new Function("rnd", 0, false) {
+            private int count = 0;
+            @Override
+            public double apply(double... args) {
+                return count++;
+            }
+        };
+        final Operator mod = new Operator("$", 2, true, Operator.PRECEDENCE_MODULO) {
+            @Override
+            public double apply(double... args) {
+                return args[0] - args[1];
+            }
+        };
+        final Expression exp = new ExpressionBuilder("avg(x, 2, 3, y) $ rnd() $ avg(1, 1, 1, 1)")
+                .variables("x", "y")
+                .function(avg)
+                .function(rnd)
+                .operator(mod)
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        Assertions.assertTrue(exp.isCompiled());
+        exp.setVariable("x", 1).setVariable("y", 2);
+        Assertions.assertEquals(1, exp.evaluate(), 0d);
+        Assertions.assertEquals(0, exp.evaluate(), 0d);
+        Assertions.assertEquals(-1, exp.evaluate(), 0d);
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        final Expression exp = new ExpressionBuilder("1 / x")
+                .variable("x")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        Assertions.assertTrue(exp.isCompiled());
+        exp.setVariable("x", 0);
+        Assertions.assertThrowsExactly(ArithmeticException.class, exp::evaluate);
+    }
+
+    @Test
+    public void testVariableNotSet() {
+        final Expression exp = new ExpressionBuilder("x + y")
+                .variables("x", "y")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        exp.setVariable("x", 1);
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, exp::evaluate);
+    }
+
+    @Test
+    public void testInvalidFallsBack() {
+        final Expression exp = new ExpressionBuilder("3 * ")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        Assertions.assertFalse(exp.isCompiled());
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, exp::evaluate);
+    }
+
+    @Test
+    public void testCopy() {
+        final Expression exp1 = new ExpressionBuilder("x * y")
+                .variables("x", "y")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        final Expression exp2 = exp1.copy();
+        Assertions.assertTrue(exp2.isCompiled());
+        exp1.setVariable("x", 2).setVariable("y", 3);
+        exp2.setVariable("x", 4).setVariable("y", 5);
+        Assertions.assertEquals(6, exp1.evaluate(), 0d);
+        Assertions.assertEquals(20, exp2.evaluate(), 0d);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final Expression exp = new ExpressionBuilder("sqrt(x) + 1")
+                .variable("x")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(exp);
+        }
+        final Expression exp1;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            exp1 = (Expression) ois.readObject();
+        }
+        Assertions.assertTrue(exp1.isCompiled());
+        exp1.setVariable("x", 16);
+        Assertions.assertEquals(5, exp1.evaluate(), 0d);
+    }
+
+    @Test
+    public void testLongExpression() {
+        final StringBuilder sb = new StringBuilder("x");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(" + x * ").append(i);
+        }
+        final Expression exp = new ExpressionBuilder(sb.toString())
+                .variable("x")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .build();
+        Assertions.assertTrue(exp.isCompiled());
+        exp.setVariable("x", 1);
+        Assertions.assertEquals(1 + 1999 * 2000 / 2, exp.evaluate(), 0d);
+    }
+
+    @Test
+    public void testNullMode() {
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> new ExpressionBuilder("1").evaluationMode(null));
+    }
+}
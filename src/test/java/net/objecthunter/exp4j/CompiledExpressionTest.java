@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class CompiledExpressionTest {
+
+    private static CompiledExpression compile(String exp, EvaluationMode mode, String... vars) {
+        return new ExpressionBuilder(exp)
+                .variables(vars)
+                .evaluationMode(mode)
+                .build()
+                .getCompiledExpression();
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final CompiledExpression exp = compile("sin(x) ^ 2 + cos(x) ^ 2 + y / 2", mode, "x", "y");
+            final ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                final List<Future<Boolean>> results = new ArrayList<>();
+                for (int t = 0; t < 32; t++) {
+                    final int offset = t;
+                    results.add(executor.submit(() -> {
+                        final Bindings b = exp.bindings();
+                        final VariableHandle x = exp.handle("x");
+                        final VariableHandle y = exp.handle("y");
+                        for (int i = 0; i < 10_000; i++) {
+                            final double res = exp.evaluate(b.set(x, i).set(y, 2 * (i + offset)));
+                            if (Math.abs(res - (1 + i + offset)) > 1e-9) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> f : results) {
+                    Assertions.assertTrue(f.get(), mode.name());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testSharedWithExpression() {
+        final Expression exp = new ExpressionBuilder("x * y").variables("x", "y").build();
+        exp.setVariable("x", 2).setVariable("y", 3);
+        final CompiledExpression compiled = exp.getCompiledExpression();
+        Assertions.assertSame(compiled, exp.copy().getCompiledExpression());
+
+        final Bindings b = compiled.bindings();
+        Assertions.assertFalse(b.isSet("x"));
+        b.set(new double[]{4, 5});
+        Assertions.assertTrue(b.isSet("x"));
+        Assertions.assertEquals(5, b.get("y"), 0d);
+        Assertions.assertEquals(20, compiled.evaluate(b), 0d);
+        Assertions.assertEquals(6, exp.evaluate(), 0d);
+    }
+
+    @Test
+    public void testBindingsCopy() {
+        final CompiledExpression exp = compile("x - y", EvaluationMode.INTERPRETED, "x", "y");
+        final Bindings b1 = exp.bindings().set("x", 5).set("y", 1);
+        final Bindings b2 = b1.copy().set("y", 3);
+        Assertions.assertEquals(4, exp.evaluate(b1), 0d);
+        Assertions.assertEquals(2, exp.evaluate(b2), 0d);
+    }
+
+    @Test
+    public void testBindingsFromAnotherExpression() {
+        final CompiledExpression exp1 = compile("x", EvaluationMode.INTERPRETED, "x");
+        final CompiledExpression exp2 = compile("x", EvaluationMode.INTERPRETED, "x");
+        final Bindings b = exp1.bindings().set("x", 1);
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> exp2.evaluate(b));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> b.set(exp2.handle("x"), 1));
+    }
+
+    @Test
+    public void testVariableNotSet() {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final CompiledExpression exp = compile("x + y", mode, "x", "y");
+            final Bindings b = exp.bindings().set("x", 1);
+            Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> exp.evaluate(b));
+            Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> b.set("z", 1));
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final CompiledExpression exp = compile("sqrt(x) + 1", EvaluationMode.BYTECODE, "x");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(exp);
+        }
+        final CompiledExpression exp1;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            exp1 = (CompiledExpression) ois.readObject();
+        }
+        Assertions.assertTrue(exp1.isCompiled());
+        Assertions.assertEquals(exp.getVariableNames(), exp1.getVariableNames());
+        Assertions.assertEquals(5, exp1.evaluate(exp1.bindings().set("x", 16)), 0d);
+    }
+
+    @Test
+    public void testWithConstants() {
+        final CompiledExpression exp = compile("2 * x + 3 * y", EvaluationMode.TREE, "x", "y");
+        Assertions.assertArrayEquals(new double[]{2, 3}, exp.getConstants(), 0d);
+
+        final CompiledExpression other = exp.withConstants(4, -1);
+        Assertions.assertArrayEquals(new double[]{4, -1}, other.getConstants(), 0d);
+        Assertions.assertArrayEquals(new double[]{2, 3}, exp.getConstants(), 0d);
+        Assertions.assertTrue(other.isCompiled());
+        Assertions.assertEquals(4 - 5, other.evaluate(other.bindings().set("x", 1).set("y", 5)), 0d);
+        Assertions.assertEquals(2 + 15, exp.evaluate(exp.bindings().set("x", 1).set("y", 5)), 0d);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> exp.withConstants(1, 2, 3));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.tokenizer.UnknownFunctionOrVariableException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class ExpressionCacheTest {
+
+    @Test
+    public void testHit() {
+        final ExpressionCache cache = new ExpressionCache(10);
+        final Expression e1 = cache.get(new ExpressionBuilder("3x + 2").variable("x"));
+        final Expression e2 = cache.get(new ExpressionBuilder("  3x   +\t2 ").variable("x"));
+        Assertions.assertSame(e1.getCompiledExpression(), e2.getCompiledExpression());
+        Assertions.assertNotSame(e1, e2);
+
+        //Each expression keeps its own variables
+        Assertions.assertEquals(5, e1.setVariable("x", 1).evaluate(), 0d);
+        Assertions.assertEquals(8, e2.setVariable("x", 2).evaluate(), 0d);
+        Assertions.assertEquals(5, e1.evaluate(), 0d);
+
+        final CacheStatistics stats = cache.getStatistics();
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(1, stats.getMisses());
+        Assertions.assertEquals(0, stats.getEvictions());
+        Assertions.assertEquals(1, stats.getSize());
+        Assertions.assertEquals(0.5, stats.getHitRate(), 0d);
+    }
+
+    @Test
+    public void testConfigurationIsPartOfTheKey() {
+        final ExpressionCache cache = new ExpressionCache(10);
+        final Function f = new Function("f", 1) {
+            @Override
+            public double apply(double... args) {
+                return args[0];
+            }
+        };
+        final Function g = new Function("f", 1) {
+            @Override
+            public double apply(double... args) {
+                return -args[0];
+            }
+        };
+        final CompiledExpression base = cache.getCompiled(new ExpressionBuilder("x+y").variables("x", "y"), false);
+        Assertions.assertNotSame(base, cache.getCompiled(new ExpressionBuilder("x+y").variables("y", "x"), false));
+        Assertions.assertNotSame(base, cache.getCompiled(new ExpressionBuilder("x+y").variables("x", "y"), true));
+        Assertions.assertNotSame(base, cache.getCompiled(new ExpressionBuilder("x+y").variables("x", "y")
+                .evaluationMode(EvaluationMode.BYTECODE), false));
+        Assertions.assertNotSame(base, cache.getCompiled(new ExpressionBuilder("x+y").variables("x", "y")
+                .disableBuiltInFunctions(), false));
+        Assertions.assertNotSame(base, cache.getCompiled(new ExpressionBuilder("x y").variables("x", "y"), false));
+
+        final Expression ef = cache.get(new ExpressionBuilder("f(2)").function(f));
+        final Expression eg = cache.get(new ExpressionBuilder("f(2)").function(g));
+        Assertions.assertEquals(2, ef.evaluate(), 0d);
+        Assertions.assertEquals(-2, eg.evaluate(), 0d);
+        Assertions.assertSame(ef.getCompiledExpression(), cache.get(new ExpressionBuilder("f(2)").function(f))
+                .getCompiledExpression());
+        Assertions.assertEquals(8, cache.size());
+    }
+
+    @Test
+    public void testContextIsPartOfTheKey() {
+        final ExpressionCache cache = new ExpressionCache(10);
+        final ExpressionContext ctx = ExpressionContext.builder().variables("x", "y").build();
+        final ExpressionContext other = ExpressionContext.builder().variables("x", "y").build();
+        final CompiledExpression plain = cache.getCompiled(
+                new ExpressionBuilder("x * y").variables("x", "y"), false
+        );
+        final CompiledExpression shared = cache.getCompiled(new ExpressionBuilder("x * y", ctx), false);
+        Assertions.assertNotSame(plain, shared);
+        Assertions.assertNotSame(shared, cache.getCompiled(new ExpressionBuilder("x * y", other), false));
+        Assertions.assertSame(shared, cache.getCompiled(new ExpressionBuilder("x * y", ctx), false));
+
+        //Handles of the context work with every expression built through it
+        final VariableHandle x = ctx.compile("x + 1", false).handle("x");
+        final Bindings b = shared.bindings().set(x, 3).set("y", 2);
+        Assertions.assertEquals(6, shared.evaluate(b), 0d);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> plain.bindings().set(x, 3));
+    }
+
+    @Test
+    public void testEviction() {
+        final ExpressionCache cache = new ExpressionCache(2);
+        final CompiledExpression a = cache.getCompiled(new ExpressionBuilder("1 + 1"), false);
+        final CompiledExpression b = cache.getCompiled(new ExpressionBuilder("2 + 2"), false);
+        Assertions.assertSame(a, cache.getCompiled(new ExpressionBuilder("1 + 1"), false));
+        cache.getCompiled(new ExpressionBuilder("3 + 3"), false);
+
+        //"2 + 2" was the least recently used
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getStatistics().getEvictions());
+        Assertions.assertSame(a, cache.getCompiled(new ExpressionBuilder("1 + 1"), false));
+        Assertions.assertNotSame(b, cache.getCompiled(new ExpressionBuilder("2 + 2"), false));
+        Assertions.assertEquals(2, cache.getStatistics().getEvictions());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(4, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testInvalidExpressionsAreNotCached() {
+        final ExpressionCache cache = new ExpressionCache(2);
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrowsExactly(
+                    UnknownFunctionOrVariableException.class,
+                    () -> cache.get(new ExpressionBuilder("2 * foo"))
+            );
+            Assertions.assertEquals(0, cache.size());
+        }
+        Assertions.assertEquals(2, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final ExpressionCache cache = new ExpressionCache(16);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<CompiledExpression>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 4; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.getCompiled(new ExpressionBuilder("sin(x) ^ 2 + cos(x) ^ 2")
+                            .variable("x"), false);
+                }));
+            }
+            start.countDown();
+            final CompiledExpression first = results.get(0).get();
+            for (Future<CompiledExpression> f : results) {
+                Assertions.assertSame(first, f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        final CacheStatistics stats = cache.getStatistics();
+        Assertions.assertEquals(1, stats.getMisses());
+        Assertions.assertEquals(threads * 4 - 1, stats.getHits());
+    }
+
+    @Test
+    public void testInvalidSize() {
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> new ExpressionCache(0));
+    }
+}
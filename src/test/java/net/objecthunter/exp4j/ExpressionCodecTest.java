@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import net.objecthunter.exp4j.extras.FunctionsBoolean;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.FunctionsSignal;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class ExpressionCodecTest {
+    private static final ExpressionContext CONTEXT = ExpressionContext.builder()
+            .variables("x", "y")
+            .functions(FunctionsMisc.getFunctions())
+            .functions(FunctionsBoolean.getFunctions())
+            .functions(FunctionsSignal.getFunctions())
+            .operators(OperatorsComparison.getOperators())
+            .build();
+
+    private static void assertSameProgram(CompiledExpression expected, CompiledExpression actual) {
+        Assertions.assertEquals(
+                Arrays.toString(expected.tokens()), Arrays.toString(actual.tokens())
+        );
+        Assertions.assertArrayEquals(expected.variableOrder(), actual.variableOrder());
+        Assertions.assertEquals(expected.mode(), actual.mode());
+        Assertions.assertEquals(expected.compileThreshold(), actual.compileThreshold());
+        final double[][] values = {{1, 2}, {-3.5, 0.25}, {7, -7}, {0.5, 3}};
+        for (double[] row : values) {
+            final double[] v = Arrays.copyOf(row, expected.variableOrder().length);
+            final double a = expected.evaluate(expected.bindings().set(v));
+            final double b = actual.evaluate(actual.bindings().set(v));
+            Assertions.assertEquals(Double.doubleToLongBits(a), Double.doubleToLongBits(b));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (String exp : BytecodeCompilerTest.EXPRESSIONS) {
+            for (boolean simplify : new boolean[]{false, true}) {
+                final CompiledExpression original = CONTEXT.builder(exp).build(simplify).getCompiledExpression();
+                final byte[] bytes = ExpressionCodec.toBytes(original);
+                assertSameProgram(original, ExpressionCodec.read(ByteBuffer.wrap(bytes), CONTEXT));
+            }
+        }
+    }
+
+    @Test
+    public void testSettings() {
+        final CompiledExpression original = new ExpressionBuilder("2x + 1e-300 * -0.0")
+                .variable("x")
+                .evaluationMode(EvaluationMode.TIERED)
+                .compileThreshold(77)
+                .build()
+                .getCompiledExpression();
+        final CompiledExpression copy = ExpressionCodec.read(ByteBuffer.wrap(ExpressionCodec.toBytes(original)));
+        assertSameProgram(original, copy);
+        Assertions.assertEquals(EvaluationMode.TIERED, copy.mode());
+        Assertions.assertEquals(77, copy.compileThreshold());
+    }
+
+    @Test
+    public void testUserFunctionHidingBuiltin() {
+        final Function sin = new Function("sin", 1) {
+            @Override
+            public double apply(double... args) {
+                return 42;
+            }
+        };
+        final ExpressionContext ctx = ExpressionContext.builder().function(sin).variable("x").build();
+        final byte[] bytes = ExpressionCodec.toBytes(ctx.build("sin(x) + cos(x)").getCompiledExpression());
+        final CompiledExpression copy = ExpressionCodec.read(ByteBuffer.wrap(bytes), ctx);
+        Assertions.assertEquals(43, copy.evaluate(copy.bindings().set("x", 0)), 0d);
+
+        final IllegalArgumentException ex = Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionCodec.read(ByteBuffer.wrap(bytes))
+        );
+        Assertions.assertTrue(ex.getMessage().contains("sin"));
+    }
+
+    @Test
+    public void testMissingOperator() {
+        final byte[] bytes = ExpressionCodec.toBytes(CONTEXT.build("x >= y").getCompiledExpression());
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class,
+                () -> ExpressionCodec.read(ByteBuffer.wrap(bytes), ExpressionContext.builder().build())
+        );
+    }
+
+    @Test
+    public void testBufferPositions() {
+        final String[] expressions = {"x + y", "if(x > y, x, y)", "sqrt(x^2 + y^2)"};
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1024).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 99);
+        for (String e : expressions) {
+            ExpressionCodec.write(CONTEXT.build(e).getCompiledExpression(), buffer);
+        }
+        final int end = buffer.position();
+        buffer.flip().position(1);
+        for (String e : expressions) {
+            assertSameProgram(
+                    CONTEXT.build(e).getCompiledExpression(), ExpressionCodec.read(buffer, CONTEXT)
+            );
+        }
+        Assertions.assertEquals(end, buffer.position());
+        Assertions.assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void testStreams() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionCodec.write(CONTEXT.build("x * 2").getCompiledExpression(), out);
+        ExpressionCodec.write(CONTEXT.build("signum(y) - 1").getCompiledExpression(), out);
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        final CompiledExpression a = ExpressionCodec.read(in, CONTEXT);
+        final CompiledExpression b = ExpressionCodec.read(in, CONTEXT);
+        Assertions.assertEquals(6, a.evaluate(a.bindings().set(new double[]{3, 0})), 0d);
+        Assertions.assertEquals(-2, b.evaluate(b.bindings().set(new double[]{3, -4})), 0d);
+        Assertions.assertThrowsExactly(EOFException.class, () -> ExpressionCodec.read(in, CONTEXT));
+    }
+
+    @Test
+    public void testCorruptedLength() {
+        //The declared length is never allocated upfront, the stream ends way before it
+        final byte[] huge = {'e', '4', 'j', ExpressionCodec.VERSION, 0x7F, (byte) 0xFF, (byte) 0xFF,
+                             (byte) 0xF0, 0, 0, 0};
+        Assertions.assertThrowsExactly(
+                EOFException.class,
+                () -> ExpressionCodec.read(new ByteArrayInputStream(huge), CONTEXT)
+        );
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionCodec.read(ByteBuffer.wrap(huge))
+        );
+
+        final byte[] negative = huge.clone();
+        negative[4] = (byte) 0x80;
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class,
+                () -> ExpressionCodec.read(new ByteArrayInputStream(negative), CONTEXT)
+        );
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        final Expression exp = CONTEXT.build("3 * x ^ 2 + sin(y) / 2 - max(x, y)");
+        final ByteArrayOutputStream java = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(java)) {
+            oos.writeObject(exp);
+        }
+        final int binary = ExpressionCodec.toBytes(exp.getCompiledExpression()).length;
+        Assertions.assertTrue(binary * 10 < java.size(), binary + " vs " + java.size());
+    }
+
+    @Test
+    public void testInvalid() {
+        final byte[] bytes = ExpressionCodec.toBytes(CONTEXT.build("x + y * 2").getCompiledExpression());
+
+        final byte[] magic = bytes.clone();
+        magic[0] = 'E';
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionCodec.read(ByteBuffer.wrap(magic))
+        );
+
+        final byte[] version = bytes.clone();
+        version[3] = ExpressionCodec.VERSION + 1;
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionCodec.read(ByteBuffer.wrap(version))
+        );
+
+        for (int len = 0; len < bytes.length; len++) {
+            final ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, len);
+            Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> ExpressionCodec.read(truncated));
+            Assertions.assertEquals(0, truncated.position());
+        }
+
+        for (int i = ExpressionCodec.HEADER; i < bytes.length; i++) {
+            final byte[] corrupted = bytes.clone();
+            corrupted[i] = (byte) 0xFF;
+            try {
+                ExpressionCodec.read(ByteBuffer.wrap(corrupted));
+            } catch (IllegalArgumentException ex) {
+                //Expected for most positions, the rest decode to some other valid program
+            }
+        }
+    }
+}
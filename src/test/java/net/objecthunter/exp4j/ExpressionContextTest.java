@@ -0,0 +1,296 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import net.objecthunter.exp4j.extras.FunctionsBoolean;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.tokenizer.UnknownFunctionOrVariableException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class ExpressionContextTest {
+    private static final ExpressionContext CONTEXT = ExpressionContext.builder()
+            .functions(FunctionsMisc.getFunctions())
+            .functions(FunctionsBoolean.getFunctions())
+            .operators(OperatorsComparison.getOperators())
+            .variables("x", "y")
+            .build();
+
+    @Test
+    public void testBuild() {
+        final Expression e = CONTEXT.build("if(x >= y, x, y) + 1");
+
+        final Expression same = new ExpressionBuilder("if(x >= y, x, y) + 1")
+                .functions(FunctionsMisc.getFunctions())
+                .functions(FunctionsBoolean.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .variables("x", "y")
+                .build();
+        Assertions.assertEquals(same.toTokenString(), e.toTokenString());
+        Assertions.assertEquals(same.getVariableNames(), e.getVariableNames());
+        Assertions.assertEquals(4, e.setVariables(new double[]{3, 2}).evaluate(), 0d);
+        Assertions.assertEquals(6, e.setVariables(new double[]{3, 5}).evaluate(), 0d);
+    }
+
+    @Test
+    public void testSharedHandles() {
+        final Expression a = CONTEXT.build("x - y");
+        final Expression b = CONTEXT.build("y * 2");
+        final VariableHandle y = a.handle("y");
+        Assertions.assertEquals(14, b.setVariable(y, 7).evaluate(), 0d);
+        Assertions.assertEquals(-7, a.setVariable("x", 0).setVariable(y, 7).evaluate(), 0d);
+
+        final Expression other = new ExpressionBuilder("y * 2").variables("x", "y").build();
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> other.setVariable(y, 1));
+    }
+
+    @Test
+    public void testSettings() {
+        final ExpressionContext ctx = ExpressionContext.builder()
+                .variable("x")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .disableBuiltInFunctions()
+                .build();
+        final Expression e = ctx.build("2x");
+        Assertions.assertTrue(e.isCompiled());
+        Assertions.assertEquals(6, e.setVariable("x", 3).evaluate(), 0d);
+        Assertions.assertThrowsExactly(UnknownFunctionOrVariableException.class, () -> ctx.build("sin(x)"));
+        Assertions.assertFalse(ctx.isUsingBuiltInFunctions());
+        Assertions.assertEquals(EvaluationMode.BYTECODE, ctx.getEvaluationMode());
+    }
+
+    @Test
+    public void testBuilderDoesNotModifyContext() {
+        final Function twice = new Function("twice", 1) {
+            @Override
+            public double apply(double... args) {
+                return 2 * args[0];
+            }
+        };
+        final Expression e = CONTEXT.builder("twice(z) + x")
+                .function(twice)
+                .variable("z")
+                .build();
+        Assertions.assertEquals(7, e.setVariable("z", 3).setVariable("x", 1).evaluate(), 0d);
+        Assertions.assertFalse(CONTEXT.getFunctions().containsKey("twice"));
+        Assertions.assertFalse(CONTEXT.getVariableNames().contains("z"));
+        Assertions.assertThrowsExactly(UnknownFunctionOrVariableException.class, () -> CONTEXT.build("twice(x)"));
+        Assertions.assertThrowsExactly(
+                UnsupportedOperationException.class, () -> CONTEXT.getVariableNames().add("w")
+        );
+    }
+
+    @Test
+    public void testInvalid() {
+        final ExpressionContext.Builder builder = ExpressionContext.builder().variable("sin");
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, builder::build);
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionContext.builder().variable("+-")
+        );
+        Assertions.assertThrowsExactly(
+                IllegalArgumentException.class, () -> ExpressionContext.builder().compileThreshold(0)
+        );
+    }
+
+    @Test
+    public void testConcurrentBuilds() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int n = i;
+                results.add(executor.submit(() -> CONTEXT.build(n + " * x != y")
+                        .setVariables(new double[]{1, n}).evaluate()));
+            }
+            for (Future<Double> r : results) {
+                Assertions.assertEquals(0, r.get(), 0d);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCacheKey() {
+        final ExpressionCache cache = new ExpressionCache(4);
+        final CompiledExpression a = cache.getCompiled(CONTEXT.builder("x + y"), false);
+        Assertions.assertSame(a, cache.getCompiled(CONTEXT.builder("x + y"), false));
+        //Expressions of the context share its variable order, plain builders don't
+        Assertions.assertNotSame(a, cache.getCompiled(new ExpressionBuilder("x + y")
+                .functions(FunctionsMisc.getFunctions())
+                .functions(FunctionsBoolean.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .variables("x", "y"), false));
+    }
+
+    @Test
+    public void testBuildAll() {
+        final List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sources.add(i % 100 == 7 ? "x + unknown" : i + " * x + max(y, 2 + 3)");
+        }
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            final BulkBuild bulk = CONTEXT.buildAll(sources, true, pool);
+            Assertions.assertEquals(1000, bulk.size());
+            Assertions.assertEquals(10, bulk.getFailed());
+            Assertions.assertEquals(990, bulk.getSucceeded());
+            Assertions.assertTrue(bulk.getElapsedNanos() > 0);
+            Assertions.assertTrue(bulk.getThroughput() > 0);
+            for (int i = 0; i < sources.size(); i++) {
+                if (i % 100 == 7) {
+                    Assertions.assertNull(bulk.get(i));
+                    Assertions.assertNull(bulk.getExpression(i));
+                    Assertions.assertInstanceOf(
+                            UnknownFunctionOrVariableException.class, bulk.getFailures().get(i)
+                    );
+                } else {
+                    final Expression e = bulk.getExpression(i).setVariables(new double[]{2, 1});
+                    Assertions.assertEquals(2 * i + 5, e.evaluate(), 0d);
+                    Assertions.assertEquals(
+                            CONTEXT.builder(sources.get(i)).build(true).toTokenString(),
+                            bulk.getExpression(i).toTokenString()
+                    );
+                }
+            }
+            Assertions.assertEquals(1000, bulk.getResults().size());
+            Assertions.assertEquals(7, bulk.getFailures().keySet().iterator().next());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuildAllEmpty() {
+        final BulkBuild bulk = CONTEXT.buildAll(List.of(), false);
+        Assertions.assertEquals(0, bulk.size());
+        Assertions.assertEquals(0, bulk.getFailed());
+
+        final BulkBuild blank = CONTEXT.buildAll(List.of(" ", "x"), false);
+        Assertions.assertInstanceOf(IllegalArgumentException.class, blank.getFailures().get(0));
+        Assertions.assertNotNull(blank.get(1));
+    }
+
+    @Test
+    public void testShareStructure() {
+        final ExpressionContext shared = ExpressionContext.builder()
+                .functions(FunctionsMisc.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .variables("x", "y")
+                .shareStructure()
+                .build();
+        Assertions.assertTrue(shared.isSharingStructure());
+        Assertions.assertFalse(CONTEXT.isSharingStructure());
+
+        final CompiledExpression a = shared.compile("x * 2 + if(y > 1, y, 1)", false);
+        final CompiledExpression b = shared.build("x*2 + if(y>1, y, 1)").getCompiledExpression();
+        Assertions.assertNotSame(a, b);
+        Assertions.assertSame(a.layout(), b.layout());
+        Assertions.assertSame(a.tokens(), b.tokens());
+
+        //Only the constants differ, so the interpreter runs the same code
+        final CompiledExpression c = shared.compile("x * 3 + if(y > 5, y, 5)", false);
+        Assertions.assertNotSame(a.layout(), c.layout());
+        Assertions.assertSame(a.layout().opcodes.code, c.layout().opcodes.code);
+        Assertions.assertSame(a.layout().slots, c.layout().slots);
+
+        //Equal constants are a single token, even across expressions
+        Assertions.assertSame(a.tokens()[1], shared.compile("y + 2", false).tokens()[1]);
+
+        final CompiledExpression decoded = ExpressionCodec.read(
+                ByteBuffer.wrap(ExpressionCodec.toBytes(a)), shared
+        );
+        Assertions.assertSame(a.layout(), decoded.layout());
+        Assertions.assertSame(a.variableOrder(), decoded.variableOrder());
+
+        //Handles work across expressions from the same context
+        final VariableHandle x = a.handle("x");
+        final VariableHandle y = c.handle("y");
+        for (CompiledExpression e : new CompiledExpression[]{a, b, c, decoded}) {
+            final String source = e == c ? "x * 3 + if(y > 5, y, 5)" : "x * 2 + if(y > 1, y, 1)";
+            final double expected = CONTEXT.build(source)
+                    .setVariable("x", 1.5)
+                    .setVariable("y", 3)
+                    .evaluate();
+            Assertions.assertEquals(expected, e.evaluate(e.bindings().set(x, 1.5).set(y, 3)), 0d);
+        }
+    }
+
+    @Test
+    public void testLiftConstants() {
+        final ExpressionContext lifted = ExpressionContext.builder()
+                .variables("x", "y")
+                .evaluationMode(EvaluationMode.BYTECODE)
+                .liftConstants()
+                .build();
+        Assertions.assertTrue(lifted.isLiftingConstants());
+        Assertions.assertTrue(lifted.isSharingStructure());
+        Assertions.assertFalse(CONTEXT.isLiftingConstants());
+
+        //Same shape, so the compiled code is shared
+        final CompiledExpression a = lifted.compile("2 * x + 3 * y ^ 2", false);
+        final CompiledExpression b = lifted.compile("0.5 * x + 7 * y ^ 4", false);
+        Assertions.assertSame(a.layout(), b.layout());
+        Assertions.assertSame(a.layout().evaluator(EvaluationMode.BYTECODE),
+                              b.layout().evaluator(EvaluationMode.BYTECODE));
+        Assertions.assertNotSame(a.layout(), lifted.compile("2 * x + 3 * y", false).layout());
+        Assertions.assertArrayEquals(new double[]{2, 3, 2}, a.getConstants(), 0d);
+        Assertions.assertArrayEquals(new double[]{0.5, 7, 4}, b.getConstants(), 0d);
+
+        Assertions.assertEquals(Set.of("x", "y"), a.getVariableNames());
+        Assertions.assertEquals(2 * 1.5 + 3 * 9, a.evaluate(a.bindings().set("x", 1.5).set("y", 3)), 0d);
+        Assertions.assertEquals(0.5 * 1.5 + 7 * 81, b.evaluate(b.bindings().set(new double[]{1.5, 3})), 0d);
+
+        //Replacing the constants doesn't compile anything
+        final CompiledExpression c = a.withConstants(1, 1, 3);
+        Assertions.assertSame(a.layout(), c.layout());
+        Assertions.assertTrue(c.isCompiled());
+        Assertions.assertEquals(1.5 + 27, c.evaluate(c.bindings().set("x", 1.5).set("y", 3)), 0d);
+        Assertions.assertEquals(2 * 1.5 + 3 * 9, a.evaluate(a.bindings().set("x", 1.5).set("y", 3)), 0d);
+
+        final double[][] columns = {{1, 2}, {3, 4}};
+        final double[] out = new double[2];
+        c.evaluate(columns, out);
+        Assertions.assertArrayEquals(new double[]{1 + 27, 2 + 64}, out, 0d);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> a.withConstants(1, 2));
+
+        //The interpreter reads the constants from the bindings too
+        final ExpressionContext interpreted = ExpressionContext.builder()
+                .variables("x")
+                .liftConstants()
+                .build();
+        final CompiledExpression d = interpreted.compile("x * 2 - 1", false);
+        final CompiledExpression e = interpreted.compile("x * 5 - 3", false);
+        Assertions.assertSame(d.layout().opcodes, e.layout().opcodes);
+        Assertions.assertEquals(3, d.evaluate(d.bindings().set("x", 2)), 0d);
+        Assertions.assertEquals(7, e.evaluate(e.bindings().set("x", 2)), 0d);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class ExpressionStoreTest {
+    private static final ExpressionContext CONTEXT = ExpressionContext.builder()
+            .variables("x", "y")
+            .functions(FunctionsMisc.getFunctions())
+            .operators(OperatorsComparison.getOperators())
+            .build();
+
+    @TempDir
+    Path dir;
+
+    private static String source(int i) {
+        return "x * " + i + " + if(y > " + (i % 7) + ", sin(y), " + i + " / 2)";
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final Path path = dir.resolve("store.e4j");
+        final int n = 5000;
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            for (int i = 0; i < n; i++) {
+                w.add("key-" + i, CONTEXT.compile(source(i), false));
+            }
+        }
+        try (ExpressionStore store = ExpressionStore.open(path, CONTEXT, 100)) {
+            Assertions.assertEquals(n, store.size());
+            Assertions.assertEquals(0, store.getStatistics().getSize());
+            for (int i = 0; i < n; i += 37) {
+                final Expression e = store.getExpression("key-" + i);
+                Assertions.assertNotNull(e);
+                final Expression exp = CONTEXT.build(source(i));
+                e.setVariables(new double[]{1.5, 3});
+                exp.setVariables(new double[]{1.5, 3});
+                Assertions.assertEquals(exp.evaluate(), e.evaluate(), 0d);
+            }
+            Assertions.assertNull(store.get("key-" + n));
+            Assertions.assertNull(store.get(""));
+            Assertions.assertTrue(store.contains("key-0"));
+            Assertions.assertFalse(store.contains("key"));
+        }
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        final Path path = dir.resolve("store.e4j");
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            for (int i = 0; i < 10; i++) {
+                w.add("k" + i, CONTEXT.compile(source(i), true));
+            }
+        }
+        try (ExpressionStore store = ExpressionStore.open(path, CONTEXT, 3)) {
+            final CompiledExpression a = store.get("k1");
+            Assertions.assertSame(a, store.get("k1"));
+            for (int i = 2; i < 6; i++) {
+                store.get("k" + i);
+            }
+            final CacheStatistics stats = store.getStatistics();
+            Assertions.assertEquals(1, stats.getHits());
+            Assertions.assertEquals(5, stats.getMisses());
+            Assertions.assertEquals(2, stats.getEvictions());
+            Assertions.assertEquals(3, stats.getSize());
+            Assertions.assertNotSame(a, store.get("k1"));
+        }
+    }
+
+    @Test
+    public void testEmptyStore() throws IOException {
+        final Path path = dir.resolve("empty.e4j");
+        ExpressionStore.create(path).close();
+        try (ExpressionStore store = ExpressionStore.open(path, null, 1)) {
+            Assertions.assertEquals(0, store.size());
+            Assertions.assertNull(store.get("x"));
+        }
+    }
+
+    @Test
+    public void testHashCollisions() throws IOException {
+        //Keys with the same hash end up next to each other in the index
+        final String a = "c693596";
+        final String b = "c1170850";
+        Assertions.assertEquals(ExpressionStore.hash(a), ExpressionStore.hash(b));
+        final Path path = dir.resolve("collisions.e4j");
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            w.add(a, CONTEXT.compile("1", false));
+            w.add(b, CONTEXT.compile("2", false));
+        }
+        try (ExpressionStore store = ExpressionStore.open(path, CONTEXT, 10)) {
+            Assertions.assertEquals(1, store.getExpression(a).evaluate(), 0d);
+            Assertions.assertEquals(2, store.getExpression(b).evaluate(), 0d);
+        }
+    }
+
+    @Test
+    public void testLongKeys() throws IOException {
+        final String key = "\u00f1".repeat(10_000);
+        final Path path = dir.resolve("long.e4j");
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            w.add(key, CONTEXT.compile("x + 1", false));
+            w.add("", CONTEXT.compile("x + 2", false));
+        }
+        try (ExpressionStore store = ExpressionStore.open(path, CONTEXT, 10)) {
+            Assertions.assertEquals(3, store.getExpression(key).setVariable("x", 2).evaluate(), 0d);
+            Assertions.assertEquals(4, store.getExpression("").setVariable("x", 2).evaluate(), 0d);
+        }
+    }
+
+    @Test
+    public void testDuplicateKey() throws IOException {
+        try (ExpressionStore.Writer w = ExpressionStore.create(dir.resolve("dup.e4j"))) {
+            w.add("a", CONTEXT.compile("1", false));
+            Assertions.assertThrows(
+                    IllegalArgumentException.class, () -> w.add("a", CONTEXT.compile("2", false))
+            );
+        }
+    }
+
+    @Test
+    public void testInvalidFiles() throws IOException {
+        final Path path = dir.resolve("bad.e4j");
+        Files.write(path, new byte[]{1, 2, 3});
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> ExpressionStore.open(path, CONTEXT, 10)
+        );
+        Files.write(path, new byte[64]);
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> ExpressionStore.open(path, CONTEXT, 10)
+        );
+        ExpressionStore.create(path).close();
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> ExpressionStore.open(path, CONTEXT, 0)
+        );
+    }
+
+    @Test
+    public void testDamagedIndex() throws IOException {
+        final Path path = dir.resolve("damaged.e4j");
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            w.add("a", CONTEXT.compile("1", false));
+        }
+        final byte[] bytes = Files.readAllBytes(path);
+        final int index = bytes.length - 8;
+        //Offsets of the record past the end of the file and right before the index
+        for (int offset : new int[]{0x7FFFFFF0, index - 2, 3}) {
+            final byte[] damaged = bytes.clone();
+            for (int i = 0; i < 4; i++) {
+                damaged[index + 4 + i] = (byte) (offset >>> (24 - 8 * i));
+            }
+            Files.write(path, damaged);
+            try (ExpressionStore store = ExpressionStore.open(path, CONTEXT, 10)) {
+                Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> store.get("a"));
+                Assertions.assertThrowsExactly(
+                        IllegalArgumentException.class, () -> store.contains("a")
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testClosed() throws IOException {
+        final Path path = dir.resolve("closed.e4j");
+        try (ExpressionStore.Writer w = ExpressionStore.create(path)) {
+            w.add("a", CONTEXT.compile("1", false));
+        }
+        final ExpressionStore store = ExpressionStore.open(path, CONTEXT, 10);
+        store.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> store.get("a"));
+    }
+}
@@ -19,9 +19,13 @@ import net.objecthunter.exp4j.function.Function;
 import net.objecthunter.exp4j.function.Functions;
 import net.objecthunter.exp4j.operator.Operators;
 import net.objecthunter.exp4j.tokenizer.*;
+import net.objecthunter.exp4j.extras.FunctionsMisc;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+
 public class ExpressionTest {
     @Test
     public void testExpression1() {
@@ -280,4 +284,83 @@ public class ExpressionTest {
         Assertions.assertTrue(e3.isCachingResult());
         Assertions.assertFalse(e4.isCachingResult());
     }
+
+    @Test
+    public void testEvaluateDoesNotAllocate() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(mx.isThreadAllocatedMemoryEnabled());
+
+        final Expression exp = new ExpressionBuilder("pow(x, 2) + max(x, y) * (y - 1) / 3")
+                .variables("x", "y")
+                .function(FunctionsMisc.MAX)
+                .build();
+        final int iterations = 100_000;
+        double sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            exp.setVariable("x", i).setVariable("y", 2);
+            sum += exp.evaluate();
+        }
+
+        final long id = Thread.currentThread().getId();
+        final long before = mx.getThreadAllocatedBytes(id);
+        for (int i = 0; i < iterations; i++) {
+            exp.setVariable("x", i).setVariable("y", 2);
+            sum += exp.evaluate();
+        }
+        final long allocated = mx.getThreadAllocatedBytes(id) - before;
+        Assertions.assertTrue(sum > 0);
+        Assertions.assertTrue(allocated < iterations, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void testVariableHandle() {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final Expression exp = new ExpressionBuilder("x - 2 * y")
+                    .variables("y", "x")
+                    .evaluationMode(mode)
+                    .build();
+            final VariableHandle x = exp.handle("x");
+            final VariableHandle y = exp.handle("y");
+            Assertions.assertEquals("x", x.getName());
+            Assertions.assertEquals(1, x.getIndex());
+            Assertions.assertEquals(0, y.getIndex());
+            exp.setVariable(x, 10).setVariable(y, 3);
+            Assertions.assertEquals(4, exp.evaluate(), 0d);
+            exp.setVariable(x, 20);
+            Assertions.assertEquals(14, exp.evaluate(), 0d);
+
+            final Expression copy = exp.copy();
+            copy.setVariable(y, 0);
+            Assertions.assertEquals(20, copy.evaluate(), 0d);
+            Assertions.assertEquals(14, exp.evaluate(), 0d);
+        }
+    }
+
+    @Test
+    public void testVariableHandleInvalid() {
+        final Expression exp = new ExpressionBuilder("x").variables("x", "y").build();
+        final Expression other = new ExpressionBuilder("x").variable("x").build();
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> exp.handle("y"));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, () -> exp.handle("sin"));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> exp.setVariable(other.handle("x"), 1));
+    }
+
+    @Test
+    public void testSetVariablesArray() {
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final Expression exp = new ExpressionBuilder("b / a + c")
+                    .variables("c", "unused", "b", "a")
+                    .evaluationMode(mode)
+                    .build();
+            exp.setVariables(new double[]{1, 100, 6, 3});
+            Assertions.assertEquals(3, exp.evaluate(), 0d);
+            exp.setVariables(new double[]{0, 100, 8, 2});
+            Assertions.assertEquals(4, exp.evaluate(), 0d);
+            Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                    () -> exp.setVariables(new double[]{1, 2, 3}));
+        }
+    }
 }
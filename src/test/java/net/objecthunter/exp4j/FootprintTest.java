@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the heap retained by a catalog of compiled expressions, with and without
+ * {@link ExpressionContext.Builder#shareStructure() sharing their structure}.
+ *
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public final class FootprintTest {
+    private static final int SIZE = 20_000;
+
+    /** Typical catalog: few shapes, many constants and some repeated formulas */
+    private static List<String> catalog() {
+        final List<String> sources = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            final int k = i % 2500;
+            sources.add(switch (i % 4) {
+                case 0  -> "price * " + k + ".5 + tax";
+                case 1  -> "if(qty > " + (k % 50) + ", price * (1 - " + (k % 20) + " / 100), price)";
+                case 2  -> "(price - cost) / price * 100 + " + (k % 10);
+                default -> "max(0, qty - " + k + ") * cost + sqrt(tax ^ 2 + " + (k % 3) + ")";
+            });
+        }
+        return sources;
+    }
+
+    private static ExpressionContext.Builder context() {
+        return ExpressionContext.builder()
+                .functions(FunctionsMisc.getFunctions())
+                .operators(OperatorsComparison.getOperators())
+                .variables("price", "tax", "qty", "cost");
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    /** Bytes retained by each expression of the catalog */
+    private static double footprint(ExpressionContext ctx, List<String> sources)
+            throws InterruptedException {
+        final long before = usedHeap();
+        final CompiledExpression[] catalog = new CompiledExpression[sources.size()];
+        for (int i = 0; i < catalog.length; i++) {
+            catalog[i] = ctx.compile(sources.get(i), false);
+        }
+        final long after = usedHeap();
+        Reference.reachabilityFence(catalog);
+        Reference.reachabilityFence(ctx);
+        return (double) (after - before) / catalog.length;
+    }
+
+    @Test
+    public void testFootprint() throws InterruptedException {
+        final List<String> sources = catalog();
+        footprint(context().build(), sources.subList(0, 1000));
+
+        final double plain = footprint(context().build(), sources);
+        final double shared = footprint(context().shareStructure().build(), sources);
+
+        final StringBuilder sb = new StringBuilder();
+        final Formatter fmt = new Formatter(sb);
+        fmt.format("+------------------------+---------------------------+%n");
+        fmt.format("| %-22s | %-25s |%n", "Representation", "Bytes per expression");
+        fmt.format("+------------------------+---------------------------+%n");
+        fmt.format("| %-22s | %25.1f |%n", "plain", plain);
+        fmt.format("| %-22s | %25.1f |%n", "shared structure", shared);
+        fmt.format("+------------------------+---------------------------+%n");
+        System.out.print(sb);
+
+        Assertions.assertTrue(shared < plain / 2, sb.toString());
+    }
+}
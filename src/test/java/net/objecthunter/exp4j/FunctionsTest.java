@@ -139,4 +139,59 @@ public class FunctionsTest {
                 Functions.getBuiltinFunction(null)
         );
     }
+
+    @Test
+    public void testFixedArityAdapter() {
+        final Function f = new Function("foo", 3) {
+            @Override
+            public double apply(double... args) {
+                double sum = 0;
+                for (double arg : args) {
+                    sum = sum * 10 + arg;
+                }
+                return sum;
+            }
+        };
+        Assertions.assertEquals(1, f.apply(1d), 0d);
+        Assertions.assertEquals(12, f.apply(1d, 2d), 0d);
+        Assertions.assertEquals(125, f.apply(1d, 2d, 5d), 0d);
+    }
+
+    @Test
+    public void testFixedAritySameAsVarargs() {
+        for (String name : new String[]{"sin", "cos", "log2", "sqrt", "signum", "abs"}) {
+            final Function f = Functions.getBuiltinFunction(name);
+            Assertions.assertEquals(f.apply(new double[]{0.7}), f.apply(0.7), 0d, name);
+        }
+        final Function pow = Functions.getBuiltinFunction("pow");
+        Assertions.assertEquals(pow.apply(new double[]{2, 10}), pow.apply(2, 10), 0d);
+    }
+
+    @Test
+    public void testVarargsOnlyFunctionsInExpression() {
+        final Function sum = new Function("sum", 3) {
+            @Override
+            public double apply(double... args) {
+                return args[0] + args[1] + args[2];
+            }
+        };
+        final Function twice = new Function("twice", 1) {
+            @Override
+            public double apply(double... args) {
+                throw new UnsupportedOperationException();
+            }
+            @Override
+            public double apply(double a) {
+                return 2 * a;
+            }
+        };
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            final Expression e = new ExpressionBuilder("twice(sum(x, 2, 3))")
+                    .variable("x")
+                    .functions(sum, twice)
+                    .evaluationMode(mode)
+                    .build();
+            Assertions.assertEquals(12, e.setVariable("x", 1).evaluate(), 0d, mode.name());
+        }
+    }
 }
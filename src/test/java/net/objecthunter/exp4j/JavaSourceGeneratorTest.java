@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.objecthunter.exp4j.extras.FunctionsMisc;
+import net.objecthunter.exp4j.extras.OperatorsComparison;
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class JavaSourceGeneratorTest {
+    private static final String[] EXPRESSIONS = {
+        "x + y * z - x / y",
+        "x % y + -z ^ 2",
+        "sin(x) + cos(y) + tan(z) + asin(x / 10) + acos(y / 10) + atan(z)",
+        "sinh(x / 5) + cosh(y / 5) + tanh(z) + abs(-x) + log(y) + log10(z)",
+        "log2(x) + log1p(y) + ceil(z / 3) + floor(x / 3) + sqrt(y) + cbrt(-z)",
+        "pow(x, 2) + exp(y / 10) + expm1(z / 10) + signum(x - y) + pi * e",
+        "x > y & y < z | \u00ac(x == z)",
+        "floor(abs(y))! + x",
+        "-(x - y) * +z",
+        "2 * 3 + x",
+    };
+
+    private static final Function TWICE = new Function("twice", 1) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public double apply(double... args) {
+            return 2 * args[0];
+        }
+    };
+
+    private static final Function SUM4 = new Function("sum4", 4) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public double apply(double... args) {
+            return args[0] + args[1] + args[2] + args[3];
+        }
+    };
+
+    private static final ExpressionContext CONTEXT = ExpressionContext.builder()
+            .functions(FunctionsMisc.getFunctions())
+            .functions(TWICE, SUM4)
+            .operators(OperatorsComparison.getOperators())
+            .variables("x", "y", "z")
+            .build();
+
+    @TempDir
+    Path dir;
+
+    private static final double[][] VALUES = {
+        {1, 2, 3}, {7.5, -2, 0.25}, {0, 1, 0.5}, {-3, 4, 4}, {Double.NaN, 1, 2}
+    };
+
+    private Map<String, String> sources(ExpressionContext ctx, String... expressions) {
+        final Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < expressions.length; i++) {
+            final String name = "gen.Formula" + i;
+            sources.put(name, JavaSourceGenerator.generate(name, expressions[i], ctx));
+        }
+        return sources;
+    }
+
+    private static Evaluator load(ClassLoader loader, String name, ExpressionContext ctx)
+            throws ReflectiveOperationException {
+        final Class<?> c = loader.loadClass(name);
+        try {
+            return (Evaluator) c.getConstructor().newInstance();
+        } catch (NoSuchMethodException ex) {
+            return (Evaluator) c.getConstructor(ExpressionContext.class).newInstance(ctx);
+        }
+    }
+
+    private void assertSameResults(ExpressionContext ctx, String... expressions) throws Exception {
+        final ClassLoader loader = TestUtil.compile(dir, sources(ctx, expressions));
+        for (int i = 0; i < expressions.length; i++) {
+            final Evaluator generated = load(loader, "gen.Formula" + i, ctx);
+            final CompiledExpression expected = ctx.compile(expressions[i], true);
+            for (double[] values : VALUES) {
+                final Bindings bindings = expected.bindings().set(values);
+                Assertions.assertEquals(
+                        expected.evaluate(bindings), generated.evaluate(values), 0d,
+                        expressions[i]
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testBuiltins() throws Exception {
+        assertSameResults(CONTEXT, EXPRESSIONS);
+    }
+
+    @Test
+    public void testUserSymbols() throws Exception {
+        assertSameResults(
+                CONTEXT,
+                "twice(x) + sum4(x, y, z, twice(y))",
+                "if(x >= y, x, y) + max(y, z) * 2",
+                "twice(twice(x)) + twice(x)"
+        );
+    }
+
+    @Test
+    public void testVariablesAndExpression() throws Exception {
+        final ClassLoader loader = TestUtil.compile(dir, sources(CONTEXT, "x  *  2 "));
+        final Class<?> c = loader.loadClass("gen.Formula0");
+        Assertions.assertEquals(List.of("x", "y", "z"), c.getField("VARIABLES").get(null));
+        Assertions.assertEquals("x  *  2 ", c.getField("EXPRESSION").get(null));
+    }
+
+    @Test
+    public void testDivisionByZero() throws Exception {
+        final ClassLoader loader = TestUtil.compile(dir, sources(CONTEXT, "x / y", "x % y"));
+        for (int i = 0; i < 2; i++) {
+            final Evaluator e = load(loader, "gen.Formula" + i, CONTEXT);
+            Assertions.assertThrows(ArithmeticException.class, () -> e.evaluate(new double[]{1, 0, 0}));
+        }
+    }
+
+    @Test
+    public void testMissingFunction() throws Exception {
+        final ClassLoader loader = TestUtil.compile(dir, sources(CONTEXT, "twice(x)"));
+        final ExpressionContext other = ExpressionContext.builder().variables("x").build();
+        final InvocationTargetException ex = Assertions.assertThrows(
+                InvocationTargetException.class,
+                () -> load(loader, "gen.Formula0", other)
+        );
+        Assertions.assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+    }
+
+    @Test
+    public void testCompiledExpression() throws IOException, ReflectiveOperationException {
+        final CompiledExpression expression = CONTEXT.compile("x * y + 1", false);
+        final String source = JavaSourceGenerator.generate("Plain", expression);
+        Assertions.assertFalse(source.contains("EXPRESSION"));
+        final ClassLoader loader = TestUtil.compile(dir, Map.of("Plain", source));
+        Assertions.assertEquals(7, load(loader, "Plain", CONTEXT).evaluate(new double[]{2, 3, 0}), 0d);
+    }
+
+    @Test
+    public void testInvalidClassName() {
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> JavaSourceGenerator.generate("gen.class", "x", CONTEXT)
+        );
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> JavaSourceGenerator.generate("1gen", "x", CONTEXT)
+        );
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> JavaSourceGenerator.generate("gen.Invalid", "x +", CONTEXT)
+        );
+    }
+}
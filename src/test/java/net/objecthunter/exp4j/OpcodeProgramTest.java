@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.tokenizer.Token;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static net.objecthunter.exp4j.OpcodeProgram.*;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class OpcodeProgramTest {
+
+    private static final String[] FUSED = {
+        "x + 2 - y", "x - 2 + y", "2 * x * y", "x * 2 - y", "x + y", "x * y", "-x - -0 + y",
+        "x - 0 + y", "x - -0 + y", "-0 - x * y", "x * 0 - 0 * y", "y + x", "2 + x - y",
+        "(x + 1) / 4 + y / 0.5", "x ^ 2 + y ^ 0.5", "(x - y) * (x + y) - x - y",
+        "sqrt(x) + exp(y) + log(x) + abs(-y) + cos(x) * sin(y) + tan(x)",
+    };
+
+    private static int[] lower(String exp) {
+        final CompiledExpression compiled = new ExpressionBuilder(exp)
+                .variables("x", "y")
+                .build()
+                .getCompiledExpression();
+        final Token[] tokens = compiled.tokens();
+        final int[] slots = new int[tokens.length];
+        final boolean[] specialized = new boolean[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            slots[i] = compiled.slotAt(i);
+            specialized[i] = compiled.isSpecializedAt(i);
+        }
+        return OpcodeProgram.lower(tokens, slots, specialized).code;
+    }
+
+    @Test
+    public void testSuperinstructions() {
+        Assertions.assertArrayEquals(new int[]{VAR_MUL_CONST, 0, 0}, lower("x * 2"));
+        Assertions.assertArrayEquals(new int[]{VAR_MUL_CONST, 0, 0}, lower("2 * x"));
+        Assertions.assertArrayEquals(new int[]{VAR_ADD_VAR, 0, 1}, lower("x + y"));
+        Assertions.assertArrayEquals(new int[]{VAR_MUL_VAR, 1, 0}, lower("y * x"));
+        Assertions.assertArrayEquals(new int[]{VAR, 0, CONST_POW, 0}, lower("x ^ 2"));
+        Assertions.assertArrayEquals(new int[]{VAR_ADD_VAR, 0, 1, MUL_VAR, 0}, lower("(x + y) * x"));
+        Assertions.assertArrayEquals(new int[]{VAR_ADD_VAR, 0, 1, SUB_VAR, 1}, lower("x + y - y"));
+        Assertions.assertArrayEquals(new int[]{VAR, 0, SIN, DIV_CONST, 0}, lower("sin(x) / 2"));
+        Assertions.assertArrayEquals(new int[]{VAR, 0, CONST, 0, DIV}, lower("x / 0"));
+        Assertions.assertArrayEquals(new int[]{CONST, 0}, lower("pi()"));
+    }
+
+    @Test
+    public void testSameResults() {
+        final String[] all = new String[BytecodeCompilerTest.EXPRESSIONS.length + FUSED.length];
+        System.arraycopy(BytecodeCompilerTest.EXPRESSIONS, 0, all, 0, BytecodeCompilerTest.EXPRESSIONS.length);
+        System.arraycopy(FUSED, 0, all, BytecodeCompilerTest.EXPRESSIONS.length, FUSED.length);
+        for (String exp : all) {
+            final Expression interpreted = BytecodeCompilerTest.build(exp, EvaluationMode.INTERPRETED);
+            final Expression compiled = BytecodeCompilerTest.build(exp, EvaluationMode.BYTECODE);
+            for (double x = -0.75; x < 4; x += 0.75) {
+                for (double y = 0.5; y < 5; y += 1.25) {
+                    interpreted.setVariable("x", x).setVariable("y", y);
+                    compiled.setVariable("x", x).setVariable("y", y);
+                    Assertions.assertEquals(compiled.evaluate(), interpreted.evaluate(), 0d, exp);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUserFunctionsAndOperators() {
+        final Function avg = new Function("avg", 4) {
+            @Override
+            public double apply(double... args) {
+                return (args[0] + args[1] + args[2] + args[3]) / 4;
+            }
+        };
+        final Function rnd = new Function("rnd", 0, false) {
+            private int count = 0;
+            @Override
+            public double apply(double... args) {
+                return count++;
+            }
+        };
+        final Operator mod = new Operator("$", 2, true, Operator.PRECEDENCE_MODULO) {
+            @Override
+            public double apply(double... args) {
+                return args[0] - args[1];
+            }
+        };
+        final Expression exp = new ExpressionBuilder("avg(x, 2, 3, y) $ rnd() $ avg(1, 1, 1, 1)")
+                .variables("x", "y")
+                .function(avg)
+                .function(rnd)
+                .operator(mod)
+                .build();
+        exp.setVariable("x", 1).setVariable("y", 2);
+        Assertions.assertEquals(1, exp.evaluate(), 0d);
+        Assertions.assertEquals(0, exp.evaluate(), 0d);
+        Assertions.assertEquals(-1, exp.evaluate(), 0d);
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        final Expression exp = new ExpressionBuilder("1 / x + x / 0").variable("x").build();
+        exp.setVariable("x", 0);
+        Assertions.assertThrowsExactly(ArithmeticException.class, exp::evaluate);
+        exp.setVariable("x", 1);
+        Assertions.assertThrowsExactly(ArithmeticException.class, exp::evaluate);
+    }
+}
@@ -59,6 +59,27 @@ public final class PerformanceTest {
         System.out.print(sb);
         sb.setLength(0);
 
+        int bc = benchDoubleCompiled(EvaluationMode.BYTECODE);
+        bc = benchDoubleCompiled(EvaluationMode.BYTECODE);
+        double bcRate = (double) bc / (double) BENCH_TIME;
+        fmt.format("| %-22s | %25.2f | %22.4f %% |%n", "exp4j bytecode", bcRate, bcRate * 100 / mathRate);
+        System.out.print(sb);
+        sb.setLength(0);
+
+        int tr = benchDoubleCompiled(EvaluationMode.TREE);
+        tr = benchDoubleCompiled(EvaluationMode.TREE);
+        double trRate = (double) tr / (double) BENCH_TIME;
+        fmt.format("| %-22s | %25.2f | %22.4f %% |%n", "exp4j tree", trRate, trRate * 100 / mathRate);
+        System.out.print(sb);
+        sb.setLength(0);
+
+        int bt = benchDoubleBatch();
+        bt = benchDoubleBatch();
+        double btRate = (double) bt / (double) BENCH_TIME;
+        fmt.format("| %-22s | %25.2f | %22.4f %% |%n", "exp4j batch", btRate, btRate * 100 / mathRate);
+        System.out.print(sb);
+        sb.setLength(0);
+
 //        int js = benchJavaScript();
 //        js = benchJavaScript();
 //        double jsRate = (double) js / (double) BENCH_TIME;
@@ -86,6 +107,47 @@ public final class PerformanceTest {
         return count + (int) (1.0);
     }
 
+    private int benchDoubleCompiled(EvaluationMode mode) {
+        final Expression expression = new ExpressionBuilder(EXPRESSION)
+                .variables("x", "y")
+                .evaluationMode(mode)
+                .build(true);
+        double val = 0;
+        Random rnd = new Random();
+        long time = System.nanoTime() + (1000000000 * BENCH_TIME);
+        int count = 0;
+        while (time > System.nanoTime()) {
+            expression.setVariable("x", rnd.nextDouble());
+            expression.setVariable("y", rnd.nextDouble());
+            val += expression.evaluate();
+            count++;
+        }
+        return count + (int) (1.0);
+    }
+
+    private int benchDoubleBatch() {
+        final Expression expression = new ExpressionBuilder(EXPRESSION)
+                .variables("x", "y")
+                .build(true);
+        final int rows = 4096;
+        final double[][] columns = new double[2][rows];
+        final double[] out = new double[rows];
+        Random rnd = new Random();
+        for (int i = 0; i < rows; i++) {
+            columns[0][i] = rnd.nextDouble();
+            columns[1][i] = rnd.nextDouble();
+        }
+        double val = 0;
+        long time = System.nanoTime() + (1000000000 * BENCH_TIME);
+        int count = 0;
+        while (time > System.nanoTime()) {
+            expression.evaluate(columns, out);
+            val += out[0];
+            count += rows;
+        }
+        return count + (int) (1.0);
+    }
+
     private int benchDouble() {
         final Expression expression = new ExpressionBuilder(EXPRESSION)
                 .variables("x", "y")
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class SubexpressionsTest {
+    private static final EvaluationMode[] MODES = {
+        EvaluationMode.INTERPRETED, EvaluationMode.TREE, EvaluationMode.BYTECODE
+    };
+
+    /** Counts its calls, deterministic or not */
+    private static final class Counting extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final transient AtomicInteger calls = new AtomicInteger();
+
+        Counting(String name, int n, boolean deterministic) {
+            super(name, n, deterministic);
+        }
+
+        @Override
+        public double apply(double... args) {
+            calls.incrementAndGet();
+            double sum = 0;
+            for (double a : args) {
+                sum += a;
+            }
+            return sum;
+        }
+    }
+
+    private static CompiledExpression compile(String exp, EvaluationMode mode, Function... fns) {
+        return new ExpressionBuilder(exp)
+                .variables("x", "y")
+                .functions(fns)
+                .evaluationMode(mode)
+                .build(false)
+                .getCompiledExpression();
+    }
+
+    private static double evaluate(CompiledExpression exp, double x, double y) {
+        return exp.evaluate(exp.bindings().set("x", x).set("y", y));
+    }
+
+    @Test
+    public void testLargestFirst() {
+        final CompiledExpression exp = compile(
+                "sqrt(x^2+y^2) * sqrt(x^2+y^2) + sqrt(x^2+y^2)", EvaluationMode.INTERPRETED
+        );
+        Assertions.assertEquals(1, exp.layout().temps);
+
+        final CompiledExpression nested = compile(
+                "sin(x*y) + sin(x*y) * cos(x*y)", EvaluationMode.INTERPRETED
+        );
+        Assertions.assertEquals(2, nested.layout().temps);
+
+        Assertions.assertNull(compile("x + y * x + y", EvaluationMode.INTERPRETED).layout().subexpressions);
+        Assertions.assertNull(compile("x + x + pi() + pi()", EvaluationMode.INTERPRETED).layout().subexpressions);
+    }
+
+    @Test
+    public void testSameResults() {
+        final String[] expressions = {
+            "sqrt(x^2+y^2) * sqrt(x^2+y^2) + sqrt(x^2+y^2)",
+            "sin(x*y) + sin(x*y) * cos(x*y) - x*y",
+            "(x - y) / (x - y) + (x - y) % 3 + -(x - y)",
+            "sum4(sin(x), sin(x), y * 2, y * 2) + sin(x)",
+            "abs(x + 1) + abs(y + 1) + abs(x + 1) * abs(y + 1)",
+        };
+        final Function sum4 = new Counting("sum4", 4, true);
+        final double[][] columns = {{1, -3, 7}, {2, 0.5, 7.5}};
+        for (String source : expressions) {
+            //Interpreted batches are evaluated token by token, without sharing anything
+            final double[] expected = new double[3];
+            compile(source, EvaluationMode.INTERPRETED, sum4).evaluate(columns, expected);
+            for (EvaluationMode mode : MODES) {
+                final CompiledExpression exp = compile(source, mode, sum4);
+                Assertions.assertNotNull(exp.layout().subexpressions, source);
+                for (int i = 0; i < 3; i++) {
+                    Assertions.assertEquals(
+                            expected[i], evaluate(exp, columns[0][i], columns[1][i]), 1e-12,
+                            source + " " + mode
+                    );
+                }
+            }
+            final double[] out = new double[3];
+            compile(source, EvaluationMode.BYTECODE, sum4).evaluate(columns, out);
+            Assertions.assertArrayEquals(expected, out, 1e-12, source);
+        }
+    }
+
+    @Test
+    public void testDeterministic() {
+        for (EvaluationMode mode : MODES) {
+            final Counting f = new Counting("f", 1, true);
+            final CompiledExpression exp = compile("f(x) + f(x) * f(x) + f(y)", mode, f);
+            Assertions.assertEquals(3 + 3 * 3 + 2, evaluate(exp, 3, 2), 0d);
+            Assertions.assertEquals(2, f.calls.get(), mode.toString());
+        }
+    }
+
+    @Test
+    public void testNonDeterministic() {
+        for (EvaluationMode mode : MODES) {
+            final Counting f = new Counting("f", 1, false);
+            final CompiledExpression exp = compile("f(x) + f(x) * f(x) + sqrt(f(x)) - y", mode, f);
+            Assertions.assertNull(exp.layout().subexpressions);
+            Assertions.assertEquals(3 + 3 * 3 + Math.sqrt(3) - 2, evaluate(exp, 3, 2), 0d);
+            Assertions.assertEquals(4, f.calls.get(), mode.toString());
+        }
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        for (EvaluationMode mode : MODES) {
+            final CompiledExpression exp = compile("1 / (x - y) + 1 / (x - y)", mode);
+            Assertions.assertThrows(ArithmeticException.class, () -> evaluate(exp, 2, 2));
+            Assertions.assertEquals(2, evaluate(exp, 3, 2), 0d);
+        }
+    }
+}
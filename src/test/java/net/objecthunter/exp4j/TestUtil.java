@@ -16,6 +16,19 @@
 
 package net.objecthunter.exp4j;
 
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
 import net.objecthunter.exp4j.tokenizer.*;
 import org.junit.jupiter.api.Assertions;
 
@@ -56,4 +69,44 @@ public abstract class TestUtil {
     public static void assertFunctionSeparatorToken(Token t) {
         Assertions.assertEquals(t.getType(), TokenType.SEPARATOR);
     }
+
+    /**
+     * Compiles sources with {@code javac} (with exp4j in the classpath) and loads the result.
+     *
+     * @param dir where to write the sources and the classes
+     * @param sources source code by fully qualified class name
+     * @param options extra {@code javac} options
+     * @return class loader of the compiled classes
+     * @throws AssertionError with the output of {@code javac} if the compilation fails
+     */
+    public static ClassLoader compile(Path dir, Map<String, String> sources, String... options)
+            throws IOException {
+        final Path classes = Files.createDirectories(dir.resolve("classes"));
+        final List<String> args = new ArrayList<>(List.of(options));
+        args.add("-d");
+        args.add(classes.toString());
+        args.add("-s");
+        args.add(Files.createDirectories(dir.resolve("generated")).toString());
+        args.add("-cp");
+        try {
+            args.add(Path.of(Evaluator.class.getProtectionDomain()
+                                            .getCodeSource()
+                                            .getLocation()
+                                            .toURI()).toString());
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+        for (Map.Entry<String, String> e : sources.entrySet()) {
+            final Path file = dir.resolve("src").resolve(e.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, e.getValue());
+            args.add(file.toString());
+        }
+
+        final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final int status = javac.run(null, out, out, args.toArray(String[]::new));
+        Assertions.assertEquals(0, status, out.toString());
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, TestUtil.class.getClassLoader());
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class TieredCompilationTest {
+
+    private static void awaitCompiled(CompiledExpression exp) throws InterruptedException {
+        final long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!exp.isCompiled() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testPromotion() throws InterruptedException {
+        final long before = TieredStatistics.get().getPromoted();
+        final CompiledExpression exp = new ExpressionBuilder("sin(x) * y + 2")
+                .variables("x", "y")
+                .evaluationMode(EvaluationMode.TIERED)
+                .compileThreshold(10)
+                .build()
+                .getCompiledExpression();
+        final Bindings b = exp.bindings().set("y", 3);
+        for (int i = 0; i < 9; i++) {
+            Assertions.assertEquals(Math.sin(i) * 3 + 2, exp.evaluate(b.set("x", i)), 0d);
+        }
+        Assertions.assertEquals(9, exp.getEvaluationCount());
+        Assertions.assertFalse(exp.isCompiled());
+        Assertions.assertEquals(before, TieredStatistics.get().getPromoted());
+
+        Assertions.assertEquals(Math.sin(9) * 3 + 2, exp.evaluate(b.set("x", 9)), 0d);
+        awaitCompiled(exp);
+        Assertions.assertTrue(exp.isCompiled());
+        Assertions.assertEquals(10, exp.getEvaluationCount());
+
+        final TieredStatistics stats = TieredStatistics.get();
+        Assertions.assertTrue(stats.getPromoted() > before);
+        Assertions.assertTrue(stats.getCompiledToBytecode() + stats.getCompiledToTree() > 0);
+        Assertions.assertTrue(stats.getCompileTimeNanos() > 0);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(Math.sin(i) * 3 + 2, exp.evaluate(b.set("x", i)), 0d);
+        }
+        Assertions.assertEquals(10, exp.getEvaluationCount());
+    }
+
+    @Test
+    public void testDefaultThreshold() {
+        final CompiledExpression exp = new ExpressionBuilder("x + 1")
+                .variable("x")
+                .evaluationMode(EvaluationMode.TIERED)
+                .build()
+                .getCompiledExpression();
+        final Bindings b = exp.bindings();
+        for (int i = 0; i < TieredCompiler.DEFAULT_THRESHOLD - 1; i++) {
+            exp.evaluate(b.set("x", i));
+        }
+        Assertions.assertFalse(exp.isCompiled());
+    }
+
+    @Test
+    public void testNotTiered() {
+        final CompiledExpression exp = new ExpressionBuilder("x + 1")
+                .variable("x")
+                .compileThreshold(1)
+                .build()
+                .getCompiledExpression();
+        exp.evaluate(exp.bindings().set("x", 1));
+        exp.evaluate(exp.bindings().set("x", 2));
+        Assertions.assertFalse(exp.isCompiled());
+    }
+
+    @Test
+    public void testSerializedStartsInterpreted() throws Exception {
+        final Expression exp = new ExpressionBuilder("x * 2")
+                .variable("x")
+                .evaluationMode(EvaluationMode.TIERED)
+                .compileThreshold(1)
+                .build();
+        exp.setVariable("x", 2);
+        Assertions.assertEquals(4, exp.evaluate(), 0d);
+        awaitCompiled(exp.getCompiledExpression());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(exp);
+        }
+        final Expression exp1;
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            exp1 = (Expression) ois.readObject();
+        }
+        Assertions.assertFalse(exp1.isCompiled());
+        exp1.setVariable("x", 3);
+        Assertions.assertEquals(6, exp1.evaluate(), 0d);
+        awaitCompiled(exp1.getCompiledExpression());
+        Assertions.assertTrue(exp1.isCompiled());
+    }
+
+    @Test
+    public void testInvalidNeverPromoted() {
+        final CompiledExpression exp = new ExpressionBuilder("3 * ")
+                .evaluationMode(EvaluationMode.TIERED)
+                .compileThreshold(1)
+                .build()
+                .getCompiledExpression();
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                    () -> exp.evaluate(exp.bindings()));
+        }
+        Assertions.assertEquals(0, exp.getEvaluationCount());
+        Assertions.assertFalse(exp.isCompiled());
+    }
+
+    @Test
+    public void testInterpretedNotCounted() {
+        final CompiledExpression exp = new ExpressionBuilder("x * 2")
+                .variables("x")
+                .evaluationMode(EvaluationMode.INTERPRETED)
+                .build()
+                .getCompiledExpression();
+        final Bindings b = exp.bindings();
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(2 * i, exp.evaluate(b.set("x", i)), 0d);
+        }
+        Assertions.assertEquals(0, exp.getEvaluationCount());
+        Assertions.assertFalse(exp.isCompiled());
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> new ExpressionBuilder("1").compileThreshold(0));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.stream.IntStream;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class TreeCompilerTest {
+
+    private static final String[] FUSED = {
+        "x + 2 - y", "x - 2 + y", "2 * x * y", "x * 2 - y", "x + y", "x * y", "-x - -0 + y",
+        "x + +y", "-0 - x * y", "x * 0 - 0 * y", "sqrt(x) + exp(y) + log(x) + abs(-y) + cos(x) * sin(y)",
+    };
+
+    @Test
+    public void testSameResults() {
+        final String[] all = new String[BytecodeCompilerTest.EXPRESSIONS.length + FUSED.length];
+        System.arraycopy(BytecodeCompilerTest.EXPRESSIONS, 0, all, 0, BytecodeCompilerTest.EXPRESSIONS.length);
+        System.arraycopy(FUSED, 0, all, BytecodeCompilerTest.EXPRESSIONS.length, FUSED.length);
+        for (String exp : all) {
+            final Expression interpreted = BytecodeCompilerTest.build(exp, EvaluationMode.INTERPRETED);
+            final Expression tree = BytecodeCompilerTest.build(exp, EvaluationMode.TREE);
+            Assertions.assertTrue(tree.isCompiled(), exp);
+            for (double x = -0.75; x < 4; x += 0.75) {
+                for (double y = 0.5; y < 5; y += 1.25) {
+                    interpreted.setVariable("x", x).setVariable("y", y);
+                    tree.setVariable("x", x).setVariable("y", y);
+                    Assertions.assertEquals(interpreted.evaluate(), tree.evaluate(), 0d, exp);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUserFunctionsAndOperators() {
+        final Function avg = new Function("avg", 4) {
+            @Override
+            public double apply(double... args) {
+                return (args[0] + args[1] + args[2] + args[3]) / 4;
+            }
+        };
+        final Function rnd = new Function("rnd", 0, false) {
+            private int count = 0;
+            @Override
+            public double apply(double... args) {
+                return count++;
+            }
+        };
+        final Operator mod = new Operator("$", 2, true, Operator.PRECEDENCE_MODULO) {
+            @Override
+            public double apply(double... args) {
+                return args[0] - args[1];
+            }
+        };
+        final Expression exp = new ExpressionBuilder("avg(x, 2, 3, y) $ rnd() $ avg(1, 1, 1, 1)")
+                .variables("x", "y")
+                .function(avg)
+                .function(rnd)
+                .operator(mod)
+                .evaluationMode(EvaluationMode.TREE)
+                .build();
+        Assertions.assertTrue(exp.isCompiled());
+        exp.setVariable("x", 1).setVariable("y", 2);
+        Assertions.assertEquals(1, exp.evaluate(), 0d);
+        Assertions.assertEquals(0, exp.evaluate(), 0d);
+        Assertions.assertEquals(-1, exp.evaluate(), 0d);
+    }
+
+    @Test
+    public void testVarargsConcurrently() {
+        final Function avg = new Function("avg", 4) {
+            @Override
+            public double apply(double... args) {
+                return (args[0] + args[1] + args[2] + args[3]) / 4;
+            }
+        };
+        final CompiledExpression exp = new ExpressionBuilder("avg(x, x, x, x)")
+                .variable("x")
+                .function(avg)
+                .evaluationMode(EvaluationMode.TREE)
+                .build()
+                .getCompiledExpression();
+        Assertions.assertTrue(IntStream.range(0, 100_000).parallel().allMatch(
+                i -> exp.evaluate(exp.bindings().set("x", i)) == i
+        ));
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        final Expression exp = new ExpressionBuilder("1 / x")
+                .variable("x")
+                .evaluationMode(EvaluationMode.TREE)
+                .build();
+        exp.setVariable("x", 0);
+        Assertions.assertThrowsExactly(ArithmeticException.class, exp::evaluate);
+    }
+
+    @Test
+    public void testInvalidFallsBack() {
+        final Expression exp = new ExpressionBuilder("3 * ")
+                .evaluationMode(EvaluationMode.TREE)
+                .build();
+        Assertions.assertFalse(exp.isCompiled());
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, exp::evaluate);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final Expression exp = new ExpressionBuilder("sqrt(x) + 1")
+                .variable("x")
+                .evaluationMode(EvaluationMode.TREE)
+                .build();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(exp);
+        }
+        final Expression exp1;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            exp1 = (Expression) ois.readObject();
+        }
+        Assertions.assertTrue(exp1.isCompiled());
+        exp1.setVariable("x", 16);
+        Assertions.assertEquals(5, exp1.evaluate(), 0d);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.codegen;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import net.objecthunter.exp4j.Evaluator;
+import net.objecthunter.exp4j.ExpressionContext;
+import net.objecthunter.exp4j.TestUtil;
+import net.objecthunter.exp4j.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class FormulaProcessorTest {
+    private static final String PROCESSOR = FormulaProcessor.class.getName();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testGenerate() throws Exception {
+        final String source = """
+                package acme;
+
+                import net.objecthunter.exp4j.codegen.Formula;
+
+                public class Prices {
+                    @Formula(className = "Total", variables = {"price", "tax"})
+                    public static final String TOTAL = "price * " + 1.5 + " + tax";
+
+                    @Formula(className = "Scaled", variables = "x", functions = "scale/2")
+                    static final String SCALED = "scale(x, 3) + 1";
+                }
+                """;
+        final ClassLoader loader = TestUtil.compile(
+                dir, Map.of("acme.Prices", source), "-processor", PROCESSOR
+        );
+        Assertions.assertTrue(Files.exists(dir.resolve("generated/acme/Total.java")));
+
+        final Evaluator total = (Evaluator) loader.loadClass("acme.Total")
+                                                  .getConstructor()
+                                                  .newInstance();
+        Assertions.assertEquals(17, total.evaluate(new double[]{10, 2}), 0d);
+
+        final Function scale = new Function("scale", 2) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public double apply(double... args) {
+                return args[0] * args[1];
+            }
+        };
+        final ExpressionContext ctx = ExpressionContext.builder().function(scale).build();
+        final Evaluator scaled = (Evaluator) loader.loadClass("acme.Scaled")
+                                                   .getConstructor(ExpressionContext.class)
+                                                   .newInstance(ctx);
+        Assertions.assertEquals(7, scaled.evaluate(new double[]{2}), 0d);
+    }
+
+    @Test
+    public void testNotDiscovered() throws Exception {
+        //Projects that depend on exp4j don't run the processor unless they ask for it
+        final String source = """
+                package acme;
+
+                import net.objecthunter.exp4j.codegen.Formula;
+
+                public class Prices {
+                    @Formula(className = "Total", variables = "price")
+                    public static final String TOTAL = "price * 2";
+                }
+                """;
+        final ClassLoader loader = TestUtil.compile(dir, Map.of("acme.Prices", source));
+        Assertions.assertThrows(ClassNotFoundException.class, () -> loader.loadClass("acme.Total"));
+    }
+
+    private void assertFails(String annotation, String message) throws Exception {
+        final String source = """
+                package acme;
+
+                import net.objecthunter.exp4j.codegen.Formula;
+
+                public class Broken {
+                    %s
+                }
+                """.formatted(annotation);
+        final AssertionError error = Assertions.assertThrows(
+                AssertionError.class,
+                () -> TestUtil.compile(dir, Map.of("acme.Broken", source), "-processor", PROCESSOR)
+        );
+        Assertions.assertTrue(error.getMessage().contains(message), error.getMessage());
+        Assertions.assertFalse(error.getMessage().contains("uncaught exception"), error.getMessage());
+    }
+
+    @Test
+    public void testInvalidExpression() throws Exception {
+        assertFails(
+                "@Formula(className = \"Bad\") static final String BAD = \"x + 1\";",
+                "x"
+        );
+    }
+
+    @Test
+    public void testDivisionByZero() throws Exception {
+        assertFails(
+                "@Formula(className = \"Div\", variables = \"x\") static final String DIV = \"x + 1/0\";",
+                "Division by zero"
+        );
+    }
+
+    @Test
+    public void testUnbalancedParentheses() throws Exception {
+        assertFails(
+                "@Formula(className = \"Bad\", variables = \"x\") static final String BAD = \"x + 1)\";",
+                "EmptyStackException"
+        );
+    }
+
+    @Test
+    public void testNotAConstant() throws Exception {
+        assertFails(
+                "@Formula(className = \"Bad\") static String BAD = \"1 + 1\";",
+                "String"
+        );
+    }
+
+    @Test
+    public void testInvalidFunction() throws Exception {
+        assertFails(
+                "@Formula(className = \"Bad\", functions = \"f\") static final String BAD = \"1\";",
+                "'f'"
+        );
+    }
+
+    @Test
+    public void testInvalidClassName() throws Exception {
+        assertFails(
+                "@Formula(className = \"Not valid\") static final String BAD = \"1\";",
+                "Not valid"
+        );
+    }
+}
@@ -20,6 +20,7 @@ import net.objecthunter.exp4j.tokenizer.Token;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -165,4 +166,26 @@ public class ShuntingYardTest {
         assertFunctionToken(tokens[1], "cos", 1);
         assertFunctionToken(tokens[2], "sin", 1);
     }
+
+    @Test
+    public void testSharedOperatorTokens() {
+        final Token[] a = ShuntingYard.convertToRPN(false, "2(3 - 1) * -4", null, null, null, true);
+        final Token[] b = ShuntingYard.convertToRPN(false, "5 * 6 - -7", null, null, null, true);
+        //2 3 1 - * 4 - *  and  5 6 * 7 - -
+        Assertions.assertSame(a[4], a[7]);
+        Assertions.assertSame(a[4], b[2]);
+        Assertions.assertSame(a[3], b[5]);
+        Assertions.assertSame(a[6], b[4]);
+        Assertions.assertNotSame(a[3], a[6]);
+    }
+
+    @Test
+    public void testMismatchedParentheses() {
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> ShuntingYard.convertToRPN(false, "(2 + 3", null, null, null, true));
+        Assertions.assertThrowsExactly(IllegalArgumentException.class,
+                () -> ShuntingYard.convertToRPN(false, "2, 3", null, null, null, true));
+        Assertions.assertThrowsExactly(EmptyStackException.class,
+                () -> ShuntingYard.convertToRPN(false, "2 + 3)", null, null, null, true));
+    }
 }
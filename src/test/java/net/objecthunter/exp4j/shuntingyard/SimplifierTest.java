@@ -800,4 +800,14 @@ public class SimplifierTest {
             Assertions.assertEquals(exp1.setVariables(vals).evaluate(), exp2.setVariables(vals).evaluate(), 0d);
         }
     }
+
+    @Test
+    public void testInputNotModified() {
+        final Token[] tokens = ShuntingYard.convertToRPN(false, "2 * 3 + x", null, null, Set.of("x"), true);
+        final Token[] copy = tokens.clone();
+        final Token[] stokens = Simplifier.simplify(tokens);
+        Assertions.assertArrayEquals(copy, tokens);
+        Assertions.assertEquals(3, stokens.length);
+        Assertions.assertEquals(6, ((NumberToken) stokens[0]).getValue(), 0d);
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Federico Vera
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.objecthunter.exp4j.tokenizer;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Federico Vera {@literal <fede@riddler.com.ar>}
+ */
+public class NumberParserTest {
+    private static void assertParsed(String literal) {
+        Assertions.assertEquals(
+                Double.doubleToRawLongBits(Double.parseDouble(literal)),
+                Double.doubleToRawLongBits(NumberParser.parse(literal.toCharArray(), 0, literal.length())),
+                literal
+        );
+    }
+
+    @Test
+    public void testSimple() {
+        for (String s : new String[]{
+            "0", "0.0", "00", "1", "1.", ".5", "00012.5000", "3.14159", "0.1", "0.3", "123e4",
+            "1E-3", "2.5e+10", "1e0", "0e999", "0.000000000000000000000000000000000001"
+        }) {
+            assertParsed(s);
+        }
+    }
+
+    @Test
+    public void testHardCases() {
+        for (String s : new String[]{
+            "9007199254740992", "9007199254740993", "9007199254740995", "18014398509481985",
+            "9999999999999999999", "12345678901234567890123", "1e23", "8.41e21", "7.3177701707893310e15",
+            "2.2250738585072014e-308", "2.2250738585072011e-308", "4.9e-324", "2.4703282292062328e-324",
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.8e308", "1e-400", "1e400",
+            "0.1000000000000000055511151231257827", "9.109383701528e-31", "6.02214076e23"
+        }) {
+            assertParsed(s);
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        final Random rnd = new Random(1234);
+        for (int i = 0; i < 100_000; i++) {
+            final double d = Double.longBitsToDouble(rnd.nextLong() & Long.MAX_VALUE);
+            if (Double.isFinite(d)) {
+                assertParsed(Double.toString(d));
+                assertParsed(String.format(Locale.ROOT, "%.16e", d));
+            }
+            final StringBuilder sb = new StringBuilder();
+            final int digits = 1 + rnd.nextInt(19);
+            for (int j = 0; j < digits; j++) {
+                sb.append((char) ('0' + rnd.nextInt(10)));
+            }
+            sb.insert(rnd.nextInt(digits + 1), '.');
+            sb.append('e').append(rnd.nextInt(700) - 350);
+            assertParsed(sb.toString());
+        }
+    }
+
+    @Test
+    public void testOffset() {
+        final char[] chars = "x+12.5e1*y".toCharArray();
+        Assertions.assertEquals(125.0, NumberParser.parse(chars, 2, 6));
+    }
+
+    @Test
+    public void testMalformed() {
+        for (String s : new String[]{".", "1.2.3", "1e", "1e+", "e5", "1e5.5", "١"}) {
+            Assertions.assertThrowsExactly(
+                    NumberFormatException.class,
+                    () -> NumberParser.parse(s.toCharArray(), 0, s.length()),
+                    s
+            );
+        }
+    }
+}
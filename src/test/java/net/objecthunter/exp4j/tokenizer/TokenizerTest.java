@@ -15,8 +15,10 @@
  */
 package net.objecthunter.exp4j.tokenizer;
 
+import net.objecthunter.exp4j.extras.OperatorsComparison;
 import net.objecthunter.exp4j.function.Function;
 import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.operator.Operators;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -549,4 +551,153 @@ public class TokenizerTest {
 
         Assertions.assertFalse(tokenizer.hasNext());
     }
+
+    @Test
+    public void testLongestMatch() {
+        final Function si = new Function("si") {
+            @Override
+            public double apply(double... args) {
+                return args[0];
+            }
+        };
+        final Map<String, Function> funcs = Map.of("si", si);
+        final Set<String> vars = Set.of("s", "sinx", "x_1.2");
+        final Tokenizer tokenizer = new Tokenizer("sinhx_1.2 sinx si(s) sin(x_1.2)", funcs, null, vars, true);
+        assertFunctionToken(tokenizer.nextToken(), "sinh", 1);
+        assertVariableToken(tokenizer.nextToken(), "x_1.2");
+        assertOperatorToken(tokenizer.nextToken(), "*", 2, Operator.PRECEDENCE_MULTIPLICATION);
+        assertVariableToken(tokenizer.nextToken(), "sinx");
+        assertOperatorToken(tokenizer.nextToken(), "*", 2, Operator.PRECEDENCE_MULTIPLICATION);
+        final Token token = tokenizer.nextToken();
+        Assertions.assertSame(si, ((FunctionToken) token).getFunction());
+    }
+
+    @Test
+    public void testUserFunctionHidesBuiltin() {
+        final Function sin = new Function("sin") {
+            @Override
+            public double apply(double... args) {
+                return args[0];
+            }
+        };
+        final Tokenizer tokenizer = new Tokenizer("sin(1)", Map.of("sin", sin), null, null, true);
+        Assertions.assertSame(sin, ((FunctionToken) tokenizer.nextToken()).getFunction());
+    }
+
+    @Test
+    public void testBuiltinFunctionsDisabled() {
+        final Tokenizer tokenizer = new Tokenizer("sin(1)", null, null, Set.of("s"), false);
+        assertVariableToken(tokenizer.nextToken(), "s");
+        assertOperatorToken(tokenizer.nextToken(), "*", 2, Operator.PRECEDENCE_MULTIPLICATION);
+        final UnknownFunctionOrVariableException ex = Assertions.assertThrowsExactly(
+                UnknownFunctionOrVariableException.class, tokenizer::nextToken
+        );
+        Assertions.assertEquals("in", ex.getToken());
+    }
+
+    @Test
+    public void testNonAsciiNames() {
+        final Tokenizer tokenizer = new Tokenizer("\u03b1\u00f1o + \u03b1", null, null, Set.of("\u03b1\u00f1o", "\u03b1"), true);
+        assertVariableToken(tokenizer.nextToken(), "\u03b1\u00f1o");
+        tokenizer.nextToken();
+        assertVariableToken(tokenizer.nextToken(), "\u03b1");
+    }
+
+    @Test
+    public void testUnknownLongName() {
+        final Tokenizer tokenizer = new Tokenizer("xyz_1 + 1", null, null, Set.of("y"), true);
+        final UnknownFunctionOrVariableException ex = Assertions.assertThrowsExactly(
+                UnknownFunctionOrVariableException.class, tokenizer::nextToken
+        );
+        Assertions.assertEquals("xyz_1", ex.getToken());
+    }
+
+    @Test
+    public void testOperatorLongestMatch() {
+        final Map<String, Operator> operators = new HashMap<>();
+        for (Operator op : OperatorsComparison.getOperators()) {
+            operators.put(op.getSymbol(), op);
+        }
+        final Tokenizer tokenizer = new Tokenizer(
+                "a >= b & c != d | \u00ace < -f", null, operators,
+                new HashSet<>(Arrays.asList("a", "b", "c", "d", "e", "f")), true
+        );
+        final String[] expected = {
+            "a", ">=", "b", "&", "c", "!=", "d", "|", "\u00ac", "e", "<", "-", "f"
+        };
+        final List<Token> tokens = new ArrayList<>();
+        while (tokenizer.hasNext()) {
+            tokens.add(tokenizer.nextToken());
+        }
+        Assertions.assertEquals(expected.length, tokens.size());
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], tokens.get(i).toString());
+        }
+        Assertions.assertSame(OperatorsComparison.OP_GOE, ((OperatorToken) tokens.get(1)).getOperator());
+        Assertions.assertSame(Operators.getBuiltinOperator('-', 1), ((OperatorToken) tokens.get(11)).getOperator());
+    }
+
+    @Test
+    public void testOperatorPrefixFallback() {
+        final Map<String, Operator> operators = new HashMap<>();
+        operators.put("<=", OperatorsComparison.OP_LOE);
+        //"<" isn't an operator by itself, so "<<" can't be split
+        final Tokenizer tokenizer = new Tokenizer("1 <<= 2", null, operators, null, true);
+        assertNumberToken(tokenizer.nextToken(), 1d);
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, tokenizer::nextToken);
+
+        //"!=" isn't an operator here, so only "!" is taken
+        final Tokenizer factorial = new Tokenizer("3!=", null, operators, null, true);
+        assertNumberToken(factorial.nextToken(), 3d);
+        Assertions.assertSame(
+                Operators.getBuiltinOperator('!', 2), ((OperatorToken) factorial.nextToken()).getOperator()
+        );
+        Assertions.assertThrowsExactly(IllegalArgumentException.class, factorial::nextToken);
+    }
+
+    @Test
+    public void testAllowedOperatorChars() {
+        for (char ch : "+-*/%^!#\u00a7$&;:~<>|=\u00ac".toCharArray()) {
+            Assertions.assertTrue(Operator.isAllowedOperatorChar(ch), String.valueOf(ch));
+        }
+        for (char ch : "a0_.,() \u00ab\u00ad\u2260".toCharArray()) {
+            Assertions.assertFalse(Operator.isAllowedOperatorChar(ch), String.valueOf(ch));
+        }
+    }
+
+    @Test
+    public void testSharedNumberTokens() {
+        final Tokenizer tokenizer = new Tokenizer(
+                "2*x + 2.0*y + 0.5 - 5e-1 + 3", null, null, new HashSet<>(Arrays.asList("x", "y")), true
+        );
+        final List<Token> numbers = new ArrayList<>();
+        while (tokenizer.hasNext()) {
+            final Token t = tokenizer.nextToken();
+            if (t.getType() == TokenType.NUMBER) {
+                numbers.add(t);
+            }
+        }
+        Assertions.assertEquals(5, numbers.size());
+        Assertions.assertSame(numbers.get(0), numbers.get(1));
+        Assertions.assertSame(numbers.get(2), numbers.get(3));
+        Assertions.assertNotSame(numbers.get(0), numbers.get(4));
+        assertNumberToken(numbers.get(4), 3d);
+    }
+
+    @Test
+    public void testManyNumbers() {
+        final StringBuilder sb = new StringBuilder("0");
+        for (int i = 1; i < 1000; i++) {
+            sb.append('+').append(i % 300).append(".25");
+        }
+        final Tokenizer tokenizer = new Tokenizer(sb.toString(), null, null, null, true);
+        final Map<Double, Token> seen = new HashMap<>();
+        while (tokenizer.hasNext()) {
+            final Token t = tokenizer.nextToken();
+            if (t instanceof NumberToken n) {
+                Assertions.assertSame(seen.computeIfAbsent(n.getValue(), v -> n), n);
+            }
+        }
+        Assertions.assertEquals(301, seen.size());
+    }
 }